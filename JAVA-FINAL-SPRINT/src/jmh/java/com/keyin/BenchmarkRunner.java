@@ -0,0 +1,41 @@
+package com.keyin;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the usual JMH command line
+ * (e.g. {@code -p catalogSize=1000,10000 ProductService}) and, unless told
+ * otherwise, writes JSON results to {@code target/jmh-results/} named after
+ * the project version so runs can be diffed between releases.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class BenchmarkRunner {
+    private static final String RESULTS_DIR = "target/jmh-results";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            new File(RESULTS_DIR).mkdirs();
+            String version = BenchmarkRunner.class.getPackage().getImplementationVersion();
+            options.result(RESULTS_DIR + "/ecommerce-" + (version != null ? version : "dev") + ".json");
+        }
+
+        new Runner(options.build()).run();
+    }
+}
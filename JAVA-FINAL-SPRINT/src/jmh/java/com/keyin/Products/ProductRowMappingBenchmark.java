@@ -0,0 +1,103 @@
+package com.keyin.Products;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of turning a products result set into {@link Product} objects.
+ * Uses an in-process H2 database so the numbers do not depend on network or server load.
+ *
+ * <ul>
+ *     <li>{@code daoGetAllProducts} - the real {@link ProductDAO#getAllProducts()} path (query plus mapping by column name)</li>
+ *     <li>{@code mapByColumnName} - {@link ProductDAO#mapProduct(ResultSet)} over an open result set</li>
+ *     <li>{@code mapByColumnIndex} - the same mapping by column position, as a lower bound</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductRowMappingBenchmark {
+    private static final String SELECT_ALL = "SELECT product_id, name, description, price, quantity, seller_id, version FROM products";
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private JdbcDataSource dataSource;
+    private Connection keepAlive;
+    private ProductDAO productDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:products_" + catalogSize + ";MODE=PostgreSQL");
+        // An in-memory H2 database lives as long as one connection is open
+        keepAlive = dataSource.getConnection();
+
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("CREATE TABLE products (product_id INT PRIMARY KEY, seller_id INT, name VARCHAR(100) NOT NULL, "
+                    + "description TEXT, price DECIMAL(10,2) NOT NULL, quantity INT NOT NULL, version INT NOT NULL DEFAULT 0)");
+        }
+        String insert = "INSERT INTO products (product_id, seller_id, name, description, price, quantity) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = keepAlive.prepareStatement(insert)) {
+            for (int id = 1; id <= catalogSize; id++) {
+                stmt.setInt(1, id);
+                stmt.setInt(2, 1 + id % 50);
+                stmt.setString(3, "Product " + id);
+                stmt.setString(4, "Description of product " + id + " with a few more words to look realistic");
+                stmt.setDouble(5, 1 + (id % 1000) / 10.0);
+                stmt.setInt(6, id % 100);
+                stmt.addBatch();
+                if (id % 10_000 == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+        productDAO = new ProductDAO(dataSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        keepAlive.close();
+    }
+
+    @Benchmark
+    public List<Product> daoGetAllProducts() throws SQLException {
+        return productDAO.getAllProducts();
+    }
+
+    @Benchmark
+    public List<Product> mapByColumnName() throws SQLException {
+        List<Product> products = new ArrayList<>(catalogSize);
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_ALL)) {
+            while (rs.next()) {
+                products.add(ProductDAO.mapProduct(rs));
+            }
+        }
+        return products;
+    }
+
+    @Benchmark
+    public List<Product> mapByColumnIndex() throws SQLException {
+        List<Product> products = new ArrayList<>(catalogSize);
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_ALL)) {
+            while (rs.next()) {
+                products.add(new Product(rs.getInt(1), rs.getString(2), rs.getString(3),
+                        rs.getDouble(4), rs.getInt(5), rs.getInt(6)));
+            }
+        }
+        return products;
+    }
+}
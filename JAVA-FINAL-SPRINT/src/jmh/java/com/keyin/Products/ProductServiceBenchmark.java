@@ -0,0 +1,67 @@
+package com.keyin.Products;
+
+import com.keyin.Database.InMemoryDatabase;
+import com.keyin.Database.InMemoryProductRepository;
+import com.keyin.Database.InMemoryUserRepository;
+import com.keyin.User.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures service-layer overhead on top of a zero-I/O repository.
+ * {@code repositoryGetAllProducts} is the baseline fetch; the difference to
+ * {@code serviceGetAllProducts} is what {@link ProductService} adds on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductServiceBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private ProductRepository repository;
+    private ProductService productService;
+    private User seller;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        InMemoryDatabase database = new InMemoryDatabase();
+        repository = new InMemoryProductRepository(database);
+        seller = new InMemoryUserRepository(database)
+                .createUser(new User("bench_seller", "hash", "bench@example.com", "seller"));
+
+        for (int i = 1; i <= catalogSize; i++) {
+            repository.createProduct(new Product("Product " + i, "Description " + i,
+                    1 + (i % 1000) / 10.0, i % 100, seller.getUser_id()));
+        }
+        productService = new ProductService(repository);
+        productService.buildSearchIndex();
+    }
+
+    @Benchmark
+    public List<Product> repositoryGetAllProducts() throws SQLException {
+        return repository.getAllProducts();
+    }
+
+    @Benchmark
+    public List<Product> serviceGetAllProducts() {
+        return productService.getAllProducts();
+    }
+
+    @Benchmark
+    public List<Product> serviceGetSellerProducts() {
+        return productService.getSellerProducts(seller);
+    }
+
+    @Benchmark
+    public List<String> serviceSuggestProductNames() {
+        return productService.suggestProductNames("product 12", 10);
+    }
+}
@@ -0,0 +1,66 @@
+package com.keyin.User;
+
+import com.keyin.Database.InMemoryDatabase;
+import com.keyin.Database.InMemoryUserRepository;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures BCrypt cost on the registration and login paths.
+ * {@code hashpw} isolates the raw hash at a few work factors; the service
+ * benchmarks go through {@link UserService} with an in-memory repository so
+ * only hashing and service overhead are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PasswordHashingBenchmark {
+    private static final String PASSWORD = "correct horse battery staple";
+
+    private final AtomicInteger registrations = new AtomicInteger();
+    private UserService userService;
+
+    /**
+     * Salt at a given work factor; only {@link #hashpw(Salt)} is parameterized by it.
+     */
+    @State(Scope.Benchmark)
+    public static class Salt {
+        @Param({"10", "11", "12"})
+        public int workload;
+
+        private String value;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            value = BCrypt.gensalt(workload);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userService = new UserService(new InMemoryUserRepository(new InMemoryDatabase()));
+        userService.registerUser("bench_user", PASSWORD, "bench_user@example.com", "buyer");
+    }
+
+    @Benchmark
+    public String hashpw(Salt salt) {
+        return BCrypt.hashpw(PASSWORD, salt.value);
+    }
+
+    @Benchmark
+    public User serviceRegisterUser() {
+        int n = registrations.incrementAndGet();
+        return userService.registerUser("bench_" + n, PASSWORD, "bench_" + n + "@example.com", "buyer");
+    }
+
+    @Benchmark
+    public User serviceLogin() {
+        return userService.login("bench_user", PASSWORD);
+    }
+}
@@ -1,26 +1,103 @@
 package com.keyin.Database;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
+/**
+ * Central database configuration for the application.
+ * Owns a single bounded connection pool that every DAO borrows from; callers
+ * obtain a connection per operation and return it to the pool by closing it.
+ *
+ * <p>Every setting can be overridden with a system property, e.g.
+ * {@code -Ddb.url=jdbc:postgresql://host:5432/ecommerce -Ddb.pool.maxSize=20}.</p>
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.1
+ * @since 2024-11-27
+ */
 public class DatabaseConfig {
-    private static final String URL = "jdbc:postgresql://localhost:5432/ecommerce";
-    private static final String USER = "postgres";
-    private static final String PASSWORD = "password123";
+    private static final String URL = System.getProperty("db.url", "jdbc:postgresql://localhost:5432/ecommerce");
+    private static final String USER = System.getProperty("db.username", "postgres");
+    private static final String PASSWORD = System.getProperty("db.password", "password123");
 
-    private static Connection connection;
+    private static final int MIN_IDLE = Integer.getInteger("db.pool.minIdle", 2);
+    private static final int MAX_POOL_SIZE = Integer.getInteger("db.pool.maxSize",
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("db.pool.borrowTimeoutMs", 5_000L);
+    private static final long VALIDATION_TIMEOUT_MS = Long.getLong("db.pool.validationTimeoutMs", 1_000L);
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("db.pool.idleTimeoutMs", 300_000L);
+    private static final long MAX_LIFETIME_MS = Long.getLong("db.pool.maxLifetimeMs", 1_800_000L);
+    private static final long LEAK_DETECTION_MS = Long.getLong("db.pool.leakDetectionMs", 10_000L);
 
-    public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(URL, USER, PASSWORD);
+    private static HikariDataSource dataSource;
+
+    /**
+     * Returns the shared pooled data source, creating it on first use.
+     *
+     * @return The application-wide connection pool
+     * @throws SQLException if the pool cannot be initialized
+     */
+    public static synchronized DataSource getDataSource() throws SQLException {
+        if (dataSource == null || dataSource.isClosed()) {
+            try {
+                dataSource = new HikariDataSource(buildPoolConfig());
+            } catch (RuntimeException e) {
+                throw new SQLException("Failed to initialize connection pool: " + e.getMessage(), e);
+            }
         }
-        return connection;
+        return dataSource;
     }
 
-    public static void closeConnection() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
-            connection.close();
+    /**
+     * Borrows a connection from the pool. The caller must close it (ideally
+     * with try-with-resources) to hand it back to the pool.
+     *
+     * @return A validated connection from the pool
+     * @throws SQLException if no connection becomes available within the borrow timeout
+     */
+    public static Connection getConnection() throws SQLException {
+        return getDataSource().getConnection();
+    }
+
+    /**
+     * Shuts down the pool and closes every physical connection it holds.
+     *
+     * @throws SQLException never in practice; kept for source compatibility
+     */
+    public static synchronized void closeConnection() throws SQLException {
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds the pool settings: min/max sizing, borrow timeout, validation
+     * on borrow, idle eviction and leak detection.
+     *
+     * @return The pool configuration
+     */
+    private static HikariConfig buildPoolConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("ecommerce-pool");
+        config.setJdbcUrl(URL);
+        config.setUsername(USER);
+        config.setPassword(PASSWORD);
+
+        config.setMinimumIdle(Math.min(MIN_IDLE, MAX_POOL_SIZE));
+        config.setMaximumPoolSize(MAX_POOL_SIZE);
+        config.setConnectionTimeout(BORROW_TIMEOUT_MS);
+        // Hikari validates with Connection.isValid() whenever a connection has
+        // been idle for a while before it is handed out
+        config.setValidationTimeout(VALIDATION_TIMEOUT_MS);
+        config.setIdleTimeout(IDLE_TIMEOUT_MS);
+        config.setMaxLifetime(MAX_LIFETIME_MS);
+        config.setLeakDetectionThreshold(LEAK_DETECTION_MS);
+        // Let the driver send JDBC insert batches as multi-row INSERTs
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
+        return config;
+    }
+}
@@ -5,18 +5,21 @@ import java.sql.SQLException;
 
 public class DatabaseConnectionTest {
     public static void main(String[] args) {
-        try {
-            Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getConnection()) {
             System.out.println("Database connected successfully!");
 
             // Test query
             conn.createStatement().execute("SELECT 1");
             System.out.println("Query executed successfully!");
-
-            conn.close();
         } catch (SQLException e) {
             System.err.println("Database connection failed!");
             e.printStackTrace();
+        } finally {
+            try {
+                DatabaseConfig.closeConnection();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
         }
     }
 }
\ No newline at end of file
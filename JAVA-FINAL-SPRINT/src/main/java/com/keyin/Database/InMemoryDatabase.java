@@ -0,0 +1,111 @@
+package com.keyin.Database;
+
+import com.keyin.Orders.Order;
+import com.keyin.Products.Product;
+import com.keyin.User.User;
+
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe in-memory stand-in for the PostgreSQL schema in {@code create.sql}.
+ * Holds the users, products and orders tables shared by {@link InMemoryUserRepository},
+ * {@link InMemoryProductRepository} and {@link InMemoryOrderRepository}, so constraints
+ * that span tables (foreign keys, cascade on user delete) behave the same as in the database.
+ *
+ * <p>Reads are lock-free; writes are serialized on {@link #lock} so that unique
+ * and foreign key checks are atomic with the change they guard. Constraint
+ * violations are reported as {@link SQLException}s carrying the PostgreSQL SQLState.</p>
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class InMemoryDatabase {
+    static final String UNIQUE_VIOLATION = "23505";
+    static final String FOREIGN_KEY_VIOLATION = "23503";
+    static final String NOT_NULL_VIOLATION = "23502";
+    static final String CHECK_VIOLATION = "23514";
+    static final String STRING_TOO_LONG = "22001";
+    static final String INVALID_ENUM_VALUE = "22P02";
+
+    final Object lock = new Object();
+
+    final ConcurrentSkipListMap<Integer, User> users = new ConcurrentSkipListMap<>();
+    final ConcurrentHashMap<String, Integer> usernames = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, Integer> emails = new ConcurrentHashMap<>();
+    final ConcurrentSkipListMap<Integer, Product> products = new ConcurrentSkipListMap<>();
+    final ConcurrentSkipListMap<Integer, Order> orders = new ConcurrentSkipListMap<>();
+
+    private final AtomicInteger userSequence = new AtomicInteger();
+    private final AtomicInteger productSequence = new AtomicInteger();
+    private final AtomicInteger orderSequence = new AtomicInteger();
+    private final AtomicInteger orderItemSequence = new AtomicInteger();
+
+    /**
+     * Returns the next value of the users.user_id sequence.
+     *
+     * @return A new user ID
+     */
+    int nextUserId() {
+        return userSequence.incrementAndGet();
+    }
+
+    /**
+     * Returns the next value of the products.product_id sequence.
+     *
+     * @return A new product ID
+     */
+    int nextProductId() {
+        return productSequence.incrementAndGet();
+    }
+
+    /**
+     * Returns the next value of the orders.order_id sequence.
+     *
+     * @return A new order ID
+     */
+    int nextOrderId() {
+        return orderSequence.incrementAndGet();
+    }
+
+    /**
+     * Returns the next value of the order_items.order_item_id sequence.
+     *
+     * @return A new order line ID
+     */
+    int nextOrderItemId() {
+        return orderItemSequence.incrementAndGet();
+    }
+
+    /**
+     * Rejects values longer than the column allows, like a VARCHAR(n) column would.
+     *
+     * @param column Column name used in the error message
+     * @param value Value to check
+     * @param maxLength Declared column length
+     * @throws SQLException if the value is too long
+     */
+    static void checkLength(String column, String value, int maxLength) throws SQLException {
+        if (value != null && value.length() > maxLength) {
+            throw new SQLException("value too long for type character varying(" + maxLength + ") in column "
+                    + column, STRING_TOO_LONG);
+        }
+    }
+
+    /**
+     * Rejects nulls in NOT NULL columns.
+     *
+     * @param column Column name used in the error message
+     * @param value Value to check
+     * @throws SQLException if the value is null
+     */
+    static void checkNotNull(String column, Object value) throws SQLException {
+        if (value == null) {
+            throw new SQLException("null value in column \"" + column + "\" violates not-null constraint",
+                    NOT_NULL_VIOLATION);
+        }
+    }
+}
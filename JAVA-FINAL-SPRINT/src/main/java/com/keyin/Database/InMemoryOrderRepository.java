@@ -0,0 +1,101 @@
+package com.keyin.Database;
+
+import com.keyin.Orders.Order;
+import com.keyin.Orders.OrderItem;
+import com.keyin.Orders.OrderRepository;
+import com.keyin.Products.Product;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory {@link OrderRepository} with the same semantics as {@link com.keyin.Orders.OrderDAO}:
+ * checkout is all-or-nothing, never takes more stock than is available, and charges
+ * the current product price. Orders are copied on the way in and out.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class InMemoryOrderRepository implements OrderRepository {
+    private final InMemoryDatabase database;
+
+    /**
+     * Creates a repository over the given in-memory database.
+     *
+     * @param database Shared in-memory tables
+     */
+    public InMemoryOrderRepository(InMemoryDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public Order placeOrder(int buyerId, Map<Integer, Integer> cart) throws SQLException {
+        synchronized (database.lock) {
+            Map<Integer, Integer> unavailable = new TreeMap<>();
+            for (Map.Entry<Integer, Integer> line : cart.entrySet()) {
+                Product product = database.products.get(line.getKey());
+                if (product == null || product.getQuantity() < line.getValue()) {
+                    unavailable.put(line.getKey(), line.getValue());
+                }
+            }
+            if (!unavailable.isEmpty()) {
+                throw new SQLException("Insufficient stock for product(s) " + unavailable.keySet(),
+                        INSUFFICIENT_STOCK);
+            }
+
+            int orderId = database.nextOrderId();
+            List<OrderItem> items = new ArrayList<>(cart.size());
+            BigDecimal total = BigDecimal.ZERO;
+            for (Map.Entry<Integer, Integer> line : cart.entrySet()) {
+                Product product = new Product(database.products.get(line.getKey()));
+                product.setQuantity(product.getQuantity() - line.getValue());
+                product.setVersion(product.getVersion() + 1);
+                database.products.put(product.getProduct_id(), product);
+
+                items.add(new OrderItem(database.nextOrderItemId(), orderId, product.getProduct_id(),
+                        line.getValue(), product.getPrice()));
+                total = total.add(BigDecimal.valueOf(product.getPrice()).multiply(BigDecimal.valueOf(line.getValue())));
+            }
+
+            Order order = new Order(orderId, buyerId, total.doubleValue(), Order.STATUS_PENDING,
+                    LocalDateTime.now(), items);
+            database.orders.put(orderId, copy(order));
+            return order;
+        }
+    }
+
+    @Override
+    public List<Order> getOrdersByBuyer(int buyerId) {
+        List<Order> orders = new ArrayList<>();
+        for (Order order : database.orders.descendingMap().values()) {
+            if (order.getBuyer_id() == buyerId) {
+                orders.add(copy(order));
+            }
+        }
+        orders.sort(Comparator.comparing(Order::getCreated_at).reversed());
+        return orders;
+    }
+
+    /**
+     * Deep-copies an order so callers never share instances with the store.
+     *
+     * @param order The order to copy
+     * @return The copy
+     */
+    private static Order copy(Order order) {
+        List<OrderItem> items = new ArrayList<>(order.getItems().size());
+        for (OrderItem item : order.getItems()) {
+            items.add(new OrderItem(item.getOrder_item_id(), item.getOrder_id(), item.getProduct_id(),
+                    item.getQuantity(), item.getPrice_at_time()));
+        }
+        return new Order(order.getOrder_id(), order.getBuyer_id(), order.getTotal_amount(), order.getStatus(),
+                order.getCreated_at(), items);
+    }
+}
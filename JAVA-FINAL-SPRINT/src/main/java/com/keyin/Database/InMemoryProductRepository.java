@@ -0,0 +1,490 @@
+package com.keyin.Database;
+
+import com.keyin.Products.PriceAdjustment;
+import com.keyin.Products.Product;
+import com.keyin.Products.ProductQuery;
+import com.keyin.Products.ProductRepository;
+import com.keyin.Products.ProductSort;
+import com.keyin.Products.ProductSortKey;
+import com.keyin.Products.ProductWriteResult;
+import com.keyin.Products.ProductSummary;
+import com.keyin.Products.ProductWithSeller;
+import com.keyin.Products.RepriceFilter;
+import com.keyin.Products.RepriceResult;
+import com.keyin.User.User;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory {@link ProductRepository} with the same semantics as {@link com.keyin.Products.ProductDAO}:
+ * generated IDs, the seller foreign key, the quantity check constraint, row versions
+ * and relevance-ranked keyword search. Products are copied on the way in and out,
+ * so callers never share instances with the store.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class InMemoryProductRepository implements ProductRepository {
+    private final InMemoryDatabase database;
+
+    /**
+     * Creates a repository over the given in-memory database.
+     *
+     * @param database Shared in-memory tables
+     */
+    public InMemoryProductRepository(InMemoryDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public Product createProduct(Product product) throws SQLException {
+        synchronized (database.lock) {
+            validateRow(product);
+            product.setProduct_id(database.nextProductId());
+            database.products.put(product.getProduct_id(), new Product(product));
+            return product;
+        }
+    }
+
+    @Override
+    public long copyProducts(Iterator<Product> products) throws SQLException {
+        List<Product> rows = new ArrayList<>();
+        synchronized (database.lock) {
+            while (products.hasNext()) {
+                Product product = new Product(products.next());
+                validateRow(product);
+                rows.add(product);
+            }
+            // Like COPY, all rows are validated before any becomes visible
+            for (Product product : rows) {
+                product.setProduct_id(database.nextProductId());
+                database.products.put(product.getProduct_id(), product);
+            }
+        }
+        return rows.size();
+    }
+
+    @Override
+    public int getMaxProductId() {
+        synchronized (database.lock) {
+            return database.products.isEmpty() ? 0 : database.products.lastKey();
+        }
+    }
+
+    @Override
+    public Product getProductById(int productId) {
+        Product product = database.products.get(productId);
+        return product == null ? null : new Product(product);
+    }
+
+    @Override
+    public List<Product> getAllProducts(ProductSort sort) {
+        List<Product> products = new ArrayList<>();
+        for (Product product : database.products.values()) {
+            products.add(new Product(product));
+        }
+        return sorted(products, sort);
+    }
+
+    @Override
+    public Stream<Product> streamAllProducts() {
+        return database.products.values().stream().map(Product::new);
+    }
+
+    @Override
+    public List<Product> getProductsBySeller(int sellerId, ProductSort sort) {
+        List<Product> products = new ArrayList<>();
+        for (Product product : database.products.values()) {
+            if (product.getSeller_id() == sellerId) {
+                products.add(new Product(product));
+            }
+        }
+        return sorted(products, sort);
+    }
+
+    @Override
+    public Page<Product> getProductsPage(int afterProductId, int limit) {
+        List<Product> products = new ArrayList<>(limit + 1);
+        for (Product product : database.products.tailMap(afterProductId, false).values()) {
+            if (products.size() > limit) {
+                break;
+            }
+            products.add(new Product(product));
+        }
+        return Page.fromLookahead(products, limit, afterProductId, Product::getProduct_id);
+    }
+
+    @Override
+    public Page<Product> getProductsBySellerPage(int sellerId, int afterProductId, int limit) {
+        List<Product> products = new ArrayList<>(limit + 1);
+        for (Product product : database.products.tailMap(afterProductId, false).values()) {
+            if (products.size() > limit) {
+                break;
+            }
+            if (product.getSeller_id() == sellerId) {
+                products.add(new Product(product));
+            }
+        }
+        return Page.fromLookahead(products, limit, afterProductId, Product::getProduct_id);
+    }
+
+    @Override
+    public Page<ProductSummary> getProductSummariesPage(int afterProductId, int limit) {
+        List<ProductSummary> products = new ArrayList<>(limit + 1);
+        for (Product product : database.products.tailMap(afterProductId, false).values()) {
+            if (products.size() > limit) {
+                break;
+            }
+            products.add(new ProductSummary(product));
+        }
+        return Page.fromLookahead(products, limit, afterProductId, ProductSummary::getProduct_id);
+    }
+
+    @Override
+    public Page<ProductSummary> getProductSummariesBySellerPage(int sellerId, int afterProductId, int limit) {
+        List<ProductSummary> products = new ArrayList<>(limit + 1);
+        for (Product product : database.products.tailMap(afterProductId, false).values()) {
+            if (products.size() > limit) {
+                break;
+            }
+            if (product.getSeller_id() == sellerId) {
+                products.add(new ProductSummary(product));
+            }
+        }
+        return Page.fromLookahead(products, limit, afterProductId, ProductSummary::getProduct_id);
+    }
+
+    @Override
+    public Page<ProductSummary> findProducts(ProductQuery query) {
+        Comparator<ProductSummary> order = query.getSort().comparator();
+        ProductSummary after = query.getAfter();
+        List<ProductSummary> products = database.products.values().stream()
+                .map(ProductSummary::new)
+                .filter(query::matches)
+                .filter(product -> after == null || order.compare(product, after) > 0)
+                .sorted(order)
+                .limit(query.getPageSize() + 1L)
+                .collect(Collectors.toList());
+        return Page.fromLookahead(products, query.getPageSize(), after == null ? 0 : after.getProduct_id(),
+                ProductSummary::getProduct_id);
+    }
+
+    @Override
+    public Page<ProductWithSeller> getProductsWithSellersPage(int afterProductId, int limit) {
+        List<ProductWithSeller> rows = new ArrayList<>(limit + 1);
+        for (Product product : database.products.tailMap(afterProductId, false).values()) {
+            if (rows.size() > limit) {
+                break;
+            }
+            User seller = database.users.get(product.getSeller_id());
+            rows.add(new ProductWithSeller(new ProductSummary(product),
+                    seller == null ? null : seller.getUsername(),
+                    seller == null ? null : seller.getEmail()));
+        }
+        return Page.fromLookahead(rows, limit, afterProductId, row -> row.getProduct().getProduct_id());
+    }
+
+    @Override
+    public List<Product> searchProducts(String keyword) {
+        return rankedMatches(keyword);
+    }
+
+    @Override
+    public Page<Product> searchProductsPage(String keyword, int offset, int limit) {
+        List<Product> matches = rankedMatches(keyword);
+        int from = Math.min(offset, matches.size());
+        int to = Math.min(offset + limit + 1, matches.size());
+        return Page.fromOffset(new ArrayList<>(matches.subList(from, to)), limit, offset);
+    }
+
+    @Override
+    public ProductWriteResult updateProduct(Product product, int sellerId) throws SQLException {
+        synchronized (database.lock) {
+            Product existing = database.products.get(product.getProduct_id());
+            if (existing == null) {
+                return ProductWriteResult.NOT_FOUND;
+            }
+            if (existing.getSeller_id() != sellerId) {
+                return ProductWriteResult.NOT_OWNER;
+            }
+            if (existing.getVersion() != product.getVersion()) {
+                return ProductWriteResult.CONFLICT;
+            }
+            Product updated = new Product(existing);
+            updated.setName(product.getName());
+            updated.setDescription(product.getDescription());
+            updated.setPrice(product.getPrice());
+            updated.setQuantity(product.getQuantity());
+            updated.setVersion(existing.getVersion() + 1);
+            validateRow(updated);
+            database.products.put(updated.getProduct_id(), updated);
+            product.setVersion(updated.getVersion());
+            return ProductWriteResult.SUCCESS;
+        }
+    }
+
+    @Override
+    public Map<Integer, ProductWriteResult> updateProducts(List<Product> products, int sellerId) throws SQLException {
+        Map<Integer, ProductWriteResult> results = new LinkedHashMap<>();
+        Map<Integer, Product> staged = new LinkedHashMap<>();
+        synchronized (database.lock) {
+            // Every row is checked before any is written, so a constraint failure changes nothing
+            for (Product product : products) {
+                Product existing = staged.getOrDefault(product.getProduct_id(),
+                        database.products.get(product.getProduct_id()));
+                ProductWriteResult result;
+                if (existing == null) {
+                    result = ProductWriteResult.NOT_FOUND;
+                } else if (existing.getSeller_id() != sellerId) {
+                    result = ProductWriteResult.NOT_OWNER;
+                } else if (existing.getVersion() != product.getVersion()) {
+                    result = ProductWriteResult.CONFLICT;
+                } else {
+                    Product updated = new Product(existing);
+                    updated.setName(product.getName());
+                    updated.setDescription(product.getDescription());
+                    updated.setPrice(product.getPrice());
+                    updated.setQuantity(product.getQuantity());
+                    updated.setVersion(existing.getVersion() + 1);
+                    validateRow(updated);
+                    staged.put(updated.getProduct_id(), updated);
+                    result = ProductWriteResult.SUCCESS;
+                }
+                results.put(product.getProduct_id(), result);
+            }
+            database.products.putAll(staged);
+        }
+        for (Product product : products) {
+            if (results.get(product.getProduct_id()) == ProductWriteResult.SUCCESS) {
+                product.setVersion(product.getVersion() + 1);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public RepriceResult repriceProducts(int sellerId, RepriceFilter filter, PriceAdjustment adjustment,
+                                         boolean dryRun) {
+        long matched = 0;
+        long outOfRange = 0;
+        BigDecimal totalBefore = BigDecimal.ZERO;
+        BigDecimal totalAfter = BigDecimal.ZERO;
+        List<Product> changed = new ArrayList<>();
+        synchronized (database.lock) {
+            for (Product existing : database.products.values()) {
+                if (existing.getSeller_id() != sellerId || !filter.matches(existing)) {
+                    continue;
+                }
+                matched++;
+                BigDecimal oldPrice = BigDecimal.valueOf(existing.getPrice()).setScale(2, RoundingMode.HALF_UP);
+                BigDecimal newPrice = adjustment.apply(oldPrice);
+                if (!PriceAdjustment.isValidPrice(newPrice)) {
+                    outOfRange++;
+                } else if (newPrice.compareTo(oldPrice) != 0) {
+                    totalBefore = totalBefore.add(oldPrice);
+                    totalAfter = totalAfter.add(newPrice);
+                    Product updated = new Product(existing);
+                    updated.setPrice(newPrice.doubleValue());
+                    updated.setVersion(existing.getVersion() + 1);
+                    changed.add(updated);
+                }
+            }
+            if (!dryRun) {
+                for (Product updated : changed) {
+                    database.products.put(updated.getProduct_id(), updated);
+                }
+            }
+        }
+        Map<Integer, Double> newPrices = new HashMap<>();
+        if (!dryRun) {
+            for (Product updated : changed) {
+                newPrices.put(updated.getProduct_id(), updated.getPrice());
+            }
+        }
+        return new RepriceResult(dryRun, matched, changed.size(), outOfRange, totalBefore, totalAfter, newPrices);
+    }
+
+    @Override
+    public OptionalInt adjustQuantity(int productId, int delta) {
+        synchronized (database.lock) {
+            Product existing = database.products.get(productId);
+            if (existing == null || existing.getQuantity() + delta < 0) {
+                return OptionalInt.empty();
+            }
+            Product updated = new Product(existing);
+            updated.setQuantity(existing.getQuantity() + delta);
+            updated.setVersion(existing.getVersion() + 1);
+            database.products.put(productId, updated);
+            return OptionalInt.of(updated.getQuantity());
+        }
+    }
+
+    @Override
+    public ProductWriteResult adjustQuantity(int productId, int sellerId, int delta) {
+        synchronized (database.lock) {
+            Product existing = database.products.get(productId);
+            if (existing == null) {
+                return ProductWriteResult.NOT_FOUND;
+            }
+            if (existing.getSeller_id() != sellerId) {
+                return ProductWriteResult.NOT_OWNER;
+            }
+            return adjustQuantity(productId, delta).isPresent()
+                    ? ProductWriteResult.SUCCESS
+                    : ProductWriteResult.INSUFFICIENT_STOCK;
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> adjustQuantities(Map<Integer, Integer> deltas) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        synchronized (database.lock) {
+            for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+                adjustQuantity(delta.getKey(), delta.getValue())
+                        .ifPresent(quantity -> quantities.put(delta.getKey(), quantity));
+            }
+        }
+        return quantities;
+    }
+
+    @Override
+    public boolean deleteProduct(int productId) {
+        synchronized (database.lock) {
+            return database.products.remove(productId) != null;
+        }
+    }
+
+    @Override
+    public ProductWriteResult deleteProduct(int productId, int sellerId) {
+        synchronized (database.lock) {
+            Product existing = database.products.get(productId);
+            if (existing == null) {
+                return ProductWriteResult.NOT_FOUND;
+            }
+            if (existing.getSeller_id() != sellerId) {
+                return ProductWriteResult.NOT_OWNER;
+            }
+            database.products.remove(productId);
+            return ProductWriteResult.SUCCESS;
+        }
+    }
+
+    @Override
+    public Map<Integer, ProductWriteResult> deleteProducts(Collection<Integer> productIds, int sellerId) {
+        Map<Integer, ProductWriteResult> results = new LinkedHashMap<>();
+        synchronized (database.lock) {
+            for (int productId : productIds) {
+                if (!results.containsKey(productId)) {
+                    results.put(productId, deleteProduct(productId, sellerId));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Puts products read in ID order into the requested order, as an ORDER BY would.
+     *
+     * @param products Products in ID order; sorted in place
+     * @param sort The ordering
+     * @return The same list
+     */
+    private static List<Product> sorted(List<Product> products, ProductSort sort) {
+        // The map is keyed by ID, so the default order needs no sort
+        if (sort.getKey() != ProductSortKey.ID && sort.getKey() != ProductSortKey.CREATED_AT) {
+            products.sort(sort.productComparator());
+        } else if (sort.isDescending()) {
+            Collections.reverse(products);
+        }
+        return products;
+    }
+
+    /**
+     * Applies the column constraints of the products table.
+     *
+     * @param product Row to validate
+     * @throws SQLException if a constraint would be violated
+     */
+    private void validateRow(Product product) throws SQLException {
+        InMemoryDatabase.checkNotNull("name", product.getName());
+        InMemoryDatabase.checkLength("name", product.getName(), 100);
+        if (product.getQuantity() < 0) {
+            throw new SQLException("new row for relation \"products\" violates check constraint "
+                    + "\"products_quantity_check\"", InMemoryDatabase.CHECK_VIOLATION);
+        }
+        if (!database.users.containsKey(product.getSeller_id())) {
+            throw new SQLException("insert or update on table \"products\" violates foreign key constraint "
+                    + "\"products_seller_id_fkey\"", InMemoryDatabase.FOREIGN_KEY_VIOLATION);
+        }
+    }
+
+    /**
+     * Approximates the full-text search of {@link com.keyin.Products.ProductDAO}: every
+     * query word must appear as a word in the name or description (ignoring case), and
+     * name hits weigh more than description hits, like the A/B weights of the tsvector.
+     *
+     * @param keyword Search terms separated by whitespace or punctuation
+     * @return Matching products, most relevant first, ties broken by ID
+     */
+    private List<Product> rankedMatches(String keyword) {
+        String[] terms = tokenize(keyword);
+        List<Product> products = new ArrayList<>();
+        Map<Integer, Integer> scores = new HashMap<>();
+        if (terms.length == 0) {
+            return products;
+        }
+
+        for (Product product : database.products.values()) {
+            List<String> nameWords = Arrays.asList(tokenize(product.getName()));
+            List<String> descriptionWords = Arrays.asList(tokenize(product.getDescription()));
+            int score = 0;
+            for (String term : terms) {
+                int hits = 2 * Collections.frequency(nameWords, term) + Collections.frequency(descriptionWords, term);
+                if (hits == 0) {
+                    score = 0;
+                    break;
+                }
+                score += hits;
+            }
+            if (score > 0) {
+                products.add(new Product(product));
+                scores.put(product.getProduct_id(), score);
+            }
+        }
+        products.sort(Comparator.comparingInt((Product p) -> -scores.get(p.getProduct_id()))
+                .thenComparingInt(Product::getProduct_id));
+        return products;
+    }
+
+    /**
+     * Splits text into lower-cased words.
+     *
+     * @param text Text to split, may be null
+     * @return The words, possibly empty
+     */
+    private static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,218 @@
+package com.keyin.Database;
+
+import com.keyin.User.User;
+import com.keyin.User.UserConflict;
+import com.keyin.User.UserRepository;
+import com.keyin.User.UserSummary;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory {@link UserRepository} with the same semantics as {@link com.keyin.User.UserDAO}:
+ * generated IDs, unique usernames and emails, the user_role enum, and
+ * ON DELETE CASCADE from users to their products.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class InMemoryUserRepository implements UserRepository {
+    private final InMemoryDatabase database;
+
+    /**
+     * Creates a repository over the given in-memory database.
+     *
+     * @param database Shared in-memory tables
+     */
+    public InMemoryUserRepository(InMemoryDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public User createUser(User user) throws SQLException {
+        synchronized (database.lock) {
+            validateRow(user);
+            checkUnique(user, 0);
+            user.setUser_id(database.nextUserId());
+            store(user);
+            return user;
+        }
+    }
+
+    @Override
+    public UserConflict createUserIfAbsent(User user) throws SQLException {
+        synchronized (database.lock) {
+            validateRow(user);
+            UserConflict conflict = findConflict(user.getUsername(), user.getEmail());
+            if (conflict == UserConflict.NONE) {
+                user.setUser_id(database.nextUserId());
+                store(user);
+            }
+            return conflict;
+        }
+    }
+
+    @Override
+    public UserConflict findConflict(String username, String email) {
+        if (database.usernames.containsKey(username)) {
+            return UserConflict.USERNAME;
+        }
+        return database.emails.containsKey(email) ? UserConflict.EMAIL : UserConflict.NONE;
+    }
+
+    @Override
+    public User getUserById(int userId) {
+        return copy(database.users.get(userId));
+    }
+
+    @Override
+    public Map<Integer, User> getUsersByIds(Collection<Integer> userIds) {
+        Map<Integer, User> users = new HashMap<>();
+        for (Integer userId : userIds) {
+            User user = database.users.get(userId);
+            if (user != null) {
+                users.put(userId, copy(user));
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        Integer userId = username == null ? null : database.usernames.get(username);
+        return userId == null ? null : copy(database.users.get(userId));
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        List<User> users = new ArrayList<>();
+        for (User user : database.users.values()) {
+            users.add(copy(user));
+        }
+        return users;
+    }
+
+    @Override
+    public List<UserSummary> getAllUserSummaries() {
+        List<UserSummary> users = new ArrayList<>();
+        for (User user : database.users.values()) {
+            users.add(new UserSummary(user.getUser_id(), user.getUsername(), user.getEmail(), user.getRole()));
+        }
+        return users;
+    }
+
+    @Override
+    public boolean deleteUser(int userId) {
+        synchronized (database.lock) {
+            User removed = database.users.remove(userId);
+            if (removed == null) {
+                return false;
+            }
+            database.usernames.remove(removed.getUsername());
+            database.emails.remove(removed.getEmail());
+            // products.seller_id REFERENCES users ON DELETE CASCADE
+            database.products.values().removeIf(product -> product.getSeller_id() == userId);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean updateUser(User user) throws SQLException {
+        synchronized (database.lock) {
+            User existing = database.users.get(user.getUser_id());
+            if (existing == null) {
+                return false;
+            }
+            validateRow(user);
+            checkUnique(user, user.getUser_id());
+            database.usernames.remove(existing.getUsername());
+            database.emails.remove(existing.getEmail());
+            store(user);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean updatePassword(int userId, String expectedHash, String newHash) throws SQLException {
+        synchronized (database.lock) {
+            User existing = database.users.get(userId);
+            if (existing == null || !existing.getPassword().equals(expectedHash)) {
+                return false;
+            }
+            User updated = copy(existing);
+            updated.setPassword(newHash);
+            validateRow(updated);
+            database.users.put(userId, updated);
+            return true;
+        }
+    }
+
+    /**
+     * Writes a copy of the user and its unique-index entries. Caller holds the lock.
+     *
+     * @param user User to store
+     */
+    private void store(User user) {
+        database.users.put(user.getUser_id(), copy(user));
+        database.usernames.put(user.getUsername(), user.getUser_id());
+        database.emails.put(user.getEmail(), user.getUser_id());
+    }
+
+    /**
+     * Applies the NOT NULL, length and enum constraints of the users table.
+     *
+     * @param user Row to validate
+     * @throws SQLException if a constraint would be violated
+     */
+    private static void validateRow(User user) throws SQLException {
+        InMemoryDatabase.checkNotNull("username", user.getUsername());
+        InMemoryDatabase.checkNotNull("password", user.getPassword());
+        InMemoryDatabase.checkNotNull("email", user.getEmail());
+        InMemoryDatabase.checkNotNull("role", user.getRole());
+        InMemoryDatabase.checkLength("username", user.getUsername(), 50);
+        InMemoryDatabase.checkLength("password", user.getPassword(), 255);
+        InMemoryDatabase.checkLength("email", user.getEmail(), 100);
+        if (!user.getRole().matches("buyer|seller|admin")) {
+            throw new SQLException("invalid input value for enum user_role: \"" + user.getRole() + "\"",
+                    InMemoryDatabase.INVALID_ENUM_VALUE);
+        }
+    }
+
+    /**
+     * Enforces the UNIQUE constraints on username and email.
+     *
+     * @param user Row being written
+     * @param ownId ID of the row being updated, or 0 for inserts
+     * @throws SQLException if another user already holds the username or email
+     */
+    private void checkUnique(User user, int ownId) throws SQLException {
+        Integer byUsername = database.usernames.get(user.getUsername());
+        if (byUsername != null && byUsername != ownId) {
+            throw new SQLException("duplicate key value violates unique constraint \"users_username_key\"",
+                    InMemoryDatabase.UNIQUE_VIOLATION);
+        }
+        Integer byEmail = database.emails.get(user.getEmail());
+        if (byEmail != null && byEmail != ownId) {
+            throw new SQLException("duplicate key value violates unique constraint \"users_email_key\"",
+                    InMemoryDatabase.UNIQUE_VIOLATION);
+        }
+    }
+
+    /**
+     * Copies a user so the stored row is never shared with callers.
+     *
+     * @param user User to copy, may be null
+     * @return A detached copy, or null
+     */
+    private static User copy(User user) {
+        if (user == null) {
+            return null;
+        }
+        return new User(user.getUser_id(), user.getUsername(), user.getPassword(), user.getEmail(), user.getRole());
+    }
+}
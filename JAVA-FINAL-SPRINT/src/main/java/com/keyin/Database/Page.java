@@ -0,0 +1,107 @@
+package com.keyin.Database;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * One page of a paginated listing.
+ * For keyset-paginated listings the next page is requested with {@link #getNextCursor()}
+ * as the "after" key, so every page costs the same index range scan regardless of how
+ * deep it is. Relevance-ordered search results are offset-addressed instead, and the
+ * cursor is the offset of the next page.
+ *
+ * @param <T> Type of the rows on the page
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final int nextCursor;
+    private final boolean hasMore;
+
+    /**
+     * Constructs a page.
+     *
+     * @param items The rows on this page
+     * @param nextCursor Key of the last row on this page, to pass as "after" for the next page
+     * @param hasMore true if more rows follow this page
+     */
+    public Page(List<T> items, int nextCursor, boolean hasMore) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code LIMIT limit + 1}; the extra row
+     * only signals that another page exists and is dropped.
+     *
+     * @param rows Rows fetched, at most limit + 1
+     * @param limit Requested page size
+     * @param after Cursor the page was requested with
+     * @param keyOf Extracts the keyset column from a row
+     * @param <T> Type of the rows
+     * @return The page
+     */
+    public static <T> Page<T> fromLookahead(List<T> rows, int limit, int after, ToIntFunction<T> keyOf) {
+        boolean hasMore = rows.size() > limit;
+        List<T> items = hasMore ? rows.subList(0, limit) : rows;
+        int nextCursor = items.isEmpty() ? after : keyOf.applyAsInt(items.get(items.size() - 1));
+        return new Page<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Builds an offset-addressed page from rows fetched with {@code LIMIT limit + 1 OFFSET offset},
+     * for orderings such as relevance that have no stable key to seek on.
+     * The cursor of the returned page is the offset of the next page.
+     *
+     * @param rows Rows fetched, at most limit + 1
+     * @param limit Requested page size
+     * @param offset Offset the page was requested with
+     * @param <T> Type of the rows
+     * @return The page
+     */
+    public static <T> Page<T> fromOffset(List<T> rows, int limit, int offset) {
+        boolean hasMore = rows.size() > limit;
+        List<T> items = hasMore ? rows.subList(0, limit) : rows;
+        return new Page<>(items, offset + items.size(), hasMore);
+    }
+
+    /**
+     * Gets the rows on this page.
+     *
+     * @return Unmodifiable list of rows
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the cursor for the following page.
+     *
+     * @return Key of the last row on this page
+     */
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Tells whether another page follows.
+     *
+     * @return true if more rows exist after this page
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Tells whether this page has no rows.
+     *
+     * @return true if the page is empty
+     */
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -1,5 +1,7 @@
 package com.keyin;
 
+import com.keyin.Database.Page;
+import com.keyin.Orders.*;
 import com.keyin.User.*;
 import com.keyin.Roles.*;
 import com.keyin.Products.*;
@@ -11,8 +13,19 @@ import com.googlecode.lanterna.screen.Screen;
 import com.googlecode.lanterna.terminal.DefaultTerminalFactory;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Main application class for the E-Commerce platform with JLine integration.
@@ -25,17 +38,26 @@ import java.util.List;
 public class EcommApp {
     private final UserService userService;
     private final ProductService productService;
+    private final OrderService orderService;
+    private final SessionService sessionService;
     private final MultiWindowTextGUI gui;
     private User currentUser;
+    private String sessionToken;
     private Window currentWindow;
 
     // Increased terminal size for better visibility
     private static final TerminalSize LARGE_WINDOW_SIZE = new TerminalSize(120, 40);
     private static final TerminalSize MEDIUM_WINDOW_SIZE = new TerminalSize(100, 30);
 
-    public EcommApp(UserService userService) throws IOException {
+    // Rows per page on product listings
+    private static final int PAGE_SIZE = 20;
+
+    public EcommApp(UserService userService, ProductService productService, OrderService orderService,
+                    SessionService sessionService) throws IOException {
         this.userService = userService;
-        this.productService = new ProductService();
+        this.productService = productService;
+        this.orderService = orderService;
+        this.sessionService = sessionService;
 
         // Create screen with larger size
         DefaultTerminalFactory terminalFactory = new DefaultTerminalFactory();
@@ -50,9 +72,16 @@ public class EcommApp {
     public static void main(String[] args) {
         try {
             UserDAO userDAO = new UserDAO();
-            UserService userService = new UserService(userDAO);
-
-            EcommApp app = new EcommApp(userService);
+            UserService userService = new UserService(userDAO,
+                    UserService.newHashingExecutor(UserService.HASHING_THREADS, UserService.HASHING_QUEUE_CAPACITY),
+                    BCryptCostCalibrator.calibrate());
+            ProductService productService = new ProductService(new ProductDAO());
+            productService.buildSearchIndex();
+            OrderService orderService = new OrderService(new OrderDAO(), productService);
+            userService.addDeletionListener(productService::sellerRemoved);
+            SessionService sessionService = new SessionService(userService);
+
+            EcommApp app = new EcommApp(userService, productService, orderService, sessionService);
             app.start();
         } catch (IOException e) {
             System.err.println("Error initializing the application: " + e.getMessage());
@@ -215,14 +244,17 @@ public class EcommApp {
 
         // Submit button with padding
         Button submitButton = new Button("Submit", () -> {
-            try {
-                String username = usernameBox.getText();
-                String password = passwordBox.getText();
-                currentUser = userService.login(username, password);
-                showRoleSpecificMenu();
-            } catch (Exception e) {
-                showErrorMessage("Login failed: " + e.getMessage());
-            }
+            String username = usernameBox.getText();
+            String password = passwordBox.getText();
+            // BCrypt runs on the service's executor; the GUI stays responsive meanwhile
+            userService.loginAsync(username, password).whenComplete((user, error) ->
+                    gui.getGUIThread().invokeLater(() -> {
+                        if (error != null) {
+                            showErrorMessage("Login failed: " + rootCause(error).getMessage());
+                            return;
+                        }
+                        signIn(user);
+                    }));
         });
         submitButton.setLayoutData(GridLayout.createLayoutData(
                 GridLayout.Alignment.CENTER,
@@ -366,16 +398,18 @@ public class EcommApp {
 
         // Submit button with padding
         Button submitButton = new Button("Submit", () -> {
-            try {
-                String username = usernameBox.getText();
-                String password = passwordBox.getText();
-                String email = emailBox.getText();
-                String role = roleBox.getText();
-                currentUser = userService.registerUser(username, password, email, role);
-                showRoleSpecificMenu();
-            } catch (Exception e) {
-                showErrorMessage("Sign Up failed: " + e.getMessage());
-            }
+            String username = usernameBox.getText();
+            String password = passwordBox.getText();
+            String email = emailBox.getText();
+            String role = roleBox.getText();
+            userService.registerAsync(username, password, email, role).whenComplete((user, error) ->
+                    gui.getGUIThread().invokeLater(() -> {
+                        if (error != null) {
+                            showErrorMessage("Sign Up failed: " + rootCause(error).getMessage());
+                            return;
+                        }
+                        signIn(user);
+                    }));
         });
         submitButton.setLayoutData(GridLayout.createLayoutData(
                 GridLayout.Alignment.CENTER,
@@ -429,7 +463,7 @@ public class EcommApp {
         panel.addComponent(new Label("=== Buyer Menu ===")
                 .setLayoutData(GridLayout.createLayoutData(GridLayout.Alignment.CENTER, GridLayout.Alignment.CENTER)));
 
-        Button browseButton = new Button("Browse Products", this::displayAllProducts);
+        Button browseButton = new Button("Browse Products", () -> displayAllProducts(0));
         browseButton.setLayoutData(GridLayout.createLayoutData(
                 GridLayout.Alignment.CENTER,
                 GridLayout.Alignment.CENTER,
@@ -440,6 +474,17 @@ public class EcommApp {
         ));
         panel.addComponent(browseButton);
 
+        Button filterButton = new Button("Filter Products", this::filterProducts);
+        filterButton.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true,
+                false,
+                1,
+                1
+        ));
+        panel.addComponent(filterButton);
+
         Button searchButton = new Button("Search Products", this::searchProducts);
         searchButton.setLayoutData(GridLayout.createLayoutData(
                 GridLayout.Alignment.CENTER,
@@ -451,9 +496,30 @@ public class EcommApp {
         ));
         panel.addComponent(searchButton);
 
+        Button orderButton = new Button("Place Order", this::placeOrder);
+        orderButton.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true,
+                false,
+                1,
+                1
+        ));
+        panel.addComponent(orderButton);
+
+        Button ordersButton = new Button("My Orders", this::viewOrders);
+        ordersButton.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true,
+                false,
+                1,
+                1
+        ));
+        panel.addComponent(ordersButton);
+
         Button logoutButton = new Button("Logout", () -> {
-            currentUser = null;
-            displayMainMenu();
+            signOut();
         });
         logoutButton.setLayoutData(GridLayout.createLayoutData(
                 GridLayout.Alignment.CENTER,
@@ -517,7 +583,7 @@ public class EcommApp {
         ));
         panel.addComponent(addProductButton);
 
-        Button myProductsButton = new Button("My Products", this::listSellerProducts);
+        Button myProductsButton = new Button("My Products", () -> listSellerProducts(0));
         myProductsButton.setLayoutData(GridLayout.createLayoutData(
                 GridLayout.Alignment.CENTER,
                 GridLayout.Alignment.CENTER,
@@ -528,9 +594,30 @@ public class EcommApp {
         ));
         panel.addComponent(myProductsButton);
 
+        Button importButton = new Button("Import Products", this::importProducts);
+        importButton.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true,
+                false,
+                1,
+                1
+        ));
+        panel.addComponent(importButton);
+
+        Button repriceButton = new Button("Reprice Products", this::repriceProducts);
+        repriceButton.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true,
+                false,
+                1,
+                1
+        ));
+        panel.addComponent(repriceButton);
+
         Button logoutButton = new Button("Logout", () -> {
-            currentUser = null;
-            displayMainMenu();
+            signOut();
         });
         logoutButton.setLayoutData(GridLayout.createLayoutData(
                 GridLayout.Alignment.CENTER,
@@ -558,7 +645,7 @@ public class EcommApp {
         gui.addWindowAndWait(window);
     }
 
-    private void listSellerProducts() {
+    private void listSellerProducts(int afterProductId) {
         if (currentWindow != null) {
             currentWindow.close();
         }
@@ -596,7 +683,8 @@ public class EcommApp {
         mainPanel.addComponent(statusLabel);
 
         try {
-            List<Product> sellerProducts = productService.getSellerProducts(currentUser);
+            Page<ProductSummary> page = productService.getSellerProductSummariesPage(currentUser, afterProductId, PAGE_SIZE);
+            List<ProductSummary> sellerProducts = page.getItems();
             if (sellerProducts.isEmpty()) {
                 Label noProductsLabel = new Label("You have no products listed.");
                 noProductsLabel.setLayoutData(GridLayout.createLayoutData(
@@ -609,7 +697,7 @@ public class EcommApp {
                 ));
                 mainPanel.addComponent(noProductsLabel);
             } else {
-                for (Product product : sellerProducts) {
+                for (ProductSummary summary : sellerProducts) {
                     Panel productPanel = new Panel(new GridLayout(3));
                     productPanel.setLayoutData(
                             GridLayout.createLayoutData(
@@ -623,7 +711,7 @@ public class EcommApp {
                     );
 
                     Label productLabel = new Label(String.format("Name: %s | Price: $%.2f | Quantity: %d",
-                            product.getName(), product.getPrice(), product.getQuantity()));
+                            summary.getName(), summary.getPrice(), summary.getQuantity()));
                     productLabel.setLayoutData(GridLayout.createLayoutData(
                             GridLayout.Alignment.FILL,
                             GridLayout.Alignment.CENTER,
@@ -635,6 +723,15 @@ public class EcommApp {
                     productPanel.addComponent(productLabel);
 
                     Button editButton = new Button("Edit", () -> {
+                        // The list only carries summaries; the editor needs the full, current product
+                        Product product;
+                        try {
+                            product = productService.getProduct(summary.getProduct_id());
+                        } catch (Exception e) {
+                            statusLabel.setText("Error loading product: " + e.getMessage());
+                            return;
+                        }
+
                         // Create a new window for editing the product
                         Window editWindow = new BasicWindow("Edit Product");
                         editWindow.setHints(List.of(Window.Hint.CENTERED, Window.Hint.FIT_TERMINAL_WINDOW));
@@ -671,6 +768,17 @@ public class EcommApp {
                         TextBox quantityInput = new TextBox(String.valueOf(product.getQuantity()));
                         editPanel.addComponent(quantityInput);
 
+                        Label editStatusLabel = new Label("");
+                        editStatusLabel.setLayoutData(GridLayout.createLayoutData(
+                                GridLayout.Alignment.CENTER,
+                                GridLayout.Alignment.CENTER,
+                                true,
+                                false,
+                                2,
+                                1
+                        ));
+                        editPanel.addComponent(editStatusLabel);
+
                         // Save button
                         Button saveButton = new Button("Save", () -> {
                             try {
@@ -680,6 +788,24 @@ public class EcommApp {
                                 double newPrice = Double.parseDouble(priceInput.getText().trim());
                                 int newQuantity = Integer.parseInt(quantityInput.getText().trim());
 
+                                // A stock-only change is applied as a relative adjustment so it
+                                // cannot overwrite sales made since the editor opened
+                                if (newName.equals(product.getName())
+                                        && newDescription.equals(product.getDescription())
+                                        && String.format("%.2f", newPrice).equals(String.format("%.2f", product.getPrice()))) {
+                                    int delta = newQuantity - product.getQuantity();
+                                    ProductWriteResult result = delta == 0
+                                            ? ProductWriteResult.SUCCESS
+                                            : productService.adjustStock(product.getProduct_id(), delta, currentUser);
+                                    if (result == ProductWriteResult.SUCCESS) {
+                                        editWindow.close();
+                                        listSellerProducts(afterProductId);
+                                    } else {
+                                        editStatusLabel.setText(describeFailedWrite(result));
+                                    }
+                                    return;
+                                }
+
                                 // Create updated product object
                                 Product updatedProduct = new Product(
                                         product.getProduct_id(),
@@ -689,22 +815,24 @@ public class EcommApp {
                                         newQuantity,
                                         product.getSeller_id()
                                 );
+                                // Only applies if nobody changed the product since the editor opened
+                                updatedProduct.setVersion(product.getVersion());
 
                                 // Attempt to update the product
-                                boolean updateSuccess = productService.updateProduct(updatedProduct, currentUser);
+                                ProductWriteResult result = productService.updateProduct(updatedProduct, currentUser);
 
-                                if (updateSuccess) {
+                                if (result == ProductWriteResult.SUCCESS) {
                                     // Update successful, refresh the list and close edit window
                                     statusLabel.setText("Product updated successfully!");
                                     editWindow.close();
-                                    listSellerProducts(); // Refresh the products list
+                                    listSellerProducts(afterProductId); // Refresh the products list
                                 } else {
-                                    statusLabel.setText("Failed to update product.");
+                                    editStatusLabel.setText(describeFailedWrite(result));
                                 }
                             } catch (NumberFormatException e) {
-                                statusLabel.setText("Invalid number format. Please check price and quantity.");
+                                editStatusLabel.setText("Invalid number format. Please check price and quantity.");
                             } catch (IllegalArgumentException e) {
-                                statusLabel.setText(e.getMessage());
+                                editStatusLabel.setText(e.getMessage());
                             }
                         });
                         editPanel.addComponent(saveButton);
@@ -729,12 +857,12 @@ public class EcommApp {
 
                     Button deleteButton = new Button("Delete", () -> {
                         try {
-                            boolean deleteSuccess = this.productService.deleteProduct(product.getProduct_id(), currentUser);
-                            if (deleteSuccess) {
+                            ProductWriteResult result = this.productService.deleteProduct(summary.getProduct_id(), currentUser);
+                            if (result == ProductWriteResult.SUCCESS) {
                                 statusLabel.setText("Product deleted successfully!");
-                                listSellerProducts(); // Refresh the products list
+                                listSellerProducts(afterProductId); // Refresh the products list
                             } else {
-                                statusLabel.setText("Failed to delete product.");
+                                statusLabel.setText(describeFailedWrite(result));
                             }
                         } catch (Exception e) {
                             statusLabel.setText("Error deleting product: " + e.getMessage());
@@ -754,6 +882,8 @@ public class EcommApp {
                 }
             }
 
+            addPagingButtons(mainPanel, afterProductId, page, this::listSellerProducts);
+
             Button backButton = new Button("Back", this::showSellerMenu);
             backButton.setLayoutData(GridLayout.createLayoutData(
                     GridLayout.Alignment.CENTER,
@@ -829,7 +959,7 @@ public class EcommApp {
         ));
         panel.addComponent(viewUsersButton);
 
-        Button viewProductsButton = new Button("View Products with Seller Details", this::viewAllProductsWithSellers);
+        Button viewProductsButton = new Button("View Products with Seller Details", () -> viewAllProductsWithSellers(0));
         viewProductsButton.setLayoutData(GridLayout.createLayoutData(
                 GridLayout.Alignment.CENTER,
                 GridLayout.Alignment.CENTER,
@@ -863,8 +993,7 @@ public class EcommApp {
         panel.addComponent(deleteUserButton);
 
         Button logoutButton = new Button("Logout", () -> {
-            currentUser = null;
-            displayMainMenu();
+            signOut();
         });
         logoutButton.setLayoutData(GridLayout.createLayoutData(
                 GridLayout.Alignment.CENTER,
@@ -1037,7 +1166,7 @@ public class EcommApp {
         gui.addWindowAndWait(window);
     }
 
-    private void displayAllProducts() {
+    private void displayAllProducts(int afterProductId) {
         if (currentWindow != null) {
             currentWindow.close();
         }
@@ -1057,17 +1186,18 @@ public class EcommApp {
                 .setLayoutData(GridLayout.createLayoutData(GridLayout.Alignment.CENTER, GridLayout.Alignment.CENTER)));
 
         try {
-            List<Product> products = productService.getAllProducts();
-            if (products.isEmpty()) {
+            Page<ProductSummary> page = productService.getProductSummariesPage(afterProductId, PAGE_SIZE);
+            if (page.isEmpty()) {
                 panel.addComponent(new Label("No products available."));
             } else {
-                for (Product product : products) {
+                for (ProductSummary product : page.getItems()) {
                     panel.addComponent(new Label(String.format(
                             "ID: %d | Name: %s | Price: $%.2f | Quantity: %d",
                             product.getProduct_id(), product.getName(), product.getPrice(), product.getQuantity()
                     )));
                 }
             }
+            addPagingButtons(panel, afterProductId, page, this::displayAllProducts);
         } catch (Exception e) {
             panel.addComponent(new Label("Error retrieving products: " + e.getMessage()));
         }
@@ -1084,6 +1214,133 @@ public class EcommApp {
         gui.addWindowAndWait(window);
     }
 
+    private void filterProducts() {
+        if (currentWindow != null) {
+            currentWindow.close();
+        }
+
+        Window window = new BasicWindow("Filter Products");
+        window.setHints(List.of(Window.Hint.CENTERED, Window.Hint.FIT_TERMINAL_WINDOW));
+        currentWindow = window;
+
+        Panel panel = new Panel(new GridLayout(2));
+        panel.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 5, 3
+        ));
+
+        panel.addComponent(new Label("Min Price:"));
+        TextBox minBox = new TextBox(new TerminalSize(20, 1));
+        panel.addComponent(minBox);
+
+        panel.addComponent(new Label("Max Price:"));
+        TextBox maxBox = new TextBox(new TerminalSize(20, 1));
+        panel.addComponent(maxBox);
+
+        panel.addComponent(new Label("Seller ID:"));
+        TextBox sellerBox = new TextBox(new TerminalSize(20, 1));
+        panel.addComponent(sellerBox);
+
+        panel.addComponent(new Label("In Stock Only:"));
+        CheckBox inStockBox = new CheckBox();
+        panel.addComponent(inStockBox);
+
+        panel.addComponent(new Label("Sort By:"));
+        ComboBox<String> sortBox = new ComboBox<>("Newest Listed", "Oldest Listed", "Price: Low to High",
+                "Price: High to Low", "Name: A to Z");
+        List<ProductSort> sorts = List.of(ProductSort.by(ProductSortKey.ID, true), ProductSort.DEFAULT,
+                ProductSort.by(ProductSortKey.PRICE), ProductSort.by(ProductSortKey.PRICE, true),
+                ProductSort.by(ProductSortKey.NAME));
+        panel.addComponent(sortBox);
+
+        Button applyButton = new Button("Apply", () -> {
+            try {
+                String sellerText = sellerBox.getText().trim();
+                ProductQuery query = ProductQuery.builder()
+                        .priceBetween(parseOptionalPrice(minBox.getText()), parseOptionalPrice(maxBox.getText()))
+                        .seller(sellerText.isEmpty() ? null : Integer.parseInt(sellerText))
+                        .inStockOnly(inStockBox.isChecked())
+                        .sort(sorts.get(sortBox.getSelectedIndex()))
+                        .pageSize(PAGE_SIZE)
+                        .build();
+                showFilteredProducts(query);
+            } catch (NumberFormatException e) {
+                showErrorMessage("Please enter valid numbers");
+            } catch (Exception e) {
+                showErrorMessage("Error filtering products: " + e.getMessage());
+            }
+        });
+        Button backButton = new Button("Back", this::showBuyerMenu);
+
+        panel.addComponent(applyButton);
+        panel.addComponent(backButton);
+
+        window.setComponent(panel);
+        gui.addWindowAndWait(window);
+    }
+
+    private void showFilteredProducts(ProductQuery query) {
+        if (currentWindow != null) {
+            currentWindow.close();
+        }
+
+        Window window = new BasicWindow("Filtered Products");
+        window.setHints(List.of(Window.Hint.CENTERED, Window.Hint.FIT_TERMINAL_WINDOW));
+        currentWindow = window;
+
+        Panel panel = new Panel(new LinearLayout(Direction.VERTICAL));
+        panel.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 5, 3
+        ));
+
+        try {
+            ProductFacets facets = productService.getFacets(query.getSellerId(), Set.of(), query.isInStockOnly());
+            StringBuilder prices = new StringBuilder("By price:");
+            for (int bucket = 0; bucket < facets.getPriceBucketCount(); bucket++) {
+                prices.append(String.format(" %s (%d)", facets.getPriceBucketLabel(bucket),
+                        facets.getPriceBucketCount(bucket)));
+            }
+            panel.addComponent(new Label(prices.toString()));
+            panel.addComponent(new Label(String.format("In stock: %d | Sold out: %d",
+                    facets.getInStock(), facets.getOutOfStock())));
+
+            Page<ProductSummary> page = productService.findProducts(query);
+            if (page.isEmpty()) {
+                panel.addComponent(new Label("No products match these filters."));
+            } else {
+                for (ProductSummary product : page.getItems()) {
+                    panel.addComponent(new Label(String.format(
+                            "ID: %d | Name: %s | Price: $%.2f | Quantity: %d",
+                            product.getProduct_id(), product.getName(), product.getPrice(), product.getQuantity()
+                    )));
+                }
+            }
+            if (query.getAfter() != null) {
+                panel.addComponent(new Button("First Page", () -> showFilteredProducts(query.after(null))));
+            }
+            if (page.hasMore()) {
+                ProductSummary last = page.getItems().get(page.getItems().size() - 1);
+                panel.addComponent(new Button("Next Page", () -> showFilteredProducts(query.after(last))));
+            }
+        } catch (Exception e) {
+            panel.addComponent(new Label("Error retrieving products: " + e.getMessage()));
+        }
+
+        Button backButton = new Button("Back", this::filterProducts);
+        backButton.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 1, 1
+        ));
+        panel.addComponent(backButton);
+
+        window.setComponent(panel);
+        gui.addWindowAndWait(window);
+    }
+
     private void searchProducts() {
         if (currentWindow != null) {
             currentWindow.close();
@@ -1105,6 +1362,15 @@ public class EcommApp {
         panel.addComponent(searchLabel);
         panel.addComponent(searchBox);
 
+        // Suggestions come from the in-memory name trie, so they can follow every keystroke
+        Label suggestionsLabel = new Label("");
+        searchBox.setTextChangeListener((text, changedByUser) -> {
+            List<String> suggestions = productService.suggestProductNames(text, 5);
+            suggestionsLabel.setText(suggestions.isEmpty() ? "" : String.join("\n", suggestions));
+        });
+        panel.addComponent(new Label("Suggestions:"));
+        panel.addComponent(suggestionsLabel);
+
         Panel resultsPanel = new Panel(new LinearLayout(Direction.VERTICAL));
         resultsPanel.setLayoutData(GridLayout.createLayoutData(
                 GridLayout.Alignment.FILL,
@@ -1112,40 +1378,172 @@ public class EcommApp {
                 true, true
         ));
 
-        Button searchButton = new Button("Search", () -> {
-            try {
-                String keyword = searchBox.getText();
-                List<Product> products = productService.searchProducts(keyword);
+        Button searchButton = new Button("Search", () -> showSearchResults(resultsPanel, searchBox.getText(), 0));
 
-                // Clear previous results
-                resultsPanel.removeAllComponents();
+        Button backButton = new Button("Back", this::showBuyerMenu);
+        backButton.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 1, 1
+        ));
 
-                if (products.isEmpty()) {
-                    resultsPanel.addComponent(new Label("No products found."));
-                } else {
-                    for (Product product : products) {
-                        resultsPanel.addComponent(new Label(String.format(
-                                "ID: %d | Name: %s | Price: $%.2f | Quantity: %d",
-                                product.getProduct_id(), product.getName(), product.getPrice(), product.getQuantity()
-                        )));
-                    }
+        panel.addComponent(searchButton);
+        panel.addComponent(backButton);
+        panel.addComponent(resultsPanel);
+
+        window.setComponent(panel);
+        gui.addWindowAndWait(window);
+    }
+
+    private void showSearchResults(Panel resultsPanel, String keyword, int offset) {
+        // Clear previous results
+        resultsPanel.removeAllComponents();
+
+        try {
+            Page<Product> page = productService.searchProducts(keyword, offset, PAGE_SIZE);
+
+            if (page.isEmpty()) {
+                resultsPanel.addComponent(new Label("No products found."));
+            } else {
+                for (Product product : page.getItems()) {
+                    resultsPanel.addComponent(new Label(String.format(
+                            "ID: %d | Name: %s | Price: $%.2f | Quantity: %d",
+                            product.getProduct_id(), product.getName(), product.getPrice(), product.getQuantity()
+                    )));
                 }
+            }
+            addPagingButtons(resultsPanel, offset, page, nextOffset -> showSearchResults(resultsPanel, keyword, nextOffset));
+        } catch (Exception e) {
+            resultsPanel.removeAllComponents();
+            resultsPanel.addComponent(new Label("Error searching products: " + e.getMessage()));
+        }
+    }
+
+    private void placeOrder() {
+        if (currentWindow != null) {
+            currentWindow.close();
+        }
+
+        Window window = new BasicWindow("Place Order");
+        window.setHints(List.of(Window.Hint.CENTERED, Window.Hint.FIT_TERMINAL_WINDOW));
+        currentWindow = window;
+
+        Panel panel = new Panel(new GridLayout(2));
+        panel.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 5, 3
+        ));
+
+        panel.addComponent(new Label("Product ID:"));
+        TextBox productIdBox = new TextBox(new TerminalSize(30, 1));
+        panel.addComponent(productIdBox);
+
+        panel.addComponent(new Label("Quantity:"));
+        TextBox quantityBox = new TextBox(new TerminalSize(30, 1));
+        panel.addComponent(quantityBox);
+
+        Map<Integer, Integer> cart = new LinkedHashMap<>();
+        Label cartLabel = new Label("Cart is empty.");
+        cartLabel.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 2, 1
+        ));
+        Label statusLabel = new Label("");
+        statusLabel.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 2, 1
+        ));
+
+        Button addButton = new Button("Add to Cart", () -> {
+            try {
+                int productId = Integer.parseInt(productIdBox.getText().trim());
+                int quantity = Integer.parseInt(quantityBox.getText().trim());
+                if (quantity <= 0) {
+                    statusLabel.setText("Quantity must be greater than 0.");
+                    return;
+                }
+                cart.merge(productId, quantity, Integer::sum);
+                StringBuilder lines = new StringBuilder();
+                cart.forEach((id, qty) -> lines.append(String.format("Product %d x %d%n", id, qty)));
+                cartLabel.setText(lines.toString().trim());
+                statusLabel.setText("");
+                productIdBox.setText("");
+                quantityBox.setText("");
+            } catch (NumberFormatException e) {
+                statusLabel.setText("Invalid product ID or quantity!");
+            }
+        });
+
+        Button checkoutButton = new Button("Checkout", () -> {
+            try {
+                Order order = orderService.placeOrder(currentUser, cart);
+                cart.clear();
+                cartLabel.setText("Cart is empty.");
+                statusLabel.setText(String.format("Order #%d placed. Total: $%.2f",
+                        order.getOrder_id(), order.getTotal_amount()));
             } catch (Exception e) {
-                resultsPanel.removeAllComponents();
-                resultsPanel.addComponent(new Label("Error searching products: " + e.getMessage()));
+                statusLabel.setText("Error placing order: " + e.getMessage());
             }
         });
 
+        Button backButton = new Button("Back", this::showBuyerMenu);
+
+        panel.addComponent(cartLabel);
+        panel.addComponent(statusLabel);
+        panel.addComponent(addButton);
+        panel.addComponent(checkoutButton);
+        panel.addComponent(backButton);
+
+        window.setComponent(panel);
+        gui.addWindowAndWait(window);
+    }
+
+    private void viewOrders() {
+        if (currentWindow != null) {
+            currentWindow.close();
+        }
+
+        Window window = new BasicWindow("My Orders");
+        window.setHints(List.of(Window.Hint.CENTERED, Window.Hint.FIT_TERMINAL_WINDOW));
+        currentWindow = window;
+
+        Panel panel = new Panel(new LinearLayout(Direction.VERTICAL));
+        panel.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 5, 3
+        ));
+
+        panel.addComponent(new Label("=== My Orders ===")
+                .setLayoutData(GridLayout.createLayoutData(GridLayout.Alignment.CENTER, GridLayout.Alignment.CENTER)));
+
+        try {
+            List<Order> orders = orderService.getOrders(currentUser);
+            if (orders.isEmpty()) {
+                panel.addComponent(new Label("No orders yet."));
+            }
+            for (Order order : orders) {
+                panel.addComponent(new Label(String.format("Order #%d | Status: %s | Total: $%.2f",
+                        order.getOrder_id(), order.getStatus(), order.getTotal_amount())));
+                for (OrderItem item : order.getItems()) {
+                    panel.addComponent(new Label(String.format("    Product %d x %d @ $%.2f",
+                            item.getProduct_id(), item.getQuantity(), item.getPrice_at_time())));
+                }
+            }
+        } catch (Exception e) {
+            panel.addComponent(new Label("Error retrieving orders: " + e.getMessage()));
+        }
+
         Button backButton = new Button("Back", this::showBuyerMenu);
         backButton.setLayoutData(GridLayout.createLayoutData(
                 GridLayout.Alignment.CENTER,
                 GridLayout.Alignment.CENTER,
                 true, false, 1, 1
         ));
-
-        panel.addComponent(searchButton);
         panel.addComponent(backButton);
-        panel.addComponent(resultsPanel);
 
         window.setComponent(panel);
         gui.addWindowAndWait(window);
@@ -1216,6 +1614,150 @@ public class EcommApp {
         gui.addWindowAndWait(window);
     }
 
+    private void importProducts() {
+        if (currentWindow != null) {
+            currentWindow.close();
+        }
+
+        Window window = new BasicWindow("Import Products");
+        window.setHints(List.of(Window.Hint.CENTERED, Window.Hint.FIT_TERMINAL_WINDOW));
+        currentWindow = window;
+
+        Panel panel = new Panel(new GridLayout(2));
+        panel.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 5, 3
+        ));
+
+        Label helpLabel = new Label("CSV columns: name, description, price, quantity");
+        helpLabel.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 2, 1
+        ));
+        panel.addComponent(helpLabel);
+
+        panel.addComponent(new Label("CSV File:"));
+        TextBox fileBox = new TextBox(new TerminalSize(50, 1));
+        panel.addComponent(fileBox);
+
+        panel.addComponent(new Label("Reject File:"));
+        TextBox rejectBox = new TextBox(new TerminalSize(50, 1));
+        panel.addComponent(rejectBox);
+
+        Label statusLabel = new Label("");
+        statusLabel.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 2, 1
+        ));
+        panel.addComponent(statusLabel);
+
+        Button importButton = new Button("Import", () -> {
+            Path csvFile = Path.of(fileBox.getText().trim());
+            String rejectName = rejectBox.getText().trim();
+            Path rejectFile = rejectName.isEmpty() ? Path.of(csvFile + ".rejects.csv") : Path.of(rejectName);
+
+            try (Reader csv = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8);
+                 Writer rejects = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8)) {
+                ProductImportResult result = productService.importProducts(csv, rejects, currentUser);
+                statusLabel.setText(String.format("Imported %d product(s), rejected %d row(s)%s",
+                        result.getImported(), result.getRejected(),
+                        result.getRejected() > 0 ? " - see " + rejectFile : ""));
+            } catch (IOException e) {
+                statusLabel.setText("Cannot open file: " + e.getMessage());
+            } catch (Exception e) {
+                statusLabel.setText("Import failed: " + e.getMessage());
+            }
+        });
+
+        Button backButton = new Button("Back", this::showSellerMenu);
+
+        panel.addComponent(importButton);
+        panel.addComponent(backButton);
+
+        window.setComponent(panel);
+        gui.addWindowAndWait(window);
+    }
+
+    private void repriceProducts() {
+        if (currentWindow != null) {
+            currentWindow.close();
+        }
+
+        Window window = new BasicWindow("Reprice Products");
+        window.setHints(List.of(Window.Hint.CENTERED, Window.Hint.FIT_TERMINAL_WINDOW));
+        currentWindow = window;
+
+        Panel panel = new Panel(new GridLayout(2));
+        panel.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 5, 3
+        ));
+
+        panel.addComponent(new Label("Change (%):"));
+        TextBox percentBox = new TextBox(new TerminalSize(30, 1));
+        panel.addComponent(percentBox);
+
+        panel.addComponent(new Label("Name Contains:"));
+        TextBox nameBox = new TextBox(new TerminalSize(30, 1));
+        panel.addComponent(nameBox);
+
+        panel.addComponent(new Label("Min Price:"));
+        TextBox minBox = new TextBox(new TerminalSize(30, 1));
+        panel.addComponent(minBox);
+
+        panel.addComponent(new Label("Max Price:"));
+        TextBox maxBox = new TextBox(new TerminalSize(30, 1));
+        panel.addComponent(maxBox);
+
+        Label statusLabel = new Label("");
+        statusLabel.setLayoutData(GridLayout.createLayoutData(
+                GridLayout.Alignment.CENTER,
+                GridLayout.Alignment.CENTER,
+                true, false, 2, 1
+        ));
+        panel.addComponent(statusLabel);
+
+        Consumer<Boolean> run = dryRun -> {
+            try {
+                PriceAdjustment adjustment = PriceAdjustment.percent(Double.parseDouble(percentBox.getText().trim()));
+                RepriceFilter filter = RepriceFilter.all()
+                        .withNameContaining(nameBox.getText())
+                        .withPriceBetween(parseOptionalPrice(minBox.getText()), parseOptionalPrice(maxBox.getText()));
+                RepriceResult result = dryRun
+                        ? productService.previewReprice(currentUser, filter, adjustment)
+                        : productService.reprice(currentUser, filter, adjustment);
+                statusLabel.setText(String.format("%s %d of %d matching product(s) by %s, total $%s -> $%s%s",
+                        result.isDryRun() ? "Would change" : "Changed",
+                        result.getChanged(), result.getMatched(), adjustment,
+                        result.getTotalBefore().toPlainString(), result.getTotalAfter().toPlainString(),
+                        result.getOutOfRange() > 0 ? ", " + result.getOutOfRange() + " out of range" : ""));
+            } catch (NumberFormatException e) {
+                statusLabel.setText("Please enter valid numbers");
+            } catch (Exception e) {
+                statusLabel.setText("Repricing failed: " + e.getMessage());
+            }
+        };
+
+        Button previewButton = new Button("Preview", () -> run.accept(true));
+        Button applyButton = new Button("Apply", () -> run.accept(false));
+        Button backButton = new Button("Back", this::showSellerMenu);
+
+        panel.addComponent(previewButton);
+        panel.addComponent(applyButton);
+        panel.addComponent(backButton);
+
+        window.setComponent(panel);
+        gui.addWindowAndWait(window);
+    }
+
+    private static Double parseOptionalPrice(String text) {
+        return text.trim().isEmpty() ? null : Double.parseDouble(text.trim());
+    }
+
     private void viewAllUsers() {
         if (currentWindow != null) {
             currentWindow.close();
@@ -1241,7 +1783,7 @@ public class EcommApp {
                 .setLayoutData(GridLayout.createLayoutData(GridLayout.Alignment.CENTER, GridLayout.Alignment.CENTER)));
 
         try {
-            List<User> users = userService.getAllUsers();
+            List<UserSummary> users = userService.getAllUserSummaries();
             if (users.isEmpty()) {
                 panel.addComponent(new Label("No users found.")
                         .setLayoutData(GridLayout.createLayoutData(
@@ -1251,7 +1793,7 @@ public class EcommApp {
                                 false
                         )));
             } else {
-                for (User user : users) {
+                for (UserSummary user : users) {
                     panel.addComponent(new Label(String.format("ID: %d | Username: %s | Email: %s | Role: %s",
                             user.getUser_id(), user.getUsername(), user.getEmail(), user.getRole()))
                             .setLayoutData(GridLayout.createLayoutData(
@@ -1285,7 +1827,7 @@ public class EcommApp {
         gui.addWindowAndWait(window);
     }
 
-    private void viewAllProductsWithSellers() {
+    private void viewAllProductsWithSellers(int afterProductId) {
         if (currentWindow != null) {
             currentWindow.close();
         }
@@ -1307,11 +1849,14 @@ public class EcommApp {
                 .setLayoutData(GridLayout.createLayoutData(GridLayout.Alignment.CENTER, GridLayout.Alignment.CENTER)));
 
         try {
-            List<Product> products = productService.getAllProducts();
-            for (Product product : products) {
-                User seller = userService.getUserById(product.getSeller_id());
-                String sellerInfo = seller != null
-                        ? String.format("Seller: %s (Email: %s)", seller.getUsername(), seller.getEmail())
+            Page<ProductWithSeller> page = productService.getProductsWithSellersPage(afterProductId, PAGE_SIZE);
+            if (page.isEmpty()) {
+                panel.addComponent(new Label("No products available."));
+            }
+            for (ProductWithSeller row : page.getItems()) {
+                ProductSummary product = row.getProduct();
+                String sellerInfo = row.hasSeller()
+                        ? String.format("Seller: %s (Email: %s)", row.getSellerUsername(), row.getSellerEmail())
                         : "Seller: Unknown";
 
                 panel.addComponent(new Label(String.format(
@@ -1319,6 +1864,7 @@ public class EcommApp {
                         product.getProduct_id(), product.getName(), product.getPrice(), product.getQuantity(), sellerInfo
                 )));
             }
+            addPagingButtons(panel, afterProductId, page, this::viewAllProductsWithSellers);
         } catch (Exception e) {
             panel.addComponent(new Label("Error retrieving products: " + e.getMessage()));
         }
@@ -1392,6 +1938,62 @@ public class EcommApp {
     }
 
 
+    private void signIn(User user) {
+        try {
+            sessionToken = sessionService.issue(user);
+        } catch (IllegalStateException e) {
+            showErrorMessage("Login failed: " + e.getMessage());
+            return;
+        }
+        currentUser = user;
+        showRoleSpecificMenu();
+    }
+
+    private void signOut() {
+        sessionService.logout(sessionToken);
+        sessionToken = null;
+        currentUser = null;
+        displayMainMenu();
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        // CompletableFuture wraps failures of dependent stages in CompletionException
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Adds "First Page" / "Next Page" buttons for a paginated listing.
+     *
+     * @param panel Panel to add the buttons to
+     * @param cursor Cursor the current page was opened with (0 on the first page)
+     * @param page The page being displayed
+     * @param openPage Reopens the listing at a given cursor
+     */
+    private void addPagingButtons(Panel panel, int cursor, Page<?> page, IntConsumer openPage) {
+        if (cursor > 0) {
+            panel.addComponent(new Button("First Page", () -> openPage.accept(0)));
+        }
+        if (page.hasMore()) {
+            panel.addComponent(new Button("Next Page", () -> openPage.accept(page.getNextCursor())));
+        }
+    }
+
+    /**
+     * Explains to a seller why a product write was not applied.
+     *
+     * @param result Outcome of the write
+     * @return A message for the user, empty on success
+     */
+    private String describeFailedWrite(ProductWriteResult result) {
+        return switch (result) {
+            case NOT_FOUND -> "This product no longer exists.";
+            case NOT_OWNER -> "You can only modify your own products.";
+            case CONFLICT -> "This product was changed since you opened it. Cancel and reopen it to see the latest version.";
+            case INSUFFICIENT_STOCK -> "Not enough stock to remove that many units.";
+            case SUCCESS -> "";
+        };
+    }
+
     private void showErrorMessage(String message) {
         if (currentWindow != null) {
             currentWindow.close();
@@ -0,0 +1,108 @@
+package com.keyin.Orders;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents an order placed by a buyer: the order header and its lines.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class Order {
+    /** Status of a newly placed order. */
+    public static final String STATUS_PENDING = "pending";
+
+    private int order_id;
+    private int buyer_id;
+    private double total_amount;
+    private String status;
+    private LocalDateTime created_at;
+    private final List<OrderItem> items;
+
+    /**
+     * Constructs an order.
+     *
+     * @param order_id The unique identifier of the order
+     * @param buyer_id The ID of the buyer who placed the order
+     * @param total_amount The sum of all line totals
+     * @param status The order status, e.g. {@link #STATUS_PENDING}
+     * @param created_at When the order was placed
+     * @param items The order lines
+     */
+    public Order(int order_id, int buyer_id, double total_amount, String status,
+                 LocalDateTime created_at, List<OrderItem> items) {
+        this.order_id = order_id;
+        this.buyer_id = buyer_id;
+        this.total_amount = total_amount;
+        this.status = status;
+        this.created_at = created_at;
+        this.items = new ArrayList<>(items);
+    }
+
+    /**
+     * Gets the unique identifier of the order.
+     *
+     * @return The order's ID
+     */
+    public int getOrder_id() {
+        return order_id;
+    }
+
+    /**
+     * Gets the ID of the buyer who placed the order.
+     *
+     * @return The buyer's ID
+     */
+    public int getBuyer_id() {
+        return buyer_id;
+    }
+
+    /**
+     * Gets the order total.
+     *
+     * @return The sum of all line totals
+     */
+    public double getTotal_amount() {
+        return total_amount;
+    }
+
+    /**
+     * Gets the order status.
+     *
+     * @return The status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets when the order was placed.
+     *
+     * @return The creation time
+     */
+    public LocalDateTime getCreated_at() {
+        return created_at;
+    }
+
+    /**
+     * Gets the order lines.
+     *
+     * @return Unmodifiable list of order lines
+     */
+    public List<OrderItem> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Appends an order line while the order is being read from storage.
+     *
+     * @param item The order line
+     */
+    void addItem(OrderItem item) {
+        items.add(item);
+    }
+}
@@ -0,0 +1,247 @@
+package com.keyin.Orders;
+
+import com.keyin.Database.DatabaseConfig;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Data Access Object for placing and reading orders.
+ *
+ * <p>Checkout runs as one transaction with a fixed number of round trips however
+ * many lines the cart has: one conditional stock update for the whole cart, one
+ * insert of the order header and one batched insert of the order lines.</p>
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class OrderDAO implements OrderRepository {
+    /**
+     * Takes stock for every cart line in one statement. The cart arrives as two
+     * parallel arrays. The product rows are locked in product ID order first, so two
+     * checkouts sharing products always lock them in the same order and cannot deadlock.
+     * A line only updates its product if enough stock is left; PostgreSQL re-checks that
+     * condition against the latest row version after waiting for a concurrent buyer's
+     * lock, so stock can never be oversold.
+     */
+    private static final String TAKE_STOCK_SQL =
+            "WITH cart AS ("
+            + "    SELECT * FROM unnest(?::int[], ?::int[]) AS c(product_id, quantity)"
+            + "), locked AS ("
+            + "    SELECT p.product_id FROM products p"
+            + "    WHERE p.product_id IN (SELECT product_id FROM cart)"
+            + "    ORDER BY p.product_id FOR UPDATE"
+            + ") "
+            + "UPDATE products p SET quantity = p.quantity - cart.quantity, version = p.version + 1, "
+            + "updated_at = CURRENT_TIMESTAMP "
+            + "FROM cart JOIN locked USING (product_id) "
+            + "WHERE p.product_id = cart.product_id AND p.quantity >= cart.quantity "
+            + "RETURNING p.product_id, p.price, cart.quantity";
+
+    private final DataSource dataSource;
+
+    /**
+     * Initializes the OrderDAO with the shared connection pool.
+     *
+     * @throws RuntimeException if database connection fails
+     */
+    public OrderDAO() {
+        try {
+            this.dataSource = DatabaseConfig.getDataSource();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to connect to database", e);
+        }
+    }
+
+    /**
+     * Initializes the OrderDAO with the given data source.
+     *
+     * @param dataSource The data source to borrow connections from
+     */
+    public OrderDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Places an order in a single transaction. If any line cannot be fulfilled the
+     * whole transaction is rolled back, so no stock is taken and no order is recorded.
+     *
+     * @param buyerId The ID of the buyer placing the order
+     * @param cart Quantity to buy per product ID (each positive)
+     * @return The placed order with its generated IDs and lines
+     * @throws SQLException with SQLState {@link #INSUFFICIENT_STOCK} if a product is missing
+     *         or does not have enough stock, or if a database error occurs
+     */
+    @Override
+    public Order placeOrder(int buyerId, Map<Integer, Integer> cart) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                List<OrderItem> items = takeStock(connection, cart);
+                if (items.size() < cart.size()) {
+                    Map<Integer, Integer> unavailable = new TreeMap<>(cart);
+                    items.forEach(item -> unavailable.remove(item.getProduct_id()));
+                    throw new SQLException("Insufficient stock for product(s) " + unavailable.keySet(),
+                            INSUFFICIENT_STOCK);
+                }
+
+                BigDecimal total = BigDecimal.ZERO;
+                for (OrderItem item : items) {
+                    total = total.add(BigDecimal.valueOf(item.getPrice_at_time())
+                            .multiply(BigDecimal.valueOf(item.getQuantity())));
+                }
+                Order order = insertOrder(connection, buyerId, total, items);
+                insertItems(connection, order.getOrder_id(), items);
+
+                connection.commit();
+                return order;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw new SQLException("Error placing order: " + e.getMessage(), e.getSQLState(), e);
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Retrieves a buyer's orders with their lines in one query, newest first.
+     *
+     * @param buyerId The ID of the buyer
+     * @return The buyer's orders
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public List<Order> getOrdersByBuyer(int buyerId) throws SQLException {
+        String sql = "SELECT o.order_id, o.total_amount, o.status, o.created_at, "
+                + "i.order_item_id, i.product_id, i.quantity, i.price_at_time "
+                + "FROM orders o LEFT JOIN order_items i ON i.order_id = o.order_id "
+                + "WHERE o.buyer_id = ? ORDER BY o.created_at DESC, o.order_id DESC, i.order_item_id";
+        Map<Integer, Order> orders = new LinkedHashMap<>();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, buyerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int orderId = rs.getInt("order_id");
+                    Order order = orders.get(orderId);
+                    if (order == null) {
+                        Timestamp createdAt = rs.getTimestamp("created_at");
+                        order = new Order(orderId, buyerId, rs.getBigDecimal("total_amount").doubleValue(),
+                                rs.getString("status"), createdAt == null ? null : createdAt.toLocalDateTime(),
+                                new ArrayList<>());
+                        orders.put(orderId, order);
+                    }
+                    int orderItemId = rs.getInt("order_item_id");
+                    if (!rs.wasNull()) {
+                        order.addItem(new OrderItem(orderItemId, orderId, rs.getInt("product_id"),
+                                rs.getInt("quantity"), rs.getDouble("price_at_time")));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Error reading orders: " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error retrieving orders: " + e.getMessage());
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    /**
+     * Runs {@link #TAKE_STOCK_SQL} for the whole cart.
+     *
+     * @param connection Connection of the checkout transaction
+     * @param cart Quantity to buy per product ID
+     * @return One line, at the current price, for each product whose stock was taken
+     * @throws SQLException if a database error occurs
+     */
+    private static List<OrderItem> takeStock(Connection connection, Map<Integer, Integer> cart) throws SQLException {
+        Integer[] productIds = new Integer[cart.size()];
+        Integer[] quantities = new Integer[cart.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> line : cart.entrySet()) {
+            productIds[i] = line.getKey();
+            quantities[i] = line.getValue();
+            i++;
+        }
+
+        List<OrderItem> items = new ArrayList<>(cart.size());
+        try (PreparedStatement stmt = connection.prepareStatement(TAKE_STOCK_SQL)) {
+            stmt.setArray(1, connection.createArrayOf("integer", productIds));
+            stmt.setArray(2, connection.createArrayOf("integer", quantities));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(new OrderItem(rs.getInt("product_id"), rs.getInt("quantity"),
+                            rs.getBigDecimal("price").doubleValue()));
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Inserts the order header.
+     *
+     * @param connection Connection of the checkout transaction
+     * @param buyerId The ID of the buyer
+     * @param total The order total
+     * @param items The order lines, not yet inserted
+     * @return The order with its generated ID and creation time
+     * @throws SQLException if a database error occurs
+     */
+    private static Order insertOrder(Connection connection, int buyerId, BigDecimal total,
+                                     List<OrderItem> items) throws SQLException {
+        String sql = "INSERT INTO orders (buyer_id, total_amount, status) VALUES (?, ?, ?) "
+                + "RETURNING order_id, created_at";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, buyerId);
+            stmt.setBigDecimal(2, total);
+            stmt.setString(3, Order.STATUS_PENDING);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                int orderId = rs.getInt("order_id");
+                items.forEach(item -> item.setOrder_id(orderId));
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                return new Order(orderId, buyerId, total.doubleValue(), Order.STATUS_PENDING,
+                        createdAt == null ? null : createdAt.toLocalDateTime(), items);
+            }
+        }
+    }
+
+    /**
+     * Inserts all order lines as one JDBC batch. With the pool's
+     * {@code reWriteBatchedInserts} setting the driver sends the batch as
+     * multi-row inserts rather than one statement per line.
+     *
+     * @param connection Connection of the checkout transaction
+     * @param orderId The ID of the order the lines belong to
+     * @param items The order lines; their generated IDs are set on return
+     * @throws SQLException if a database error occurs
+     */
+    private static void insertItems(Connection connection, int orderId, List<OrderItem> items) throws SQLException {
+        String sql = "INSERT INTO order_items (order_id, product_id, quantity, price_at_time) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql, new String[] {"order_item_id"})) {
+            for (OrderItem item : items) {
+                stmt.setInt(1, orderId);
+                stmt.setInt(2, item.getProduct_id());
+                stmt.setInt(3, item.getQuantity());
+                stmt.setBigDecimal(4, BigDecimal.valueOf(item.getPrice_at_time()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (int i = 0; i < items.size() && keys.next(); i++) {
+                    items.get(i).setOrder_item_id(keys.getInt(1));
+                }
+            }
+        }
+    }
+}
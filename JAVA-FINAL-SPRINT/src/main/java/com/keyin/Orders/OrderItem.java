@@ -0,0 +1,121 @@
+package com.keyin.Orders;
+
+/**
+ * Represents one line of an order: a product, the quantity bought and the
+ * unit price charged at the time of purchase.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class OrderItem {
+    private int order_item_id;
+    private int order_id;
+    private int product_id;
+    private int quantity;
+    private double price_at_time;
+
+    /**
+     * Constructs a new order line without IDs (typically used while placing an order).
+     *
+     * @param product_id The ID of the product bought
+     * @param quantity The number of units bought (must be positive)
+     * @param price_at_time The unit price charged
+     * @throws IllegalArgumentException if quantity is not positive
+     */
+    public OrderItem(int product_id, int quantity, double price_at_time) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+        this.product_id = product_id;
+        this.quantity = quantity;
+        this.price_at_time = price_at_time;
+    }
+
+    /**
+     * Constructs an order line with existing IDs (typically used when loading from database).
+     *
+     * @param order_item_id The unique identifier of the order line
+     * @param order_id The ID of the order this line belongs to
+     * @param product_id The ID of the product bought
+     * @param quantity The number of units bought
+     * @param price_at_time The unit price charged
+     */
+    public OrderItem(int order_item_id, int order_id, int product_id, int quantity, double price_at_time) {
+        this(product_id, quantity, price_at_time);
+        this.order_item_id = order_item_id;
+        this.order_id = order_id;
+    }
+
+    /**
+     * Gets the unique identifier of the order line.
+     *
+     * @return The order line's ID
+     */
+    public int getOrder_item_id() {
+        return order_item_id;
+    }
+
+    /**
+     * Sets the unique identifier of the order line.
+     *
+     * @param order_item_id The new ID to set
+     */
+    public void setOrder_item_id(int order_item_id) {
+        this.order_item_id = order_item_id;
+    }
+
+    /**
+     * Gets the ID of the order this line belongs to.
+     *
+     * @return The order's ID
+     */
+    public int getOrder_id() {
+        return order_id;
+    }
+
+    /**
+     * Sets the ID of the order this line belongs to.
+     *
+     * @param order_id The order's ID
+     */
+    public void setOrder_id(int order_id) {
+        this.order_id = order_id;
+    }
+
+    /**
+     * Gets the ID of the product bought.
+     *
+     * @return The product's ID
+     */
+    public int getProduct_id() {
+        return product_id;
+    }
+
+    /**
+     * Gets the number of units bought.
+     *
+     * @return The quantity
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Gets the unit price charged at the time of purchase.
+     *
+     * @return The unit price
+     */
+    public double getPrice_at_time() {
+        return price_at_time;
+    }
+
+    /**
+     * Gets the line total.
+     *
+     * @return Unit price times quantity
+     */
+    public double getLineTotal() {
+        return price_at_time * quantity;
+    }
+}
@@ -0,0 +1,41 @@
+package com.keyin.Orders;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage abstraction for orders.
+ * {@link OrderDAO} implements it against PostgreSQL; an in-memory implementation
+ * with the same semantics is available for tests and benchmarks.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public interface OrderRepository {
+    /** SQLState reported when a cart line asks for more units than are in stock. */
+    String INSUFFICIENT_STOCK = "23514";
+
+    /**
+     * Places an order atomically: takes the requested quantities out of stock,
+     * records the order header at current prices and inserts every order line.
+     * Either all of it happens or none of it does.
+     *
+     * @param buyerId The ID of the buyer placing the order
+     * @param cart Quantity to buy per product ID (each positive)
+     * @return The placed order with its generated IDs and lines
+     * @throws SQLException with SQLState {@link #INSUFFICIENT_STOCK} if a product is missing
+     *         or does not have enough stock, or if a storage error occurs
+     */
+    Order placeOrder(int buyerId, Map<Integer, Integer> cart) throws SQLException;
+
+    /**
+     * Retrieves a buyer's orders with their lines, newest first.
+     *
+     * @param buyerId The ID of the buyer
+     * @return The buyer's orders
+     * @throws SQLException if a storage error occurs
+     */
+    List<Order> getOrdersByBuyer(int buyerId) throws SQLException;
+}
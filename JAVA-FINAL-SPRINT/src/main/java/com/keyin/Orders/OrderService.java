@@ -0,0 +1,122 @@
+package com.keyin.Orders;
+
+import com.keyin.Products.ProductService;
+import com.keyin.User.User;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service class that handles the business logic for placing and viewing orders.
+ * Validates the buyer and the cart before checkout and keeps the product service's
+ * in-memory state in step with the stock the order took.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class OrderService {
+    /** Maximum number of distinct products in one order. */
+    public static final int MAX_CART_LINES = 100;
+
+    private final OrderRepository orderDAO;
+    private final ProductService productService;
+
+    /**
+     * Constructs a new OrderService.
+     *
+     * @param orderDAO Data access object for order operations
+     * @param productService Product service notified of stock taken by orders
+     */
+    public OrderService(OrderRepository orderDAO, ProductService productService) {
+        this.orderDAO = orderDAO;
+        this.productService = productService;
+    }
+
+    /**
+     * Places an order for the given cart. Stock is taken, the order is recorded and
+     * every line is inserted in one transaction, so either the whole cart is bought
+     * or nothing is.
+     *
+     * @param buyer The buyer placing the order
+     * @param cart Quantity to buy per product ID
+     * @return The placed order
+     * @throws IllegalArgumentException If the user is not a buyer, the cart is invalid,
+     *         or a product does not have enough stock
+     * @throws RuntimeException If database operation fails
+     */
+    public Order placeOrder(User buyer, Map<Integer, Integer> cart) {
+        validateBuyer(buyer);
+        validateCart(cart);
+
+        try {
+            return productService.changeStock(() -> orderDAO.placeOrder(buyer.getUser_id(), cart), order -> {
+                Map<Integer, Integer> quantityChanges = new HashMap<>();
+                for (OrderItem item : order.getItems()) {
+                    quantityChanges.put(item.getProduct_id(), -item.getQuantity());
+                }
+                return quantityChanges;
+            });
+        } catch (SQLException e) {
+            if (OrderRepository.INSUFFICIENT_STOCK.equals(e.getSQLState())) {
+                throw new IllegalArgumentException(e.getMessage());
+            }
+            throw new RuntimeException("Database error while placing order: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the orders a buyer has placed, newest first.
+     *
+     * @param buyer The buyer whose orders to retrieve
+     * @return The buyer's orders with their lines
+     * @throws IllegalArgumentException If the user is not a buyer
+     * @throws RuntimeException If database operation fails
+     */
+    public List<Order> getOrders(User buyer) {
+        validateBuyer(buyer);
+        try {
+            return orderDAO.getOrdersByBuyer(buyer.getUser_id());
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while fetching orders: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Validates that a user has buyer role.
+     *
+     * @param buyer The user to validate
+     * @throws IllegalArgumentException If user is null or not a buyer
+     */
+    private void validateBuyer(User buyer) {
+        if (buyer == null) {
+            throw new IllegalArgumentException("Buyer cannot be null");
+        }
+        if (!"buyer".equalsIgnoreCase(buyer.getRole())) {
+            throw new IllegalArgumentException("User must be a buyer to place orders");
+        }
+    }
+
+    /**
+     * Validates the cart: at least one and at most {@link #MAX_CART_LINES} products,
+     * each with a positive quantity.
+     *
+     * @param cart Quantity to buy per product ID
+     * @throws IllegalArgumentException If the cart is invalid
+     */
+    private void validateCart(Map<Integer, Integer> cart) {
+        if (cart == null || cart.isEmpty()) {
+            throw new IllegalArgumentException("Cart cannot be empty");
+        }
+        if (cart.size() > MAX_CART_LINES) {
+            throw new IllegalArgumentException("Cart cannot hold more than " + MAX_CART_LINES + " products");
+        }
+        for (Map.Entry<Integer, Integer> line : cart.entrySet()) {
+            if (line.getKey() == null || line.getValue() == null || line.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than 0 for product " + line.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.keyin.Products;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A change applied to product prices: either a percentage or a fixed amount.
+ * New prices are rounded half away from zero to cents, the same rounding
+ * PostgreSQL's {@code ROUND(numeric, 2)} applies when the change runs in the
+ * database, so a preview and the actual update always agree.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public final class PriceAdjustment {
+    /** Highest price a DECIMAL(10,2) column can hold. */
+    public static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private final BigDecimal factor;
+    private final BigDecimal amount;
+
+    private PriceAdjustment(BigDecimal factor, BigDecimal amount) {
+        this.factor = factor;
+        this.amount = amount;
+    }
+
+    /**
+     * Creates an adjustment that changes prices by a percentage.
+     *
+     * @param percent Percentage to add, e.g. 10 for a 10% increase or -15 for a 15% discount
+     * @return The adjustment
+     * @throws IllegalArgumentException if the percentage would make every price zero or negative
+     */
+    public static PriceAdjustment percent(double percent) {
+        if (!Double.isFinite(percent) || percent <= -100) {
+            throw new IllegalArgumentException("Percentage must be greater than -100");
+        }
+        BigDecimal factor = BigDecimal.ONE.add(BigDecimal.valueOf(percent).movePointLeft(2));
+        return new PriceAdjustment(factor, BigDecimal.ZERO);
+    }
+
+    /**
+     * Creates an adjustment that changes prices by a fixed amount.
+     *
+     * @param amount Amount to add; negative to lower prices
+     * @return The adjustment
+     * @throws IllegalArgumentException if the amount is not a whole number of cents
+     */
+    public static PriceAdjustment amount(double amount) {
+        if (!Double.isFinite(amount)) {
+            throw new IllegalArgumentException("Amount must be a number");
+        }
+        BigDecimal value = BigDecimal.valueOf(amount).stripTrailingZeros();
+        if (value.scale() > 2) {
+            throw new IllegalArgumentException("Amount cannot have more than two decimal places");
+        }
+        return new PriceAdjustment(BigDecimal.ONE, value);
+    }
+
+    /**
+     * Gets the multiplier applied to the old price.
+     *
+     * @return The factor; 1 for a fixed amount
+     */
+    public BigDecimal getFactor() {
+        return factor;
+    }
+
+    /**
+     * Gets the amount added after the multiplier.
+     *
+     * @return The amount; 0 for a percentage
+     */
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    /**
+     * Computes the new price.
+     *
+     * @param price The current price
+     * @return {@code ROUND(price * factor + amount, 2)}
+     */
+    public BigDecimal apply(BigDecimal price) {
+        return price.multiply(factor).add(amount).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Checks whether a price can be stored: above zero and within DECIMAL(10,2).
+     *
+     * @param price The price to check
+     * @return true if the price is valid
+     */
+    public static boolean isValidPrice(BigDecimal price) {
+        return price.signum() > 0 && price.compareTo(MAX_PRICE) <= 0;
+    }
+
+    @Override
+    public String toString() {
+        if (amount.signum() != 0) {
+            return (amount.signum() > 0 ? "+" : "") + amount.toPlainString();
+        }
+        BigDecimal percent = factor.subtract(BigDecimal.ONE).movePointRight(2).stripTrailingZeros();
+        return (percent.signum() >= 0 ? "+" : "") + percent.toPlainString() + "%";
+    }
+}
@@ -16,6 +16,7 @@ public class Product {
     private double price;
     private int quantity;
     private int seller_id;
+    private int version;
 
     /**
      * Constructs a new Product without an ID (typically used when creating a new product).
@@ -69,6 +70,22 @@ public class Product {
         this.seller_id = seller_id;
     }
 
+    /**
+     * Constructs a copy of another product (typically used by in-memory stores and caches
+     * so callers cannot mutate shared instances).
+     *
+     * @param other The product to copy
+     */
+    public Product(Product other) {
+        this.product_id = other.product_id;
+        this.name = other.name;
+        this.description = other.description;
+        this.price = other.price;
+        this.quantity = other.quantity;
+        this.seller_id = other.seller_id;
+        this.version = other.version;
+    }
+
     /**
      * Gets the unique identifier of the product.
      *
@@ -123,6 +140,16 @@ public class Product {
         return seller_id;
     }
 
+    /**
+     * Gets the row version of the product, incremented by every write.
+     * An update only succeeds if the version it was read at is still current.
+     *
+     * @return The product's version
+     */
+    public int getVersion() {
+        return version;
+    }
+
     /**
      * Sets the product's ID. Typically used when a new product is saved to the database.
      *
@@ -176,4 +203,13 @@ public class Product {
     public void setSeller_id(int seller_id) {
         this.seller_id = seller_id;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sets the row version of the product, as read from the database.
+     *
+     * @param version The version to set
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+}
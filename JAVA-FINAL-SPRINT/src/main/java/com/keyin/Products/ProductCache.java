@@ -0,0 +1,264 @@
+package com.keyin.Products;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded read-through cache of products keyed by product ID.
+ *
+ * <p>Entries are spread over independently locked stripes, each an access-ordered
+ * {@link LinkedHashMap}, so readers of different products rarely contend. A stripe evicts
+ * its least recently used entry when full, and an entry older than the time-to-live is
+ * reloaded on its next read. Stripe capacities add up to at most the configured maximum,
+ * so the cache never holds more products than that.</p>
+ *
+ * <p>Products are copied on the way in and out. Writers must call {@link #invalidate(int)}
+ * after changing or deleting a product; a load that races with an invalidation of its
+ * stripe is returned to the caller but not cached, so a stale row cannot be reinstated.</p>
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class ProductCache {
+    /** Default maximum number of cached products, overridable with {@code -Dproduct.cache.maxEntries}. */
+    public static final int DEFAULT_MAX_ENTRIES = Integer.getInteger("product.cache.maxEntries", 10_000);
+    /** Default time-to-live in seconds, overridable with {@code -Dproduct.cache.ttlSeconds}. */
+    public static final long DEFAULT_TTL_SECONDS = Long.getLong("product.cache.ttlSeconds", 300L);
+
+    private static final int MAX_STRIPES = 16;
+
+    private final Stripe[] stripes;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Loads a product from storage on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Loads a product.
+         *
+         * @param productId The unique identifier of the product
+         * @return The product, or null if it does not exist
+         * @throws SQLException if a storage error occurs
+         */
+        Product load(int productId) throws SQLException;
+    }
+
+    /**
+     * Creates a cache with the default size and time-to-live.
+     */
+    public ProductCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxEntries Maximum number of products held at once (at least 1)
+     * @param ttl Time after which an entry is reloaded
+     * @param unit Unit of the time-to-live
+     * @throws IllegalArgumentException If maxEntries or ttl is not positive
+     */
+    public ProductCache(int maxEntries, long ttl, TimeUnit unit) {
+        this(maxEntries, unit.toNanos(ttl), System::nanoTime);
+    }
+
+    /**
+     * Creates a cache with an explicit clock, for tests.
+     *
+     * @param maxEntries Maximum number of products held at once (at least 1)
+     * @param ttlNanos Time-to-live in nanoseconds
+     * @param clock Source of {@link System#nanoTime()}-style timestamps
+     */
+    ProductCache(int maxEntries, long ttlNanos, LongSupplier clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        if (ttlNanos <= 0) {
+            throw new IllegalArgumentException("Cache time-to-live must be positive");
+        }
+        int stripeCount = Math.min(MAX_STRIPES, maxEntries);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            // Spread the remainder so the capacities add up to exactly maxEntries
+            int capacity = maxEntries / stripeCount + (i < maxEntries % stripeCount ? 1 : 0);
+            stripes[i] = new Stripe(capacity);
+        }
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns a product from the cache, loading and caching it on a miss or after it expired.
+     *
+     * @param productId The unique identifier of the product
+     * @param loader Loads the product from storage on a miss
+     * @return A copy of the product, or null if it does not exist
+     * @throws SQLException if the loader fails
+     */
+    public Product get(int productId, Loader loader) throws SQLException {
+        Stripe stripe = stripeFor(productId);
+        long invalidations;
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(productId);
+            if (entry != null) {
+                if (clock.getAsLong() - entry.loadedAt < ttlNanos) {
+                    hits.increment();
+                    return new Product(entry.product);
+                }
+                stripe.entries.remove(productId);
+                evictions.increment();
+            }
+            invalidations = stripe.invalidations;
+        }
+
+        misses.increment();
+        Product product = loader.load(productId);
+        if (product == null) {
+            return null;
+        }
+
+        synchronized (stripe) {
+            if (stripe.invalidations == invalidations) {
+                stripe.entries.put(productId, new Entry(new Product(product), clock.getAsLong()));
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Drops a product from the cache. Call after the product was updated or deleted.
+     *
+     * @param productId The unique identifier of the product
+     */
+    public void invalidate(int productId) {
+        Stripe stripe = stripeFor(productId);
+        synchronized (stripe) {
+            stripe.invalidations++;
+            stripe.entries.remove(productId);
+        }
+    }
+
+    /**
+     * Drops every cached product, e.g. after a bulk change made outside this cache.
+     */
+    public void invalidateAll() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.invalidations++;
+                stripe.entries.clear();
+            }
+        }
+    }
+
+    /**
+     * Drops expired entries without waiting for them to be read.
+     */
+    public void evictExpired() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                long now = clock.getAsLong();
+                Iterator<Entry> it = stripe.entries.values().iterator();
+                while (it.hasNext()) {
+                    if (now - it.next().loadedAt >= ttlNanos) {
+                        it.remove();
+                        evictions.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of cached products.
+     *
+     * @return The number of entries currently held
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets the number of reads answered from the cache.
+     *
+     * @return The hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of reads that went to storage.
+     *
+     * @return The miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of entries dropped because the cache was full or they expired.
+     * Explicit invalidations are not counted.
+     *
+     * @return The eviction count
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private Stripe stripeFor(int productId) {
+        // Product IDs are sequential, so a plain modulo already spreads them evenly
+        return stripes[Math.floorMod(productId, stripes.length)];
+    }
+
+    /**
+     * A cached product and when it was loaded.
+     */
+    private static final class Entry {
+        private final Product product;
+        private final long loadedAt;
+
+        private Entry(Product product, long loadedAt) {
+            this.product = product;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * One independently locked LRU segment of the cache.
+     */
+    private final class Stripe {
+        private final LinkedHashMap<Integer, Entry> entries;
+        private long invalidations;
+
+        private Stripe(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
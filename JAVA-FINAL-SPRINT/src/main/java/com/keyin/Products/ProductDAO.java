@@ -1,33 +1,96 @@
 package com.keyin.Products;
 
 import com.keyin.Database.DatabaseConfig;
+import com.keyin.Database.Page;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Data Access Object (DAO) class for handling all database operations related to Products.
  * This class provides an abstraction layer between the application and the database,
  * implementing CRUD (Create, Read, Update, Delete) operations for products.
+ * Each operation borrows a connection from the pool and returns it when done,
+ * so concurrent callers are not serialized behind a single connection.
  *
  * @author Kyle Hollett, Brad Ayers, Brian Janes
  * @version 1.0
  * @since 2024-11-27
  */
-public class ProductDAO {
-    private Connection connection;
+public class ProductDAO implements ProductRepository {
+    /** Columns mapped by {@link #mapProduct(ResultSet)}; avoids shipping the search_vector column. */
+    private static final String PRODUCT_COLUMNS = "product_id, name, description, price, quantity, seller_id, version";
+
+    /** Columns mapped by {@link #mapSummary(ResultSet)}; list views never show the description. */
+    private static final String SUMMARY_COLUMNS = "product_id, name, price, quantity, seller_id, created_at";
+
+    /** Characters of CSV buffered before each write to a COPY stream. */
+    private static final int COPY_CHUNK_SIZE = 256 * 1024;
+
+    /** Default statements per JDBC batch for bulk writes, overridable with {@code -Dproduct.batchSize}. */
+    public static final int DEFAULT_BATCH_SIZE = Integer.getInteger("product.batchSize", 500);
+
+    /** Rows fetched per round trip when streaming through a server-side cursor. */
+    private static final int STREAM_FETCH_SIZE = 1_000;
+
+    private final DataSource dataSource;
+    private final int batchSize;
 
     /**
-     * Constructs a new ProductDAO and establishes a database connection.
+     * Constructs a new ProductDAO backed by the shared connection pool.
      *
      * @throws RuntimeException if database connection fails
      */
     public ProductDAO() {
         try {
-            this.connection = DatabaseConfig.getConnection();
+            this.dataSource = DatabaseConfig.getDataSource();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to connect to database", e);
         }
+        this.batchSize = DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Constructs a new ProductDAO that borrows connections from the given data source.
+     *
+     * @param dataSource The data source to borrow connections from
+     */
+    public ProductDAO(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a new ProductDAO with an explicit batch size for bulk writes.
+     *
+     * @param dataSource The data source to borrow connections from
+     * @param batchSize Statements sent per JDBC batch by bulk updates and deletes
+     * @throws IllegalArgumentException if batchSize is not positive
+     */
+    public ProductDAO(DataSource dataSource, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
     }
 
     /**
@@ -37,10 +100,12 @@ public class ProductDAO {
      * @return The same product object with its database-generated ID, or null if creation fails
      * @throws SQLException if a database error occurs
      */
+    @Override
     public Product createProduct(Product product) throws SQLException {
         String sql = "INSERT INTO products (name, description, price, quantity, seller_id) VALUES (?, ?, ?, ?, ?) RETURNING product_id";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, product.getName());
             stmt.setString(2, product.getDescription());
             stmt.setDouble(3, product.getPrice());
@@ -61,6 +126,83 @@ public class ProductDAO {
         return null;
     }
 
+    /**
+     * Creates many products through PostgreSQL's {@code COPY ... FROM STDIN}, which
+     * streams rows to the server in the CSV format without a statement or round trip
+     * per row. Rows are pulled from the iterator and sent in chunks, so memory use does
+     * not depend on the number of products. COPY is a single statement: if any row
+     * fails, no product is created.
+     *
+     * @param products Products to create
+     * @return The number of products created
+     * @throws SQLException if a row violates a constraint or a database error occurs
+     */
+    @Override
+    public long copyProducts(Iterator<Product> products) throws SQLException {
+        String sql = "COPY products (name, description, price, quantity, seller_id) FROM STDIN WITH (FORMAT csv)";
+
+        try (Connection connection = dataSource.getConnection()) {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            try {
+                StringBuilder chunk = new StringBuilder(COPY_CHUNK_SIZE + 1024);
+                while (products.hasNext()) {
+                    Product product = products.next();
+                    chunk.append(CsvReader.escape(product.getName())).append(',')
+                            .append(CsvReader.escape(product.getDescription())).append(',')
+                            .append(BigDecimal.valueOf(product.getPrice()).toPlainString()).append(',')
+                            .append(product.getQuantity()).append(',')
+                            .append(product.getSeller_id()).append('\n');
+                    if (chunk.length() >= COPY_CHUNK_SIZE) {
+                        writeChunk(copyIn, chunk);
+                    }
+                }
+                writeChunk(copyIn, chunk);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error copying products: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the highest product ID assigned so far, read from the primary key index.
+     *
+     * @return The highest product ID, or 0 if there are no products
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public int getMaxProductId() throws SQLException {
+        String sql = "SELECT COALESCE(MAX(product_id), 0) FROM products";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        } catch (SQLException e) {
+            throw new SQLException("Error retrieving highest product ID: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends buffered CSV text to a COPY stream and empties the buffer.
+     *
+     * @param copyIn The open COPY stream
+     * @param chunk CSV text to send
+     * @throws SQLException if the server rejects the data
+     */
+    private static void writeChunk(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        if (chunk.length() > 0) {
+            byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            chunk.setLength(0);
+        }
+    }
+
     /**
      * Retrieves a product from the database by its ID.
      *
@@ -68,21 +210,16 @@ public class ProductDAO {
      * @return The Product object if found, null otherwise
      * @throws SQLException if a database error occurs
      */
+    @Override
     public Product getProductById(int productId) throws SQLException {
-        String sql = "SELECT * FROM products WHERE product_id = ?";
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products WHERE product_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, productId);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Product(
-                            rs.getInt("product_id"),
-                            rs.getString("name"),
-                            rs.getString("description"),
-                            rs.getDouble("price"),
-                            rs.getInt("quantity"),
-                            rs.getInt("seller_id")
-                    );
+                    return mapProduct(rs);
                 }
             } catch (SQLException e) {
                 throw new SQLException("Error reading product data: " + e.getMessage());
@@ -94,26 +231,23 @@ public class ProductDAO {
     }
 
     /**
-     * Retrieves all products from the database.
+     * Retrieves all products from the database in the given order. The ordering is part
+     * of the query, so rows arrive sorted, via the index on the sort column.
      *
+     * @param sort The ordering
      * @return List of all products in the database
      * @throws SQLException if a database error occurs
      */
-    public List<Product> getAllProducts() throws SQLException {
+    @Override
+    public List<Product> getAllProducts(ProductSort sort) throws SQLException {
         List<Product> products = new ArrayList<>();
-        String sql = "SELECT * FROM products";
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products " + sort.toOrderBy();
 
-        try (Statement stmt = connection.createStatement()) {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
             try (ResultSet rs = stmt.executeQuery(sql)) {
                 while (rs.next()) {
-                    products.add(new Product(
-                            rs.getInt("product_id"),
-                            rs.getString("name"),
-                            rs.getString("description"),
-                            rs.getDouble("price"),
-                            rs.getInt("quantity"),
-                            rs.getInt("seller_id")
-                    ));
+                    products.add(mapProduct(rs));
                 }
             } catch (SQLException e) {
                 throw new SQLException("Error reading products data: " + e.getMessage());
@@ -125,28 +259,72 @@ public class ProductDAO {
     }
 
     /**
-     * Retrieves all products from a specific seller.
+     * Streams every product through a server-side cursor.
+     * Autocommit is turned off and a fetch size is set so the PostgreSQL driver
+     * pulls {@value #STREAM_FETCH_SIZE} rows per round trip instead of buffering
+     * the whole result, keeping heap use flat regardless of table size.
+     * Closing the stream closes the result set and statement and returns the
+     * connection to the pool.
+     *
+     * @return A lazily populated stream of all products; must be closed by the caller
+     * @throws SQLException if a database error occurs while opening the cursor
+     */
+    @Override
+    public Stream<Product> streamAllProducts() throws SQLException {
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products";
+        Connection connection = dataSource.getConnection();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            connection.setAutoCommit(false);
+            stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            closeCursor(connection, stmt, rs);
+            throw new SQLException("Error opening products stream: " + e.getMessage());
+        }
+
+        ResultSet cursor = rs;
+        PreparedStatement cursorStmt = stmt;
+        Spliterator<Product> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Product> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(mapProduct(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException("Error reading products stream: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> closeCursor(connection, cursorStmt, cursor));
+    }
+
+    /**
+     * Retrieves all products from a specific seller in the given order, sorted by the query.
      *
      * @param sellerId The unique identifier of the seller
+     * @param sort The ordering
      * @return List of products belonging to the specified seller
      * @throws SQLException if a database error occurs
      */
-    public List<Product> getProductsBySeller(int sellerId) throws SQLException {
+    @Override
+    public List<Product> getProductsBySeller(int sellerId, ProductSort sort) throws SQLException {
         List<Product> products = new ArrayList<>();
-        String sql = "SELECT * FROM products WHERE seller_id = ?";
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products WHERE seller_id = ? " + sort.toOrderBy();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, sellerId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    products.add(new Product(
-                            rs.getInt("product_id"),
-                            rs.getString("name"),
-                            rs.getString("description"),
-                            rs.getDouble("price"),
-                            rs.getInt("quantity"),
-                            rs.getInt("seller_id")
-                    ));
+                    products.add(mapProduct(rs));
                 }
             } catch (SQLException e) {
                 throw new SQLException("Error reading seller's products: " + e.getMessage());
@@ -158,32 +336,270 @@ public class ProductDAO {
     }
 
     /**
-     * Searches for products based on a keyword in their name or description.
-     * The search is case-insensitive and matches partial words.
+     * Retrieves one page of products using keyset pagination on the primary key.
+     * The ordering and the range both come from the primary-key index, so the
+     * cost of a page does not depend on how deep into the catalog it is.
+     *
+     * @param afterProductId Only products with a greater ID are returned (0 for the first page)
+     * @param limit Maximum number of products on the page
+     * @return The page of products
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public Page<Product> getProductsPage(int afterProductId, int limit) throws SQLException {
+        List<Product> products = new ArrayList<>(limit + 1);
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products WHERE product_id > ? ORDER BY product_id LIMIT ?";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, afterProductId);
+            stmt.setInt(2, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapProduct(rs));
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Error reading products page: " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error retrieving products page: " + e.getMessage());
+        }
+        return Page.fromLookahead(products, limit, afterProductId, Product::getProduct_id);
+    }
+
+    /**
+     * Retrieves one page of product summaries using keyset pagination on the primary key.
+     * Leaving out the description keeps rows small on the busiest list screens.
+     *
+     * @param afterProductId Only products with a greater ID are returned (0 for the first page)
+     * @param limit Maximum number of products on the page
+     * @return The page of product summaries
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public Page<ProductSummary> getProductSummariesPage(int afterProductId, int limit) throws SQLException {
+        List<ProductSummary> products = new ArrayList<>(limit + 1);
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM products WHERE product_id > ? ORDER BY product_id LIMIT ?";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, afterProductId);
+            stmt.setInt(2, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapSummary(rs));
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Error reading product summaries: " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error retrieving product summaries: " + e.getMessage());
+        }
+        return Page.fromLookahead(products, limit, afterProductId, ProductSummary::getProduct_id);
+    }
+
+    /**
+     * Retrieves one page of a seller's product summaries using keyset pagination,
+     * served by the (seller_id, product_id) index.
+     *
+     * @param sellerId The unique identifier of the seller
+     * @param afterProductId Only products with a greater ID are returned (0 for the first page)
+     * @param limit Maximum number of products on the page
+     * @return The page of product summaries
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public Page<ProductSummary> getProductSummariesBySellerPage(int sellerId, int afterProductId, int limit)
+            throws SQLException {
+        List<ProductSummary> products = new ArrayList<>(limit + 1);
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM products WHERE seller_id = ? AND product_id > ? "
+                + "ORDER BY product_id LIMIT ?";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, sellerId);
+            stmt.setInt(2, afterProductId);
+            stmt.setInt(3, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapSummary(rs));
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Error reading seller's product summaries: " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error retrieving seller's product summaries: " + e.getMessage());
+        }
+        return Page.fromLookahead(products, limit, afterProductId, ProductSummary::getProduct_id);
+    }
+
+    /**
+     * Retrieves one page of a filtered, sorted product listing with a single parameterized
+     * statement. Filters become range predicates, the ordering becomes an ORDER BY on
+     * {@code (column, product_id)} and the cursor a row comparison on the same pair, so
+     * the composite and partial indexes serve each page with a range scan and no sort.
+     * The in-stock filter is written as the literal {@code quantity > 0} so the planner
+     * can match it to the partial indexes.
+     *
+     * @param query The filters, ordering, page size and cursor
+     * @return The page of product summaries
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public Page<ProductSummary> findProducts(ProductQuery query) throws SQLException {
+        List<ProductSummary> products = new ArrayList<>(query.getPageSize() + 1);
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT " + SUMMARY_COLUMNS + " FROM products WHERE TRUE");
+        if (query.getSellerId() != null) {
+            sql.append(" AND seller_id = ?");
+            params.add(query.getSellerId());
+        }
+        if (query.getMinPrice() != null) {
+            sql.append(" AND price >= ?");
+            params.add(BigDecimal.valueOf(query.getMinPrice()));
+        }
+        if (query.getMaxPrice() != null) {
+            sql.append(" AND price <= ?");
+            params.add(BigDecimal.valueOf(query.getMaxPrice()));
+        }
+        if (query.isInStockOnly()) {
+            sql.append(" AND quantity > 0");
+        }
+
+        ProductSortKey sortKey = query.getSortKey();
+        String comparison = query.isDescending() ? " < " : " > ";
+        if (query.getAfter() != null) {
+            int afterId = query.getAfter().getProduct_id();
+            if (sortKey == ProductSortKey.ID) {
+                sql.append(" AND product_id").append(comparison).append("?");
+            } else if (sortKey == ProductSortKey.CREATED_AT) {
+                // The cursor carries its own timestamp, so a deleted cursor row does not end the listing
+                if (query.getAfter().getCreated_at() == null) {
+                    throw new IllegalArgumentException("Cursor for a creation time sort must carry its creation time");
+                }
+                sql.append(" AND (created_at, product_id)").append(comparison).append("(?, ?)");
+                params.add(Timestamp.valueOf(query.getAfter().getCreated_at()));
+            } else {
+                sql.append(" AND (").append(sortKey.getColumn()).append(", product_id)").append(comparison).append("(?, ?)");
+                params.add(sortKey.keyOf(query.getAfter()));
+            }
+            params.add(afterId);
+        }
+        sql.append(" ").append(query.getSort().toOrderBy()).append(" LIMIT ?");
+        params.add(query.getPageSize() + 1);
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapSummary(rs));
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Error reading product query results: " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error running product query: " + e.getMessage());
+        }
+        int after = query.getAfter() == null ? 0 : query.getAfter().getProduct_id();
+        return Page.fromLookahead(products, query.getPageSize(), after, ProductSummary::getProduct_id);
+    }
+
+    /**
+     * Retrieves one page of products joined with their sellers in a single statement,
+     * using keyset pagination on the product primary key. The LEFT JOIN keeps a product
+     * whose seller row is missing; its seller details are then null.
      *
-     * @param keyword The search term to look for in product names and descriptions
-     * @return List of products matching the search criteria
+     * @param afterProductId Only products with a greater ID are returned (0 for the first page)
+     * @param limit Maximum number of products on the page
+     * @return The page of products with seller details
      * @throws SQLException if a database error occurs
      */
+    @Override
+    public Page<ProductWithSeller> getProductsWithSellersPage(int afterProductId, int limit) throws SQLException {
+        List<ProductWithSeller> rows = new ArrayList<>(limit + 1);
+        String sql = "SELECT p.product_id, p.name, p.price, p.quantity, p.seller_id, p.created_at, "
+                + "u.username AS seller_username, u.email AS seller_email "
+                + "FROM products p LEFT JOIN users u ON u.user_id = p.seller_id "
+                + "WHERE p.product_id > ? ORDER BY p.product_id LIMIT ?";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, afterProductId);
+            stmt.setInt(2, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new ProductWithSeller(mapSummary(rs),
+                            rs.getString("seller_username"), rs.getString("seller_email")));
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Error reading products with sellers: " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error retrieving products with sellers: " + e.getMessage());
+        }
+        return Page.fromLookahead(rows, limit, afterProductId, row -> row.getProduct().getProduct_id());
+    }
+
+    /**
+     * Retrieves one page of a seller's products using keyset pagination,
+     * served by the (seller_id, product_id) index.
+     *
+     * @param sellerId The unique identifier of the seller
+     * @param afterProductId Only products with a greater ID are returned (0 for the first page)
+     * @param limit Maximum number of products on the page
+     * @return The page of products
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public Page<Product> getProductsBySellerPage(int sellerId, int afterProductId, int limit) throws SQLException {
+        List<Product> products = new ArrayList<>(limit + 1);
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products WHERE seller_id = ? AND product_id > ? ORDER BY product_id LIMIT ?";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, sellerId);
+            stmt.setInt(2, afterProductId);
+            stmt.setInt(3, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapProduct(rs));
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Error reading seller's products page: " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error retrieving seller's products page: " + e.getMessage());
+        }
+        return Page.fromLookahead(products, limit, afterProductId, Product::getProduct_id);
+    }
+
+    /**
+     * Searches for products using PostgreSQL full-text search.
+     * The keyword is parsed with {@code websearch_to_tsquery}, so quoted phrases,
+     * {@code or} and {@code -exclusions} work as on a web search engine, and matches
+     * come from the GIN index on {@code search_vector} rather than a table scan.
+     * Results are ordered by relevance, with name matches ranked above description matches.
+     *
+     * @param keyword The search terms to look for in product names and descriptions
+     * @return List of matching products, most relevant first
+     * @throws SQLException if a database error occurs
+     */
+    @Override
     public List<Product> searchProducts(String keyword) throws SQLException {
         List<Product> products = new ArrayList<>();
-        String sql = "SELECT * FROM products WHERE name ILIKE ? OR description ILIKE ?";
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products, websearch_to_tsquery('english', ?) AS query "
+                + "WHERE search_vector @@ query ORDER BY ts_rank(search_vector, query) DESC, product_id";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            String searchPattern = "%" + keyword + "%";
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, keyword);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    products.add(new Product(
-                            rs.getInt("product_id"),
-                            rs.getString("name"),
-                            rs.getString("description"),
-                            rs.getDouble("price"),
-                            rs.getInt("quantity"),
-                            rs.getInt("seller_id")
-                    ));
+                    products.add(mapProduct(rs));
                 }
             } catch (SQLException e) {
                 throw new SQLException("Error reading search results: " + e.getMessage());
@@ -195,24 +611,84 @@ public class ProductDAO {
     }
 
     /**
-     * Updates an existing product's information in the database.
+     * Retrieves one page of full-text search results, most relevant first.
+     * Ranked results have no stable key to seek on, so pages are addressed by offset;
+     * the cursor of the returned page is the offset of the next one.
      *
-     * @param product The product object containing updated information
-     * @return true if the product was successfully updated, false if no product was found
+     * @param keyword The search terms to look for in product names and descriptions
+     * @param offset Number of results to skip (0 for the first page)
+     * @param limit Maximum number of products on the page
+     * @return The page of matching products
      * @throws SQLException if a database error occurs
      */
-    public boolean updateProduct(Product product) throws SQLException {
-        String sql = "UPDATE products SET name = ?, description = ?, price = ?, quantity = ? WHERE product_id = ?";
+    @Override
+    public Page<Product> searchProductsPage(String keyword, int offset, int limit) throws SQLException {
+        List<Product> products = new ArrayList<>(limit + 1);
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products, websearch_to_tsquery('english', ?) AS query "
+                + "WHERE search_vector @@ query ORDER BY ts_rank(search_vector, query) DESC, product_id "
+                + "LIMIT ? OFFSET ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, product.getName());
-            stmt.setString(2, product.getDescription());
-            stmt.setDouble(3, product.getPrice());
-            stmt.setInt(4, product.getQuantity());
-            stmt.setInt(5, product.getProduct_id());
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, keyword);
+            stmt.setInt(2, limit + 1);
+            stmt.setInt(3, offset);
 
-            try {
-                return stmt.executeUpdate() > 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapProduct(rs));
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Error reading search results page: " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error searching products: " + e.getMessage());
+        }
+        return Page.fromOffset(products, limit, offset);
+    }
+
+    /**
+     * Updates an existing product's information with optimistic concurrency control,
+     * in one statement. The UPDATE only matches the row if it belongs to the seller and is
+     * at the version the product was read at, and bumps the version; no row lock is held
+     * between the seller reading and saving the product. A CTE reads the row's owner from
+     * the same snapshot, so a failed update is classified without an extra query.
+     *
+     * @param product The product object containing updated information and the version it was read at
+     * @param sellerId ID of the seller making the change
+     * @return SUCCESS, NOT_FOUND, NOT_OWNER, or CONFLICT if the stored version has moved on
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public ProductWriteResult updateProduct(Product product, int sellerId) throws SQLException {
+        String sql = "WITH target AS (SELECT seller_id FROM products WHERE product_id = ?), "
+                + "updated AS ("
+                + "    UPDATE products SET name = ?, description = ?, price = ?, quantity = ?, "
+                + "    version = version + 1, updated_at = CURRENT_TIMESTAMP "
+                + "    WHERE product_id = ? AND seller_id = ? AND version = ? RETURNING version"
+                + ") "
+                + "SELECT (SELECT version FROM updated) AS new_version, "
+                + "(SELECT seller_id FROM target) AS owner_id";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, product.getProduct_id());
+            stmt.setString(2, product.getName());
+            stmt.setString(3, product.getDescription());
+            stmt.setDouble(4, product.getPrice());
+            stmt.setInt(5, product.getQuantity());
+            stmt.setInt(6, product.getProduct_id());
+            stmt.setInt(7, sellerId);
+            stmt.setInt(8, product.getVersion());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                int newVersion = rs.getInt("new_version");
+                if (!rs.wasNull()) {
+                    product.setVersion(newVersion);
+                    return ProductWriteResult.SUCCESS;
+                }
+                return failedWrite(rs, sellerId, ProductWriteResult.CONFLICT);
             } catch (SQLException e) {
                 throw new SQLException("Error updating product data: " + e.getMessage());
             }
@@ -221,6 +697,114 @@ public class ProductDAO {
         }
     }
 
+    /**
+     * Changes a product's stock with one conditional UPDATE. The new quantity is computed
+     * from the current row inside the statement, so concurrent adjustments never overwrite
+     * each other, and the predicate keeps the stock from going negative.
+     *
+     * @param productId The unique identifier of the product
+     * @param delta Units to add (positive) or remove (negative)
+     * @return The new quantity, or empty if the product does not exist or has too little stock
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public OptionalInt adjustQuantity(int productId, int delta) throws SQLException {
+        String sql = "UPDATE products SET quantity = quantity + ?, version = version + 1, updated_at = CURRENT_TIMESTAMP "
+                + "WHERE product_id = ? AND quantity + ? >= 0 RETURNING quantity";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, delta);
+            stmt.setInt(2, productId);
+            stmt.setInt(3, delta);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? OptionalInt.of(rs.getInt("quantity")) : OptionalInt.empty();
+            } catch (SQLException e) {
+                throw new SQLException("Error updating product quantity: " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error adjusting product quantity: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Changes the stock of a seller's product with one conditional UPDATE that also checks
+     * ownership. Like {@link #updateProduct(Product, int)}, a CTE reads the owner so a
+     * refused change is classified in the same statement.
+     *
+     * @param productId The unique identifier of the product
+     * @param sellerId ID of the seller making the change
+     * @param delta Units to add (positive) or remove (negative)
+     * @return SUCCESS, NOT_FOUND, NOT_OWNER, or INSUFFICIENT_STOCK if the stock would go below zero
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public ProductWriteResult adjustQuantity(int productId, int sellerId, int delta) throws SQLException {
+        String sql = "WITH target AS (SELECT seller_id FROM products WHERE product_id = ?), "
+                + "updated AS ("
+                + "    UPDATE products SET quantity = quantity + ?, version = version + 1, updated_at = CURRENT_TIMESTAMP "
+                + "    WHERE product_id = ? AND seller_id = ? AND quantity + ? >= 0 RETURNING quantity"
+                + ") "
+                + "SELECT EXISTS (SELECT 1 FROM updated) AS applied, (SELECT seller_id FROM target) AS owner_id";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, productId);
+            stmt.setInt(2, delta);
+            stmt.setInt(3, productId);
+            stmt.setInt(4, sellerId);
+            stmt.setInt(5, delta);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getBoolean("applied")
+                        ? ProductWriteResult.SUCCESS
+                        : failedWrite(rs, sellerId, ProductWriteResult.INSUFFICIENT_STOCK);
+            } catch (SQLException e) {
+                throw new SQLException("Error updating product quantity: " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error adjusting product quantity: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Changes the stock of several products with a single conditional UPDATE over the
+     * unnested ID and delta arrays, so the whole batch costs one round trip. Each row is
+     * checked on its own; rows that would go negative are left unchanged.
+     *
+     * @param deltas Units to add (positive) or remove (negative) per product ID
+     * @return The new quantity per product ID for the changes that were applied
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public Map<Integer, Integer> adjustQuantities(Map<Integer, Integer> deltas) throws SQLException {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        if (deltas.isEmpty()) {
+            return quantities;
+        }
+        String sql = "UPDATE products p SET quantity = p.quantity + d.delta, version = p.version + 1, "
+                + "updated_at = CURRENT_TIMESTAMP "
+                + "FROM unnest(?::int[], ?::int[]) AS d(product_id, delta) "
+                + "WHERE p.product_id = d.product_id AND p.quantity + d.delta >= 0 "
+                + "RETURNING p.product_id, p.quantity";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setArray(1, connection.createArrayOf("integer", deltas.keySet().toArray()));
+            stmt.setArray(2, connection.createArrayOf("integer", deltas.values().toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    quantities.put(rs.getInt("product_id"), rs.getInt("quantity"));
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Error updating product quantities: " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error adjusting product quantities: " + e.getMessage());
+        }
+        return quantities;
+    }
+
     /**
      * Deletes a product from the database.
      *
@@ -228,10 +812,12 @@ public class ProductDAO {
      * @return true if the product was successfully deleted, false if no product was found
      * @throws SQLException if a database error occurs
      */
+    @Override
     public boolean deleteProduct(int productId) throws SQLException {
         String sql = "DELETE FROM products WHERE product_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, productId);
             try {
                 return stmt.executeUpdate() > 0;
@@ -242,4 +828,386 @@ public class ProductDAO {
             throw new SQLException("Error preparing delete statement: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Deletes a seller's product in one statement; a CTE reads the owner so a refused
+     * delete is classified without an extra query.
+     *
+     * @param productId The unique identifier of the product to delete
+     * @param sellerId ID of the seller making the change
+     * @return SUCCESS, NOT_FOUND, or NOT_OWNER
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public ProductWriteResult deleteProduct(int productId, int sellerId) throws SQLException {
+        String sql = "WITH target AS (SELECT seller_id FROM products WHERE product_id = ?), "
+                + "deleted AS (DELETE FROM products WHERE product_id = ? AND seller_id = ? RETURNING product_id) "
+                + "SELECT EXISTS (SELECT 1 FROM deleted) AS applied, (SELECT seller_id FROM target) AS owner_id";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, productId);
+            stmt.setInt(2, productId);
+            stmt.setInt(3, sellerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getBoolean("applied")
+                        ? ProductWriteResult.SUCCESS
+                        : failedWrite(rs, sellerId, ProductWriteResult.NOT_OWNER);
+            } catch (SQLException e) {
+                throw new SQLException("Error deleting product: " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error preparing delete statement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Updates many products in one transaction with JDBC batches of {@link #batchSize}
+     * statements, so the number of round trips grows with the number of batches rather
+     * than the number of products. Each update checks ownership and version like
+     * {@link #updateProduct(Product, int)}; the products it did not apply are then
+     * classified with one extra query.
+     *
+     * @param products Products with their changed fields and the version they were read at
+     * @param sellerId ID of the seller making the change
+     * @return One result per product ID, in input order
+     * @throws SQLException if a database error occurs; the transaction is rolled back
+     */
+    @Override
+    public Map<Integer, ProductWriteResult> updateProducts(List<Product> products, int sellerId) throws SQLException {
+        String sql = "UPDATE products SET name = ?, description = ?, price = ?, quantity = ?, "
+                + "version = version + 1, updated_at = CURRENT_TIMESTAMP "
+                + "WHERE product_id = ? AND seller_id = ? AND version = ?";
+        Map<Integer, ProductWriteResult> results = new LinkedHashMap<>();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                List<Integer> skipped = new ArrayList<>();
+                for (int start = 0; start < products.size(); start += batchSize) {
+                    List<Product> batch = products.subList(start, Math.min(products.size(), start + batchSize));
+                    for (Product product : batch) {
+                        stmt.setString(1, product.getName());
+                        stmt.setString(2, product.getDescription());
+                        stmt.setDouble(3, product.getPrice());
+                        stmt.setInt(4, product.getQuantity());
+                        stmt.setInt(5, product.getProduct_id());
+                        stmt.setInt(6, sellerId);
+                        stmt.setInt(7, product.getVersion());
+                        stmt.addBatch();
+                    }
+                    int[] counts = stmt.executeBatch();
+                    for (int i = 0; i < batch.size(); i++) {
+                        int productId = batch.get(i).getProduct_id();
+                        // The placeholder keeps the input order for results filled in later
+                        results.put(productId, counts[i] == 0 ? null : ProductWriteResult.SUCCESS);
+                        if (counts[i] == 0) {
+                            skipped.add(productId);
+                        }
+                    }
+                }
+                classifySkipped(connection, skipped, sellerId, ProductWriteResult.CONFLICT, results);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error updating products: " + e.getMessage());
+        }
+
+        for (Product product : products) {
+            if (results.get(product.getProduct_id()) == ProductWriteResult.SUCCESS) {
+                product.setVersion(product.getVersion() + 1);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Deletes many products in one transaction with JDBC batches of {@link #batchSize}
+     * statements. Each delete checks ownership like {@link #deleteProduct(int, int)};
+     * the products it did not delete are then classified with one extra query.
+     *
+     * @param productIds The products to delete
+     * @param sellerId ID of the seller making the change
+     * @return One result per distinct product ID, in input order
+     * @throws SQLException if a database error occurs; the transaction is rolled back
+     */
+    @Override
+    public Map<Integer, ProductWriteResult> deleteProducts(Collection<Integer> productIds, int sellerId)
+            throws SQLException {
+        String sql = "DELETE FROM products WHERE product_id = ? AND seller_id = ?";
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        Map<Integer, ProductWriteResult> results = new LinkedHashMap<>();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                List<Integer> skipped = new ArrayList<>();
+                for (int start = 0; start < ids.size(); start += batchSize) {
+                    List<Integer> batch = ids.subList(start, Math.min(ids.size(), start + batchSize));
+                    for (int productId : batch) {
+                        stmt.setInt(1, productId);
+                        stmt.setInt(2, sellerId);
+                        stmt.addBatch();
+                    }
+                    int[] counts = stmt.executeBatch();
+                    for (int i = 0; i < batch.size(); i++) {
+                        int productId = batch.get(i);
+                        results.put(productId, counts[i] == 0 ? null : ProductWriteResult.SUCCESS);
+                        if (counts[i] == 0) {
+                            skipped.add(productId);
+                        }
+                    }
+                }
+                classifySkipped(connection, skipped, sellerId, ProductWriteResult.NOT_OWNER, results);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error deleting products: " + e.getMessage());
+        }
+        return results;
+    }
+
+    /**
+     * Works out why bulk writes were skipped by reading the current owner of every
+     * skipped product in one query: a missing row is NOT_FOUND, another seller's row
+     * is NOT_OWNER, and the seller's own row gets the given fallback result.
+     *
+     * @param connection Connection of the bulk write's transaction
+     * @param skipped IDs of the products the write did not apply to
+     * @param sellerId ID of the seller making the change
+     * @param otherwise Result for skipped products the seller does own
+     * @param results Receives the result for each skipped product
+     * @throws SQLException if a database error occurs
+     */
+    private static void classifySkipped(Connection connection, List<Integer> skipped, int sellerId,
+                                        ProductWriteResult otherwise, Map<Integer, ProductWriteResult> results)
+            throws SQLException {
+        if (skipped.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> owners = new HashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT product_id, seller_id FROM products WHERE product_id = ANY(?)")) {
+            stmt.setArray(1, connection.createArrayOf("integer", skipped.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    owners.put(rs.getInt("product_id"), rs.getInt("seller_id"));
+                }
+            }
+        }
+        for (int productId : skipped) {
+            Integer ownerId = owners.get(productId);
+            if (ownerId == null) {
+                results.put(productId, ProductWriteResult.NOT_FOUND);
+            } else {
+                results.put(productId, ownerId == sellerId ? otherwise : ProductWriteResult.NOT_OWNER);
+            }
+        }
+    }
+
+    /**
+     * Reprices a seller's matching products in one statement. The matching rows are
+     * locked and their new prices computed in a CTE; the UPDATE joins it and returns
+     * one row per changed product with its old and new price, alongside the match
+     * counts. Java reads every one of those rows to sum the totals and fill the
+     * result's product-to-new-price map, so a pass that changes 100k products
+     * transfers and holds 100k small rows; that map is what lets the caller update
+     * its indexes in place. A dry run runs the same CTE without the lock and
+     * aggregates it in SQL, returning a single row.
+     *
+     * @param sellerId ID of the seller whose products are repriced
+     * @param filter Which of the seller's products to reprice
+     * @param adjustment The price change
+     * @param dryRun If true, only the aggregate outcome is computed
+     * @return Counts and price totals of the (previewed) change
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public RepriceResult repriceProducts(int sellerId, RepriceFilter filter, PriceAdjustment adjustment,
+                                         boolean dryRun) throws SQLException {
+        StringBuilder candidates = new StringBuilder(
+                "SELECT product_id, price AS old_price, ROUND(price * ? + ?, 2) AS new_price "
+                        + "FROM products WHERE seller_id = ?");
+        if (filter.getNameContains() != null) {
+            candidates.append(" AND strpos(lower(name), lower(?)) > 0");
+        }
+        if (filter.getMinPrice() != null) {
+            candidates.append(" AND price >= ?");
+        }
+        if (filter.getMaxPrice() != null) {
+            candidates.append(" AND price <= ?");
+        }
+        if (!dryRun) {
+            candidates.append(" FOR UPDATE");
+        }
+        String matched = "WITH matched AS (SELECT product_id, old_price, new_price, "
+                + "new_price > 0 AND new_price <= " + PriceAdjustment.MAX_PRICE.toPlainString() + " AS in_range "
+                + "FROM (" + candidates + ") candidates) ";
+        String sql = dryRun
+                ? matched + "SELECT COUNT(*) AS matched, "
+                        + "COUNT(*) FILTER (WHERE NOT in_range) AS out_of_range, "
+                        + "COUNT(*) FILTER (WHERE in_range AND new_price <> old_price) AS changed, "
+                        + "COALESCE(SUM(old_price) FILTER (WHERE in_range AND new_price <> old_price), 0) AS total_before, "
+                        + "COALESCE(SUM(new_price) FILTER (WHERE in_range AND new_price <> old_price), 0) AS total_after "
+                        + "FROM matched"
+                : matched + ", updated AS ("
+                        + "UPDATE products p SET price = m.new_price, version = p.version + 1, "
+                        + "updated_at = CURRENT_TIMESTAMP FROM matched m "
+                        + "WHERE p.product_id = m.product_id AND m.in_range AND m.new_price <> m.old_price "
+                        + "RETURNING p.product_id, m.old_price, m.new_price) "
+                        // One row per changed product, or a single row of counts when none changed
+                        + "SELECT c.matched, c.out_of_range, u.product_id, u.old_price, u.new_price "
+                        + "FROM (SELECT COUNT(*) AS matched, COUNT(*) FILTER (WHERE NOT in_range) AS out_of_range "
+                        + "FROM matched) c LEFT JOIN updated u ON TRUE";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            stmt.setBigDecimal(index++, adjustment.getFactor());
+            stmt.setBigDecimal(index++, adjustment.getAmount());
+            stmt.setInt(index++, sellerId);
+            if (filter.getNameContains() != null) {
+                stmt.setString(index++, filter.getNameContains());
+            }
+            if (filter.getMinPrice() != null) {
+                stmt.setBigDecimal(index++, BigDecimal.valueOf(filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                stmt.setBigDecimal(index, BigDecimal.valueOf(filter.getMaxPrice()));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (dryRun) {
+                    rs.next();
+                    return new RepriceResult(true, rs.getLong("matched"), rs.getLong("changed"),
+                            rs.getLong("out_of_range"), rs.getBigDecimal("total_before"),
+                            rs.getBigDecimal("total_after"), Map.of());
+                }
+                long matchedCount = 0;
+                long outOfRange = 0;
+                BigDecimal totalBefore = BigDecimal.ZERO;
+                BigDecimal totalAfter = BigDecimal.ZERO;
+                Map<Integer, Double> newPrices = new HashMap<>();
+                while (rs.next()) {
+                    matchedCount = rs.getLong("matched");
+                    outOfRange = rs.getLong("out_of_range");
+                    int productId = rs.getInt("product_id");
+                    if (!rs.wasNull()) {
+                        BigDecimal newPrice = rs.getBigDecimal("new_price");
+                        totalBefore = totalBefore.add(rs.getBigDecimal("old_price"));
+                        totalAfter = totalAfter.add(newPrice);
+                        newPrices.put(productId, newPrice.doubleValue());
+                    }
+                }
+                return new RepriceResult(false, matchedCount, newPrices.size(), outOfRange,
+                        totalBefore, totalAfter, newPrices);
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error repricing products: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Classifies a seller write that matched no row, from the {@code owner_id} column
+     * read by the statement's {@code target} CTE.
+     *
+     * @param rs Result set positioned on the statement's single row
+     * @param sellerId ID of the seller who attempted the write
+     * @param otherwise Outcome when the product exists and belongs to the seller
+     * @return NOT_FOUND, NOT_OWNER, or {@code otherwise}
+     * @throws SQLException if the column cannot be read
+     */
+    private static ProductWriteResult failedWrite(ResultSet rs, int sellerId, ProductWriteResult otherwise)
+            throws SQLException {
+        int ownerId = rs.getInt("owner_id");
+        if (rs.wasNull()) {
+            return ProductWriteResult.NOT_FOUND;
+        }
+        return ownerId == sellerId ? otherwise : ProductWriteResult.NOT_OWNER;
+    }
+
+    /**
+     * Maps the current row of a result set to a Product.
+     *
+     * @param rs Result set positioned on a product row
+     * @return The mapped product
+     * @throws SQLException if a column cannot be read
+     */
+    static Product mapProduct(ResultSet rs) throws SQLException {
+        Product product = new Product(
+                rs.getInt("product_id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getDouble("price"),
+                rs.getInt("quantity"),
+                rs.getInt("seller_id")
+        );
+        product.setVersion(rs.getInt("version"));
+        return product;
+    }
+
+    /**
+     * Maps the current row of a {@link #SUMMARY_COLUMNS} query to a product summary.
+     *
+     * @param rs The result set positioned on a row
+     * @return The product summary
+     * @throws SQLException if a column cannot be read
+     */
+    static ProductSummary mapSummary(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new ProductSummary(
+                rs.getInt("product_id"),
+                rs.getString("name"),
+                rs.getDouble("price"),
+                rs.getInt("quantity"),
+                rs.getInt("seller_id"),
+                createdAt == null ? null : createdAt.toLocalDateTime()
+        );
+    }
+
+    /**
+     * Releases a server-side cursor: closes the result set and statement, ends the
+     * read-only transaction and hands the connection back to the pool in autocommit mode.
+     *
+     * @param connection Connection the cursor was opened on
+     * @param stmt Statement to close, may be null
+     * @param rs Result set to close, may be null
+     * @throws RuntimeException if any resource fails to close
+     */
+    private static void closeCursor(Connection connection, Statement stmt, ResultSet rs) {
+        SQLException failure = null;
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (stmt != null) {
+                stmt.close();
+            }
+            connection.rollback();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            failure = e;
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw new RuntimeException("Error closing products stream: " + failure.getMessage(), failure);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.keyin.Products;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index over the catalog: one {@link RoaringBitmap} of product IDs per
+ * price bucket, per seller and for in-stock products. Facet counts are intersections
+ * and unions of these bitmaps, counted container by container, so a whole sidebar is
+ * computed in microseconds without touching the database.
+ *
+ * <p>Each product's seller and quantity are kept in arrays indexed by product ID, which
+ * suits the dense IDs a SERIAL key hands out, so an update knows which bitmaps to
+ * change. The index is built from a full catalog and then kept up to date one product
+ * at a time. Counts run concurrently under a read lock; updates take the write lock.</p>
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class ProductFacetIndex {
+    /** Upper bounds (exclusive) of the default price buckets; the last bucket is open-ended. */
+    public static final double[] DEFAULT_PRICE_BOUNDS = {10, 25, 50, 100, 250};
+
+    private final double[] priceBounds;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private RoaringBitmap all = new RoaringBitmap();
+    private RoaringBitmap inStock = new RoaringBitmap();
+    private RoaringBitmap[] priceBuckets;
+    private Map<Integer, RoaringBitmap> sellers = new HashMap<>();
+    private int[] sellerOf = new int[0];
+    private int[] quantityOf = new int[0];
+
+    /**
+     * Creates an empty index with the default price buckets.
+     */
+    public ProductFacetIndex() {
+        this(DEFAULT_PRICE_BOUNDS);
+    }
+
+    /**
+     * Creates an empty index.
+     *
+     * @param priceBounds Ascending upper bounds (exclusive) of all price buckets but the last
+     * @throws IllegalArgumentException if the bounds are not strictly ascending
+     */
+    public ProductFacetIndex(double... priceBounds) {
+        for (int i = 1; i < priceBounds.length; i++) {
+            if (priceBounds[i] <= priceBounds[i - 1]) {
+                throw new IllegalArgumentException("Price bounds must be strictly ascending");
+            }
+        }
+        this.priceBounds = priceBounds.clone();
+        this.priceBuckets = newBuckets();
+    }
+
+    /**
+     * Replaces the index contents with the given catalog.
+     *
+     * @param products Every product to index
+     */
+    public void build(Collection<Product> products) {
+        Rebuild rebuild = rebuild();
+        products.forEach(rebuild::add);
+        rebuild.install();
+    }
+
+    /**
+     * Starts replacing the index contents with a catalog fed in one product at a time,
+     * e.g. straight off a database cursor. Counts keep seeing the current contents until
+     * {@link Rebuild#install()}.
+     *
+     * @return A rebuild to add every product to
+     */
+    public Rebuild rebuild() {
+        return new Rebuild();
+    }
+
+    /**
+     * Adds a product, or replaces it if it is already indexed.
+     *
+     * @param product The product
+     */
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            delete(product.getProduct_id());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a product.
+     *
+     * @param productId ID of the product
+     */
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            delete(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes an indexed product's stock by a relative amount.
+     *
+     * @param productId ID of the product; ignored if it is not indexed
+     * @param delta Units added (positive) or removed (negative)
+     */
+    public void adjustQuantity(int productId, int delta) {
+        lock.writeLock().lock();
+        try {
+            if (!all.contains(productId)) {
+                return;
+            }
+            quantityOf[productId] += delta;
+            if (quantityOf[productId] > 0) {
+                inStock.add(productId);
+            } else {
+                inStock.remove(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves an indexed product to the price bucket of its new price.
+     *
+     * @param productId ID of the product; ignored if it is not indexed
+     * @param price The new price
+     */
+    public void updatePrice(int productId, double price) {
+        lock.writeLock().lock();
+        try {
+            if (!all.contains(productId)) {
+                return;
+            }
+            for (RoaringBitmap bucket : priceBuckets) {
+                if (bucket.remove(productId)) {
+                    break;
+                }
+            }
+            priceBuckets[priceBucketOf(price)].add(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every product of a seller.
+     *
+     * @param sellerId ID of the seller
+     */
+    public void removeSeller(int sellerId) {
+        lock.writeLock().lock();
+        try {
+            RoaringBitmap removed = sellers.get(sellerId);
+            if (removed != null) {
+                // Copied first, as deleting changes the seller's own bitmap
+                for (int productId : removed.toArray()) {
+                    delete(productId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of indexed products.
+     *
+     * @return The product count
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return all.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the price bucket of a price.
+     *
+     * @param price The price
+     * @return Bucket index, 0 for the cheapest
+     */
+    public int priceBucketOf(double price) {
+        int bucket = 0;
+        while (bucket < priceBounds.length && price >= priceBounds[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * Counts every facet for a selection. Each facet is counted with the other facets'
+     * selections applied but not its own.
+     *
+     * @param sellerId Selected seller, or null for all sellers
+     * @param priceBuckets Selected price buckets, any of which may match; empty for all prices
+     * @param inStockOnly true if only products with stock are selected
+     * @return The facet counts
+     * @throws IllegalArgumentException if a price bucket does not exist
+     */
+    public ProductFacets count(Integer sellerId, Set<Integer> priceBuckets, boolean inStockOnly) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap bySeller = sellerId == null ? all : sellers.getOrDefault(sellerId, new RoaringBitmap());
+            RoaringBitmap byPrice = priceBuckets.isEmpty() ? all : priceUnion(priceBuckets);
+            RoaringBitmap byStock = inStockOnly ? inStock : all;
+
+            RoaringBitmap sellerAndStock = RoaringBitmap.and(bySeller, byStock);
+            long[] bucketCounts = new long[this.priceBuckets.length];
+            for (int i = 0; i < bucketCounts.length; i++) {
+                bucketCounts[i] = RoaringBitmap.andCardinality(sellerAndStock, this.priceBuckets[i]);
+            }
+
+            RoaringBitmap priceAndStock = RoaringBitmap.and(byPrice, byStock);
+            Map<Integer, Long> sellerCounts = new HashMap<>();
+            for (Map.Entry<Integer, RoaringBitmap> seller : sellers.entrySet()) {
+                long count = RoaringBitmap.andCardinality(priceAndStock, seller.getValue());
+                if (count > 0) {
+                    sellerCounts.put(seller.getKey(), count);
+                }
+            }
+
+            RoaringBitmap sellerAndPrice = RoaringBitmap.and(bySeller, byPrice);
+            long inStockCount = RoaringBitmap.andCardinality(sellerAndPrice, inStock);
+            long matched = inStockOnly ? inStockCount : sellerAndPrice.getCardinality();
+            return new ProductFacets(matched, priceBounds, bucketCounts, sellerCounts,
+                    inStockCount, sellerAndPrice.getCardinality() - inStockCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the IDs of the products matching a selection, e.g. to intersect with
+     * search results.
+     *
+     * @param sellerId Selected seller, or null for all sellers
+     * @param priceBuckets Selected price buckets, any of which may match; empty for all prices
+     * @param inStockOnly true if only products with stock are selected
+     * @return A new bitmap of matching product IDs
+     * @throws IllegalArgumentException if a price bucket does not exist
+     */
+    public RoaringBitmap select(Integer sellerId, Set<Integer> priceBuckets, boolean inStockOnly) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap selected = sellerId == null
+                    ? new RoaringBitmap(all)
+                    : new RoaringBitmap(sellers.getOrDefault(sellerId, new RoaringBitmap()));
+            if (!priceBuckets.isEmpty()) {
+                selected = RoaringBitmap.and(selected, priceUnion(priceBuckets));
+            }
+            return inStockOnly ? RoaringBitmap.and(selected, inStock) : selected;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A replacement for the index contents, collected in a private index without
+     * holding this index's lock.
+     */
+    public final class Rebuild {
+        private final ProductFacetIndex built = new ProductFacetIndex(priceBounds);
+        private boolean installed;
+
+        private Rebuild() {
+        }
+
+        /**
+         * Adds a product to the replacement.
+         *
+         * @param product The product as it is stored
+         * @throws IllegalStateException if the rebuild was already installed
+         */
+        public void add(Product product) {
+            if (installed) {
+                throw new IllegalStateException("Rebuild already installed");
+            }
+            built.delete(product.getProduct_id());
+            built.add(product);
+        }
+
+        /**
+         * Swaps the collected bitmaps in.
+         *
+         * @throws IllegalStateException if the rebuild was already installed
+         */
+        public void install() {
+            if (installed) {
+                throw new IllegalStateException("Rebuild already installed");
+            }
+            installed = true;
+            lock.writeLock().lock();
+            try {
+                all = built.all;
+                inStock = built.inStock;
+                priceBuckets = built.priceBuckets;
+                sellers = built.sellers;
+                sellerOf = built.sellerOf;
+                quantityOf = built.quantityOf;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private RoaringBitmap priceUnion(Set<Integer> buckets) {
+        RoaringBitmap union = new RoaringBitmap();
+        for (int bucket : buckets) {
+            if (bucket < 0 || bucket >= priceBuckets.length) {
+                throw new IllegalArgumentException("Unknown price bucket: " + bucket);
+            }
+            union = RoaringBitmap.or(union, priceBuckets[bucket]);
+        }
+        return union;
+    }
+
+    private void add(Product product) {
+        int productId = product.getProduct_id();
+        if (productId >= sellerOf.length) {
+            int capacity = Math.max(productId + 1, sellerOf.length + (sellerOf.length >> 1));
+            sellerOf = Arrays.copyOf(sellerOf, capacity);
+            quantityOf = Arrays.copyOf(quantityOf, capacity);
+        }
+        sellerOf[productId] = product.getSeller_id();
+        quantityOf[productId] = product.getQuantity();
+
+        all.add(productId);
+        priceBuckets[priceBucketOf(product.getPrice())].add(productId);
+        sellers.computeIfAbsent(product.getSeller_id(), id -> new RoaringBitmap()).add(productId);
+        if (product.getQuantity() > 0) {
+            inStock.add(productId);
+        }
+    }
+
+    private void delete(int productId) {
+        if (!all.remove(productId)) {
+            return;
+        }
+        inStock.remove(productId);
+        for (RoaringBitmap bucket : priceBuckets) {
+            if (bucket.remove(productId)) {
+                break;
+            }
+        }
+        RoaringBitmap seller = sellers.get(sellerOf[productId]);
+        if (seller != null) {
+            seller.remove(productId);
+            if (seller.isEmpty()) {
+                sellers.remove(sellerOf[productId]);
+            }
+        }
+        sellerOf[productId] = 0;
+        quantityOf[productId] = 0;
+    }
+
+    private RoaringBitmap[] newBuckets() {
+        RoaringBitmap[] buckets = new RoaringBitmap[priceBounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new RoaringBitmap();
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,134 @@
+package com.keyin.Products;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Facet counts for a product selection, as shown in a filter sidebar. Each facet is
+ * counted with the other facets' selections applied but not its own, so the counts
+ * tell how many products a click on that value would show.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class ProductFacets {
+    private final long matched;
+    private final double[] priceBounds;
+    private final long[] priceBucketCounts;
+    private final Map<Integer, Long> sellerCounts;
+    private final long inStock;
+    private final long outOfStock;
+
+    /**
+     * Constructs facet counts.
+     *
+     * @param matched Number of products matching every selection
+     * @param priceBounds Upper bounds (exclusive) of all price buckets but the last
+     * @param priceBucketCounts Products per price bucket
+     * @param sellerCounts Products per seller ID, for sellers with at least one
+     * @param inStock Products with stock
+     * @param outOfStock Products without stock
+     */
+    public ProductFacets(long matched, double[] priceBounds, long[] priceBucketCounts,
+                         Map<Integer, Long> sellerCounts, long inStock, long outOfStock) {
+        this.matched = matched;
+        this.priceBounds = priceBounds.clone();
+        this.priceBucketCounts = priceBucketCounts.clone();
+        this.sellerCounts = Collections.unmodifiableMap(sellerCounts);
+        this.inStock = inStock;
+        this.outOfStock = outOfStock;
+    }
+
+    /**
+     * Gets the number of products matching every selection.
+     *
+     * @return The matched count
+     */
+    public long getMatched() {
+        return matched;
+    }
+
+    /**
+     * Gets the number of price buckets.
+     *
+     * @return The bucket count
+     */
+    public int getPriceBucketCount() {
+        return priceBucketCounts.length;
+    }
+
+    /**
+     * Gets the number of products in a price bucket.
+     *
+     * @param bucket Bucket index, 0 for the cheapest
+     * @return The product count
+     */
+    public long getPriceBucketCount(int bucket) {
+        return priceBucketCounts[bucket];
+    }
+
+    /**
+     * Gets the lowest price in a bucket.
+     *
+     * @param bucket Bucket index
+     * @return The inclusive lower bound
+     */
+    public double getPriceBucketMin(int bucket) {
+        return bucket == 0 ? 0 : priceBounds[bucket - 1];
+    }
+
+    /**
+     * Gets the price at which a bucket ends.
+     *
+     * @param bucket Bucket index
+     * @return The exclusive upper bound, or null for the last bucket
+     */
+    public Double getPriceBucketMax(int bucket) {
+        return bucket < priceBounds.length ? priceBounds[bucket] : null;
+    }
+
+    /**
+     * Describes a price bucket for display, e.g. "$10 - $25".
+     *
+     * @param bucket Bucket index
+     * @return The label
+     */
+    public String getPriceBucketLabel(int bucket) {
+        Double max = getPriceBucketMax(bucket);
+        if (bucket == 0) {
+            return String.format("Under $%.0f", max);
+        }
+        if (max == null) {
+            return String.format("$%.0f and up", getPriceBucketMin(bucket));
+        }
+        return String.format("$%.0f - $%.0f", getPriceBucketMin(bucket), max);
+    }
+
+    /**
+     * Gets the number of products per seller.
+     *
+     * @return Unmodifiable map of seller ID to product count
+     */
+    public Map<Integer, Long> getSellerCounts() {
+        return sellerCounts;
+    }
+
+    /**
+     * Gets the number of products with stock.
+     *
+     * @return The in-stock count
+     */
+    public long getInStock() {
+        return inStock;
+    }
+
+    /**
+     * Gets the number of products without stock.
+     *
+     * @return The out-of-stock count
+     */
+    public long getOutOfStock() {
+        return outOfStock;
+    }
+}
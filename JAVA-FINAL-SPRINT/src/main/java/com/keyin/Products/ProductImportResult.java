@@ -0,0 +1,42 @@
+package com.keyin.Products;
+
+/**
+ * Outcome of a bulk product import.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class ProductImportResult {
+    private final long imported;
+    private final long rejected;
+
+    /**
+     * Constructs an import result.
+     *
+     * @param imported Number of products created
+     * @param rejected Number of rows written to the reject file
+     */
+    public ProductImportResult(long imported, long rejected) {
+        this.imported = imported;
+        this.rejected = rejected;
+    }
+
+    /**
+     * Gets the number of products created.
+     *
+     * @return The imported count
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * Gets the number of rows that failed validation.
+     *
+     * @return The rejected count
+     */
+    public long getRejected() {
+        return rejected;
+    }
+}
@@ -0,0 +1,517 @@
+package com.keyin.Products;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix trie over product names for search-as-you-type suggestions.
+ *
+ * <p>Names are normalized by trimming, collapsing runs of whitespace to one space and
+ * lower-casing, so "Gaming  Laptop" and "gaming laptop" are one completion. Each distinct
+ * name is ranked by popularity: the number of products listed under it plus the units
+ * sold of it since startup. Every node caches the best {@code topK} completions below
+ * it, so a lookup walks one node per prefix character and returns the cached array; it
+ * never visits the rest of the subtree and allocates only the returned list.</p>
+ *
+ * <p>Children are held in a sorted {@code char[]} with a parallel node array and found by
+ * binary search. When a name is added, renamed, removed or sold, only the nodes on its
+ * path have their cached completions recomputed from their children's. Lookups run
+ * concurrently under a read lock; updates take the write lock.</p>
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class ProductNameTrie {
+    /** Completions cached per node, overridable with {@code -Dproduct.suggest.topK}. */
+    public static final int DEFAULT_TOP_K = Integer.getInteger("product.suggest.topK", 10);
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Completion[] NO_COMPLETIONS = new Completion[0];
+    private static final Comparator<Completion> RANKING = Comparator
+            .comparingLong(Completion::weight).reversed()
+            .thenComparing(completion -> completion.key);
+
+    private final int topK;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Integer, Listing> listings = new HashMap<>();
+    private Map<String, Completion> completions = new HashMap<>();
+    private final Map<String, Long> unitsSold = new HashMap<>();
+    private Node root = new Node();
+
+    /**
+     * Creates a trie caching the default number of completions per node.
+     */
+    public ProductNameTrie() {
+        this(DEFAULT_TOP_K);
+    }
+
+    /**
+     * Creates a trie.
+     *
+     * @param topK Completions cached per node, the most a lookup can return
+     * @throws IllegalArgumentException if topK is not positive
+     */
+    public ProductNameTrie(int topK) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("Suggestion count must be at least 1");
+        }
+        this.topK = topK;
+    }
+
+    /**
+     * Replaces the trie contents with the given catalog. Units sold are kept, so a
+     * rebuild does not reset popularity.
+     *
+     * @param products Every product to index
+     */
+    public void build(Collection<Product> products) {
+        Rebuild rebuild = rebuild();
+        products.forEach(rebuild::add);
+        rebuild.install();
+    }
+
+    /**
+     * Starts replacing the trie contents with a catalog fed in one product at a time,
+     * e.g. straight off a database cursor. Lookups keep seeing the current contents until
+     * {@link Rebuild#install()}.
+     *
+     * @return A rebuild to add every product to
+     */
+    public Rebuild rebuild() {
+        return new Rebuild();
+    }
+
+    /**
+     * Adds a product, or moves it to its new name if it is already indexed under another.
+     *
+     * @param product The product as it is now stored
+     */
+    public void put(Product product) {
+        String key = normalize(product.getName());
+        if (key.isEmpty()) {
+            remove(product.getProduct_id());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Listing previous = listings.put(product.getProduct_id(), new Listing(key, product.getSeller_id()));
+            if (previous != null && previous.key.equals(key)) {
+                completions.get(key).display = display(product.getName());
+                return;
+            }
+            if (previous != null) {
+                release(previous.key);
+            }
+            Completion completion = completions.computeIfAbsent(key, this::newCompletion);
+            completion.display = display(product.getName());
+            completion.listings++;
+            update(key, completion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a product. Its name stays suggested while other products are listed under it.
+     *
+     * @param productId ID of the product
+     */
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            Listing previous = listings.remove(productId);
+            if (previous != null) {
+                release(previous.key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every product of a seller. This scans all listed products and is meant for
+     * rare administrative changes.
+     *
+     * @param sellerId ID of the seller
+     */
+    public void removeSeller(int sellerId) {
+        lock.writeLock().lock();
+        try {
+            List<Integer> productIds = new ArrayList<>();
+            listings.forEach((productId, listing) -> {
+                if (listing.sellerId == sellerId) {
+                    productIds.add(productId);
+                }
+            });
+            for (Integer productId : productIds) {
+                release(listings.remove(productId).key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Credits units sold to the name a product is listed under.
+     *
+     * @param productId ID of the product
+     * @param units Units sold; ignored unless positive
+     */
+    public void recordSale(int productId, int units) {
+        if (units <= 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Listing listing = listings.get(productId);
+            if (listing == null) {
+                return;
+            }
+            unitsSold.merge(listing.key, (long) units, Long::sum);
+            Completion completion = completions.get(listing.key);
+            completion.sold += units;
+            update(listing.key, completion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Suggests product names starting with a prefix, most popular first. The prefix is
+     * normalized the same way names are, as it is walked.
+     *
+     * @param prefix Text typed so far
+     * @param limit Maximum number of names, at most the trie's topK
+     * @return The suggested names as last listed, empty if none match
+     */
+    public List<String> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            boolean pendingSpace = false;
+            boolean started = false;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                char c = prefix.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    pendingSpace = started;
+                    continue;
+                }
+                if (pendingSpace) {
+                    node = node.child(' ');
+                    pendingSpace = false;
+                    if (node == null) {
+                        break;
+                    }
+                }
+                node = node.child(Character.toLowerCase(c));
+                started = true;
+            }
+            if (node != null && pendingSpace) {
+                node = node.child(' ');
+            }
+            if (node == null) {
+                return List.of();
+            }
+            Completion[] top = node.top;
+            String[] names = new String[Math.min(Math.min(limit, topK), top.length)];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = top[i].display;
+            }
+            return Arrays.asList(names);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of distinct names indexed.
+     *
+     * @return The name count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return completions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normalizes a name for indexing: trimmed, whitespace collapsed to single spaces, lower-cased.
+     *
+     * @param name The product name
+     * @return The normalized name, empty for a null or blank name
+     */
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(name.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = key.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                key.append(' ');
+                pendingSpace = false;
+            }
+            key.append(Character.toLowerCase(c));
+        }
+        return key.toString();
+    }
+
+    private static String display(String name) {
+        return name.trim().replaceAll("\\s+", " ");
+    }
+
+    private Completion newCompletion(String key) {
+        Completion completion = new Completion(key);
+        completion.sold = unitsSold.getOrDefault(key, 0L);
+        return completion;
+    }
+
+    /**
+     * Takes one listing away from a name, dropping the name once none are left.
+     *
+     * @param key The normalized name
+     */
+    private void release(String key) {
+        Completion completion = completions.get(key);
+        if (--completion.listings == 0) {
+            completions.remove(key);
+            update(key, null);
+        } else {
+            update(key, completion);
+        }
+    }
+
+    /**
+     * Sets the completion ending at a name's node and recomputes the cached completions
+     * of every node on its path, deepest first. Nodes left without a completion or
+     * children are unlinked.
+     *
+     * @param key The normalized name
+     * @param completion The completion to store, or null to clear it
+     */
+    private void update(String key, Completion completion) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = completion == null ? node.child(key.charAt(i)) : node.childOrCreate(key.charAt(i));
+            if (node == null) {
+                return;
+            }
+            path[i + 1] = node;
+        }
+        node.terminal = completion;
+        for (int depth = key.length(); depth >= 0; depth--) {
+            Node current = path[depth];
+            if (depth > 0 && current.terminal == null && current.labels.length == 0) {
+                path[depth - 1].removeChild(key.charAt(depth - 1));
+            } else {
+                current.refresh(topK);
+            }
+        }
+    }
+
+    /**
+     * A replacement for the trie contents, collected one product at a time without
+     * holding the trie's lock.
+     */
+    public final class Rebuild {
+        private final Map<Integer, Listing> builtListings = new HashMap<>();
+        private final Map<String, Completion> builtCompletions = new HashMap<>();
+        private boolean installed;
+
+        private Rebuild() {
+        }
+
+        /**
+         * Adds a product to the replacement.
+         *
+         * @param product The product as it is stored
+         * @throws IllegalStateException if the rebuild was already installed
+         */
+        public void add(Product product) {
+            if (installed) {
+                throw new IllegalStateException("Rebuild already installed");
+            }
+            String key = normalize(product.getName());
+            if (key.isEmpty()) {
+                return;
+            }
+            Listing previous = builtListings.put(product.getProduct_id(), new Listing(key, product.getSeller_id()));
+            if (previous != null) {
+                builtCompletions.get(previous.key).listings--;
+            }
+            Completion completion = builtCompletions.computeIfAbsent(key, Completion::new);
+            completion.display = display(product.getName());
+            completion.listings++;
+        }
+
+        /**
+         * Links the collected names into a new trie and swaps it in, carrying over the
+         * units sold so far.
+         *
+         * @throws IllegalStateException if the rebuild was already installed
+         */
+        public void install() {
+            if (installed) {
+                throw new IllegalStateException("Rebuild already installed");
+            }
+            installed = true;
+            builtCompletions.values().removeIf(completion -> completion.listings == 0);
+            Node built = new Node();
+            for (Completion completion : builtCompletions.values()) {
+                Node node = built;
+                for (int i = 0; i < completion.key.length(); i++) {
+                    node = node.childOrCreate(completion.key.charAt(i));
+                }
+                node.terminal = completion;
+            }
+            lock.writeLock().lock();
+            try {
+                for (Completion completion : builtCompletions.values()) {
+                    completion.sold = unitsSold.getOrDefault(completion.key, 0L);
+                }
+                built.refreshAll(topK);
+                listings = builtListings;
+                completions = builtCompletions;
+                root = built;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * One trie node: its children by next character, the name ending here if any, and
+     * the best completions in its subtree.
+     */
+    private static final class Node {
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private Completion terminal;
+        private Completion[] top = NO_COMPLETIONS;
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] grownLabels = new char[labels.length + 1];
+            Node[] grownChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, grownLabels, 0, insertAt);
+            System.arraycopy(children, 0, grownChildren, 0, insertAt);
+            System.arraycopy(labels, insertAt, grownLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, grownChildren, insertAt + 1, children.length - insertAt);
+            Node child = new Node();
+            grownLabels[insertAt] = label;
+            grownChildren[insertAt] = child;
+            labels = grownLabels;
+            children = grownChildren;
+            return child;
+        }
+
+        private void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] shrunkLabels = new char[labels.length - 1];
+            Node[] shrunkChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, shrunkLabels, 0, index);
+            System.arraycopy(children, 0, shrunkChildren, 0, index);
+            System.arraycopy(labels, index + 1, shrunkLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, shrunkChildren, index, children.length - index - 1);
+            labels = shrunkLabels.length == 0 ? NO_LABELS : shrunkLabels;
+            children = shrunkChildren.length == 0 ? NO_CHILDREN : shrunkChildren;
+        }
+
+        /**
+         * Recomputes this node's cached completions from its own and its children's.
+         *
+         * @param topK Completions to keep
+         */
+        private void refresh(int topK) {
+            int candidates = terminal == null ? 0 : 1;
+            for (Node child : children) {
+                candidates += child.top.length;
+            }
+            Completion[] merged = new Completion[candidates];
+            int count = 0;
+            if (terminal != null) {
+                merged[count++] = terminal;
+            }
+            for (Node child : children) {
+                System.arraycopy(child.top, 0, merged, count, child.top.length);
+                count += child.top.length;
+            }
+            Arrays.sort(merged, RANKING);
+            top = merged.length > topK ? Arrays.copyOf(merged, topK) : merged;
+        }
+
+        /**
+         * Recomputes the cached completions of this whole subtree, children before parents.
+         *
+         * @param topK Completions to keep
+         */
+        private void refreshAll(int topK) {
+            for (Node child : children) {
+                child.refreshAll(topK);
+            }
+            refresh(topK);
+        }
+    }
+
+    /**
+     * A distinct normalized name, with how it is displayed and how popular it is.
+     */
+    private static final class Completion {
+        private final String key;
+        private String display;
+        private int listings;
+        private long sold;
+
+        private Completion(String key) {
+            this.key = key;
+            this.display = key;
+        }
+
+        private long weight() {
+            return listings + sold;
+        }
+    }
+
+    /**
+     * The name and seller a product is indexed under.
+     */
+    private static final class Listing {
+        private final String key;
+        private final int sellerId;
+
+        private Listing(String key, int sellerId) {
+            this.key = key;
+            this.sellerId = sellerId;
+        }
+    }
+}
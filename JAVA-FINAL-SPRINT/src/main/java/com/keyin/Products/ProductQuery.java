@@ -0,0 +1,272 @@
+package com.keyin.Products;
+
+/**
+ * A filtered, sorted and paged product listing, e.g. the in-stock products of one
+ * seller between $10 and $50, cheapest first. Queries are immutable and created with
+ * {@link #builder()}; {@link #after(ProductSummary)} positions a query on the page
+ * following a given row.
+ *
+ * <p>Repositories translate a query into one parameterized statement whose filters
+ * and ordering are served by the composite indexes on {@code (seller_id, price)} and
+ * {@code (price)}, and the partial indexes on in-stock products, so a page costs an
+ * index range scan however large the catalog is.</p>
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public final class ProductQuery {
+    /** Page size used when none is set. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final Integer sellerId;
+    private final Double minPrice;
+    private final Double maxPrice;
+    private final boolean inStockOnly;
+    private final ProductSort sort;
+    private final int pageSize;
+    private final ProductSummary after;
+
+    private ProductQuery(Builder builder, ProductSummary after) {
+        this.sellerId = builder.sellerId;
+        this.minPrice = builder.minPrice;
+        this.maxPrice = builder.maxPrice;
+        this.inStockOnly = builder.inStockOnly;
+        this.sort = builder.sort;
+        this.pageSize = builder.pageSize;
+        this.after = after;
+    }
+
+    /**
+     * Starts a query over all products, ordered by ID.
+     *
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the same query positioned on the page that follows a row.
+     *
+     * @param last The last row of the current page, or null for the first page
+     * @return The repositioned query
+     */
+    public ProductQuery after(ProductSummary last) {
+        return new ProductQuery(toBuilder(), last);
+    }
+
+    /**
+     * Gets the seller whose products are listed.
+     *
+     * @return The seller ID, or null for all sellers
+     */
+    public Integer getSellerId() {
+        return sellerId;
+    }
+
+    /**
+     * Gets the lowest price listed.
+     *
+     * @return The bound, or null if there is none
+     */
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    /**
+     * Gets the highest price listed.
+     *
+     * @return The bound, or null if there is none
+     */
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * Tells whether out-of-stock products are left out.
+     *
+     * @return true if only products with a positive quantity are listed
+     */
+    public boolean isInStockOnly() {
+        return inStockOnly;
+    }
+
+    /**
+     * Gets the ordering of the listing.
+     *
+     * @return The ordering
+     */
+    public ProductSort getSort() {
+        return sort;
+    }
+
+    /**
+     * Gets the column the listing is ordered by.
+     *
+     * @return The sort key
+     */
+    public ProductSortKey getSortKey() {
+        return sort.getKey();
+    }
+
+    /**
+     * Tells whether the listing runs from the highest value down.
+     *
+     * @return true for descending order
+     */
+    public boolean isDescending() {
+        return sort.isDescending();
+    }
+
+    /**
+     * Gets the maximum number of rows on a page.
+     *
+     * @return The page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Gets the row the page starts after.
+     *
+     * @return The keyset cursor, or null for the first page
+     */
+    public ProductSummary getAfter() {
+        return after;
+    }
+
+    /**
+     * Checks a product against the filters, for repositories that filter in memory.
+     *
+     * @param product The product
+     * @return true if every set filter matches
+     */
+    public boolean matches(ProductSummary product) {
+        if (sellerId != null && product.getSeller_id() != sellerId) {
+            return false;
+        }
+        if (minPrice != null && product.getPrice() < minPrice) {
+            return false;
+        }
+        if (maxPrice != null && product.getPrice() > maxPrice) {
+            return false;
+        }
+        return !inStockOnly || product.getQuantity() > 0;
+    }
+
+    private Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.sellerId = sellerId;
+        builder.minPrice = minPrice;
+        builder.maxPrice = maxPrice;
+        builder.inStockOnly = inStockOnly;
+        builder.sort = sort;
+        builder.pageSize = pageSize;
+        return builder;
+    }
+
+    /**
+     * Collects the filters, ordering and page size of a {@link ProductQuery}.
+     */
+    public static final class Builder {
+        private Integer sellerId;
+        private Double minPrice;
+        private Double maxPrice;
+        private boolean inStockOnly;
+        private ProductSort sort = ProductSort.DEFAULT;
+        private int pageSize = DEFAULT_PAGE_SIZE;
+
+        private Builder() {
+        }
+
+        /**
+         * Lists only one seller's products.
+         *
+         * @param sellerId The seller ID, or null for all sellers
+         * @return This builder
+         */
+        public Builder seller(Integer sellerId) {
+            this.sellerId = sellerId;
+            return this;
+        }
+
+        /**
+         * Lists only products priced within a range, bounds included.
+         *
+         * @param min Lowest price, or null for no lower bound
+         * @param max Highest price, or null for no upper bound
+         * @return This builder
+         */
+        public Builder priceBetween(Double min, Double max) {
+            this.minPrice = min;
+            this.maxPrice = max;
+            return this;
+        }
+
+        /**
+         * Leaves out products with no stock.
+         *
+         * @param inStockOnly true to list only products with a positive quantity
+         * @return This builder
+         */
+        public Builder inStockOnly(boolean inStockOnly) {
+            this.inStockOnly = inStockOnly;
+            return this;
+        }
+
+        /**
+         * Sets the ordering.
+         *
+         * @param sortKey Column to order by
+         * @param descending true to list the highest value first
+         * @return This builder
+         * @throws IllegalArgumentException if the sort key is null
+         */
+        public Builder sortBy(ProductSortKey sortKey, boolean descending) {
+            return sort(ProductSort.by(sortKey, descending));
+        }
+
+        /**
+         * Sets the ordering.
+         *
+         * @param sort The ordering
+         * @return This builder
+         */
+        public Builder sort(ProductSort sort) {
+            this.sort = sort;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of rows on a page.
+         *
+         * @param pageSize The page size
+         * @return This builder
+         */
+        public Builder pageSize(int pageSize) {
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * Creates the query, positioned on its first page.
+         *
+         * @return The query
+         * @throws IllegalArgumentException if the price range is empty or negative, or no ordering is set
+         */
+        public ProductQuery build() {
+            if (sort == null) {
+                throw new IllegalArgumentException("Sort order cannot be null");
+            }
+            if ((minPrice != null && minPrice < 0) || (maxPrice != null && maxPrice < 0)) {
+                throw new IllegalArgumentException("Price bounds cannot be negative");
+            }
+            if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+                throw new IllegalArgumentException("Minimum price cannot be greater than maximum price");
+            }
+            return new ProductQuery(this, null);
+        }
+    }
+}
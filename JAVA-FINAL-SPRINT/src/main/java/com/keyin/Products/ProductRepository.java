@@ -0,0 +1,337 @@
+package com.keyin.Products;
+
+import com.keyin.Database.Page;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+
+/**
+ * Storage abstraction for products.
+ * {@link ProductDAO} implements it against PostgreSQL; an in-memory implementation
+ * with the same semantics is available for tests and benchmarks.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public interface ProductRepository {
+
+    /**
+     * Creates a new product.
+     *
+     * @param product The product object containing all product information except ID
+     * @return The same product object with its generated ID, or null if creation fails
+     * @throws SQLException if a storage error occurs
+     */
+    Product createProduct(Product product) throws SQLException;
+
+    /**
+     * Creates many products in one bulk load. Products are pulled from the iterator
+     * while loading, so the caller can stream them from a file. Either every product
+     * is created or, if any fails, none is.
+     *
+     * @param products Products to create; their IDs are not reported back
+     * @return The number of products created
+     * @throws SQLException if a product violates a constraint or a storage error occurs
+     */
+    long copyProducts(Iterator<Product> products) throws SQLException;
+
+    /**
+     * Gets the highest product ID assigned so far. IDs only grow, so products created
+     * afterwards, e.g. by a bulk load, can be found as those with a higher ID.
+     *
+     * @return The highest product ID, or 0 if there are no products
+     * @throws SQLException if a storage error occurs
+     */
+    int getMaxProductId() throws SQLException;
+
+    /**
+     * Retrieves a product by its ID.
+     *
+     * @param productId The unique identifier of the product
+     * @return The Product object if found, null otherwise
+     * @throws SQLException if a storage error occurs
+     */
+    Product getProductById(int productId) throws SQLException;
+
+    /**
+     * Retrieves all products in product ID order.
+     *
+     * @return List of all products
+     * @throws SQLException if a storage error occurs
+     */
+    default List<Product> getAllProducts() throws SQLException {
+        return getAllProducts(ProductSort.DEFAULT);
+    }
+
+    /**
+     * Retrieves all products, sorted by the storage rather than by the caller.
+     *
+     * @param sort The ordering
+     * @return List of all products
+     * @throws SQLException if a storage error occurs
+     */
+    List<Product> getAllProducts(ProductSort sort) throws SQLException;
+
+    /**
+     * Streams every product without materializing the catalog in memory.
+     * The stream holds storage resources until it is closed, so callers must
+     * use it in a try-with-resources block.
+     *
+     * @return A lazily populated stream of all products
+     * @throws SQLException if a storage error occurs while opening the stream
+     */
+    Stream<Product> streamAllProducts() throws SQLException;
+
+    /**
+     * Retrieves all products from a specific seller in product ID order.
+     *
+     * @param sellerId The unique identifier of the seller
+     * @return List of products belonging to the specified seller
+     * @throws SQLException if a storage error occurs
+     */
+    default List<Product> getProductsBySeller(int sellerId) throws SQLException {
+        return getProductsBySeller(sellerId, ProductSort.DEFAULT);
+    }
+
+    /**
+     * Retrieves all products from a specific seller, sorted by the storage rather than by the caller.
+     *
+     * @param sellerId The unique identifier of the seller
+     * @param sort The ordering
+     * @return List of products belonging to the specified seller
+     * @throws SQLException if a storage error occurs
+     */
+    List<Product> getProductsBySeller(int sellerId, ProductSort sort) throws SQLException;
+
+    /**
+     * Retrieves one page of products in product ID order, starting after the given ID.
+     *
+     * @param afterProductId Only products with a greater ID are returned (0 for the first page)
+     * @param limit Maximum number of products on the page
+     * @return The page of products
+     * @throws SQLException if a storage error occurs
+     */
+    Page<Product> getProductsPage(int afterProductId, int limit) throws SQLException;
+
+    /**
+     * Retrieves one page of a seller's products in product ID order, starting after the given ID.
+     *
+     * @param sellerId The unique identifier of the seller
+     * @param afterProductId Only products with a greater ID are returned (0 for the first page)
+     * @param limit Maximum number of products on the page
+     * @return The page of products
+     * @throws SQLException if a storage error occurs
+     */
+    Page<Product> getProductsBySellerPage(int sellerId, int afterProductId, int limit) throws SQLException;
+
+    /**
+     * Retrieves one page of product summaries in product ID order, starting after the given ID.
+     * Only the columns shown in list views are read.
+     *
+     * @param afterProductId Only products with a greater ID are returned (0 for the first page)
+     * @param limit Maximum number of products on the page
+     * @return The page of product summaries
+     * @throws SQLException if a storage error occurs
+     */
+    Page<ProductSummary> getProductSummariesPage(int afterProductId, int limit) throws SQLException;
+
+    /**
+     * Retrieves one page of a seller's product summaries in product ID order, starting after the given ID.
+     * Only the columns shown in list views are read.
+     *
+     * @param sellerId The unique identifier of the seller
+     * @param afterProductId Only products with a greater ID are returned (0 for the first page)
+     * @param limit Maximum number of products on the page
+     * @return The page of product summaries
+     * @throws SQLException if a storage error occurs
+     */
+    Page<ProductSummary> getProductSummariesBySellerPage(int sellerId, int afterProductId, int limit)
+            throws SQLException;
+
+    /**
+     * Retrieves one page of a filtered and sorted product listing, e.g. one seller's
+     * in-stock products within a price range, cheapest first. Pages are addressed with
+     * a keyset cursor on the sort column and product ID, carried by the query.
+     *
+     * @param query The filters, ordering, page size and cursor
+     * @return The page of product summaries
+     * @throws SQLException if a storage error occurs
+     */
+    Page<ProductSummary> findProducts(ProductQuery query) throws SQLException;
+
+    /**
+     * Retrieves one page of product summaries with a summary of each product's seller,
+     * in product ID order, starting after the given ID.
+     *
+     * @param afterProductId Only products with a greater ID are returned (0 for the first page)
+     * @param limit Maximum number of products on the page
+     * @return The page of products with seller details
+     * @throws SQLException if a storage error occurs
+     */
+    Page<ProductWithSeller> getProductsWithSellersPage(int afterProductId, int limit) throws SQLException;
+
+    /**
+     * Searches for products based on a keyword in their name or description.
+     *
+     * @param keyword The search term to look for in product names and descriptions
+     * @return List of products matching the search criteria, most relevant first
+     * @throws SQLException if a storage error occurs
+     */
+    List<Product> searchProducts(String keyword) throws SQLException;
+
+    /**
+     * Retrieves one page of search results, most relevant first.
+     *
+     * @param keyword The search term to look for in product names and descriptions
+     * @param offset Number of results to skip (0 for the first page)
+     * @param limit Maximum number of products on the page
+     * @return The page of matching products; its cursor is the offset of the next page
+     * @throws SQLException if a storage error occurs
+     */
+    Page<Product> searchProductsPage(String keyword, int offset, int limit) throws SQLException;
+
+    /**
+     * Updates an existing product's information if it belongs to the given seller and is
+     * still at the version it was read at. On success the product's version is set to the
+     * new version.
+     *
+     * @param product The product object containing updated information and the version it was read at
+     * @param sellerId ID of the seller making the change
+     * @return SUCCESS, NOT_FOUND, NOT_OWNER, or CONFLICT if the stored version has moved on
+     * @throws SQLException if a storage error occurs
+     */
+    ProductWriteResult updateProduct(Product product, int sellerId) throws SQLException;
+
+    /**
+     * Atomically changes a product's stock by a relative amount, without touching
+     * its other columns. The change is refused if it would take the stock below zero.
+     *
+     * @param productId The unique identifier of the product
+     * @param delta Units to add (positive) or remove (negative)
+     * @return The new quantity, or empty if the product does not exist or has too little stock
+     * @throws SQLException if a storage error occurs
+     */
+    OptionalInt adjustQuantity(int productId, int delta) throws SQLException;
+
+    /**
+     * Atomically changes the stock of a seller's product by a relative amount.
+     *
+     * @param productId The unique identifier of the product
+     * @param sellerId ID of the seller making the change
+     * @param delta Units to add (positive) or remove (negative)
+     * @return SUCCESS, NOT_FOUND, NOT_OWNER, or INSUFFICIENT_STOCK if the stock would go below zero
+     * @throws SQLException if a storage error occurs
+     */
+    ProductWriteResult adjustQuantity(int productId, int sellerId, int delta) throws SQLException;
+
+    /**
+     * Atomically changes the stock of several products, each independently of the others.
+     *
+     * @param deltas Units to add (positive) or remove (negative) per product ID
+     * @return The new quantity per product ID for the changes that were applied; products that
+     *         do not exist or have too little stock are absent
+     * @throws SQLException if a storage error occurs
+     */
+    Map<Integer, Integer> adjustQuantities(Map<Integer, Integer> deltas) throws SQLException;
+
+    /**
+     * Takes units out of stock if enough are available.
+     *
+     * @param productId The unique identifier of the product
+     * @param quantity Units to take (must be positive)
+     * @return The remaining quantity, or empty if the product does not exist or has too little stock
+     * @throws SQLException if a storage error occurs
+     * @throws IllegalArgumentException if quantity is not positive
+     */
+    default OptionalInt reserve(int productId, int quantity) throws SQLException {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity to reserve must be greater than 0");
+        }
+        return adjustQuantity(productId, -quantity);
+    }
+
+    /**
+     * Takes units out of stock for several products, each independently of the others.
+     *
+     * @param quantities Units to take per product ID (each positive)
+     * @return The remaining quantity per product ID for the reservations that succeeded
+     * @throws SQLException if a storage error occurs
+     * @throws IllegalArgumentException if a quantity is not positive
+     */
+    default Map<Integer, Integer> reserveAll(Map<Integer, Integer> quantities) throws SQLException {
+        Map<Integer, Integer> deltas = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            if (entry.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantity to reserve must be greater than 0");
+            }
+            deltas.put(entry.getKey(), -entry.getValue());
+        }
+        return adjustQuantities(deltas);
+    }
+
+    /**
+     * Deletes a product.
+     *
+     * @param productId The unique identifier of the product to delete
+     * @return true if the product was successfully deleted, false if no product was found
+     * @throws SQLException if a storage error occurs
+     */
+    boolean deleteProduct(int productId) throws SQLException;
+
+    /**
+     * Deletes a product if it belongs to the given seller.
+     *
+     * @param productId The unique identifier of the product to delete
+     * @param sellerId ID of the seller making the change
+     * @return SUCCESS, NOT_FOUND, or NOT_OWNER
+     * @throws SQLException if a storage error occurs
+     */
+    ProductWriteResult deleteProduct(int productId, int sellerId) throws SQLException;
+
+    /**
+     * Updates many products of one seller in a single transaction, each only if it
+     * belongs to the seller and still has the version it was read with. A product
+     * that fails these checks is skipped; the others are still applied. On success the
+     * product's version is set to its new value.
+     *
+     * @param products Products with their changed fields and the version they were read at; IDs must be distinct
+     * @param sellerId ID of the seller making the change
+     * @return One result per product ID, in input order: SUCCESS, NOT_FOUND, NOT_OWNER, or CONFLICT
+     * @throws SQLException if a storage error occurs; nothing is updated in that case
+     */
+    Map<Integer, ProductWriteResult> updateProducts(List<Product> products, int sellerId) throws SQLException;
+
+    /**
+     * Deletes many products of one seller in a single transaction. A product that does
+     * not exist or belongs to another seller is skipped; the others are still deleted.
+     *
+     * @param productIds The products to delete
+     * @param sellerId ID of the seller making the change
+     * @return One result per distinct product ID, in input order: SUCCESS, NOT_FOUND, or NOT_OWNER
+     * @throws SQLException if a storage error occurs; nothing is deleted in that case
+     */
+    Map<Integer, ProductWriteResult> deleteProducts(Collection<Integer> productIds, int sellerId) throws SQLException;
+
+    /**
+     * Applies a price change to every product of one seller that matches a filter, as a
+     * single set-based write. New prices are rounded to cents; products whose new price
+     * would be zero or less, or too large to store, keep their price. Every changed
+     * product gets a new version, so edit forms loaded before the change conflict.
+     *
+     * @param sellerId ID of the seller whose products are repriced; no other product is touched
+     * @param filter Which of the seller's products to reprice
+     * @param adjustment The price change
+     * @param dryRun If true, only the aggregate outcome is computed and nothing is written
+     * @return Counts and price totals of the (previewed) change, with the new price of each changed product
+     * @throws SQLException if a storage error occurs; no price is changed in that case
+     */
+    RepriceResult repriceProducts(int sellerId, RepriceFilter filter, PriceAdjustment adjustment, boolean dryRun)
+            throws SQLException;
+}
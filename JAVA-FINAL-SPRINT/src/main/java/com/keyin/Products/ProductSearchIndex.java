@@ -0,0 +1,874 @@
+package com.keyin.Products;
+
+import com.keyin.Database.Page;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over product names and descriptions, ranked with BM25.
+ *
+ * <p>Text is lower-cased and split into words; each word is indexed as a term and, for
+ * partial-word matching, as its prefixes of at least {@value #MIN_GRAM} characters
+ * (edge n-grams), so "lap" finds "laptop". Name terms count {@value #NAME_WEIGHT} times
+ * as much as description terms. Every query word must match a product for it to be
+ * returned; whole-word matches score higher than prefix matches.</p>
+ *
+ * <p>Each product occupies a numbered document slot. Postings are parallel primitive
+ * {@code int[]} arrays of slots, kept sorted, and term frequencies; a removed product
+ * leaves a zero-frequency tombstone that is reclaimed when a list is mostly tombstones.
+ * A document keeps only the postings it was added to, for removal, and the fields shown
+ * in results, not the description. A query walks the rarest word's postings in slot
+ * order, finds each candidate in the other words' postings by binary search, and keeps
+ * the best {@code offset + limit} hits in a bounded heap, so nothing is allocated per
+ * matching product beyond the page itself.</p>
+ *
+ * <p>The index can be built from a full catalog in parallel and is then kept up to date
+ * one product at a time. Searches run concurrently under a read lock; updates take the
+ * write lock.</p>
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class ProductSearchIndex {
+    static final int MIN_GRAM = 3;
+    static final int NAME_WEIGHT = 2;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PARTIAL_MATCH_WEIGHT = 0.5;
+    private static final int BUILD_CHUNK_SIZE = 10_000;
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "by", "for",
+            "from", "in", "is", "it", "of", "on", "or", "the", "to", "with");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+
+    /**
+     * Replaces the index contents with the given catalog, tokenizing chunks of it in parallel.
+     *
+     * @param products Every product to index
+     */
+    public void build(Collection<Product> products) {
+        Rebuild rebuild = rebuild();
+        products.forEach(rebuild::add);
+        rebuild.install();
+    }
+
+    /**
+     * Starts replacing the index contents with a catalog fed in one product at a time,
+     * e.g. straight off a database cursor. Searches keep seeing the current contents
+     * until {@link Rebuild#install()}.
+     *
+     * @return A rebuild to add every product to
+     */
+    public Rebuild rebuild() {
+        return new Rebuild();
+    }
+
+    /**
+     * Adds a product, or replaces it if it is already indexed.
+     *
+     * @param product The product to index
+     */
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(product.getProduct_id());
+            segment.add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a product from the index.
+     *
+     * @param productId ID of the product to remove
+     */
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a stock change to an indexed product and bumps its version, as the
+     * stock write did in storage. Quantity is not searchable, so the postings are left alone.
+     *
+     * @param productId ID of the product
+     * @param delta Change in quantity, negative when stock was taken
+     */
+    public void adjustQuantity(int productId, int delta) {
+        lock.writeLock().lock();
+        try {
+            Doc doc = segment.doc(productId);
+            if (doc != null) {
+                doc.quantity = Math.max(0, doc.quantity + delta);
+                doc.version++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a price change to an indexed product and bumps its version, as the price
+     * write did in storage. Price is not searchable, so the postings are left alone.
+     *
+     * @param productId ID of the product
+     * @param price The new price
+     */
+    public void updatePrice(int productId, double price) {
+        lock.writeLock().lock();
+        try {
+            Doc doc = segment.doc(productId);
+            if (doc != null) {
+                doc.price = price;
+                doc.version++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every product belonging to a seller, e.g. after the seller's account is deleted.
+     *
+     * @param sellerId ID of the seller
+     */
+    public void removeSeller(int sellerId) {
+        lock.writeLock().lock();
+        try {
+            for (int slot = 0; slot < segment.slotCount; slot++) {
+                Doc doc = segment.docs[slot];
+                if (doc != null && doc.sellerId == sellerId) {
+                    segment.remove(doc.productId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of indexed products.
+     *
+     * @return The number of products in the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the index.
+     *
+     * @param query Search words; every word must match
+     * @return Matching products, best match first, ties broken by product ID; they carry no description
+     */
+    public List<Product> search(String query) {
+        return search(query, 0, Integer.MAX_VALUE - 1).getItems();
+    }
+
+    /**
+     * Retrieves one page of search results.
+     *
+     * @param query Search words; every word must match
+     * @param offset Number of results to skip
+     * @param limit Maximum number of products on the page
+     * @return The page of matching products, which carry no description; its cursor is the offset of the next page
+     */
+    public Page<Product> search(String query, int offset, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0) {
+            return Page.fromOffset(new ArrayList<>(), limit, offset);
+        }
+
+        lock.readLock().lock();
+        try {
+            // One extra hit tells whether another page follows
+            int[] ranked = segment.rank(terms, (int) Math.min((long) offset + limit + 1, Integer.MAX_VALUE));
+            List<Product> products = new ArrayList<>(Math.max(0, ranked.length - offset));
+            for (int i = offset; i < ranked.length; i++) {
+                products.add(segment.docs[ranked[i]].toProduct());
+            }
+            return Page.fromOffset(products, limit, offset);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower-cased words, dropping stop words.
+     *
+     * @param text Text to split, may be null
+     * @return The words in order, possibly empty
+     */
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty() && !STOP_WORDS.contains(word))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * An indexed product: the fields shown in search results and the postings it was
+     * added to, so it can be removed again.
+     */
+    private static final class Doc {
+        private final int productId;
+        private final String name;
+        private final int sellerId;
+        private double price;
+        private int quantity;
+        private int version;
+        private final Postings[] postings;
+
+        private Doc(Product product, Postings[] postings) {
+            this.productId = product.getProduct_id();
+            this.name = product.getName();
+            this.sellerId = product.getSeller_id();
+            this.price = product.getPrice();
+            this.quantity = product.getQuantity();
+            this.version = product.getVersion();
+            this.postings = postings;
+        }
+
+        private Product toProduct() {
+            Product product = new Product(productId, name, null, price, quantity, sellerId);
+            product.setVersion(version);
+            return product;
+        }
+    }
+
+    /**
+     * A replacement for the index contents. Products are gathered into chunks of
+     * {@value #BUILD_CHUNK_SIZE}, each tokenized on the common fork-join pool while the
+     * next is gathered; at most one chunk per processor is in flight, so the caller's
+     * catalog is never held in full outside the index.
+     */
+    public final class Rebuild {
+        private final Deque<CompletableFuture<Segment>> inFlight = new ArrayDeque<>();
+        private final Segment built = new Segment();
+        private List<Product> chunk = new ArrayList<>();
+        private boolean installed;
+
+        private Rebuild() {
+        }
+
+        /**
+         * Adds a product to the replacement.
+         *
+         * @param product The product as it is stored
+         * @throws IllegalStateException if the rebuild was already installed
+         */
+        public void add(Product product) {
+            if (installed) {
+                throw new IllegalStateException("Rebuild already installed");
+            }
+            chunk.add(product);
+            if (chunk.size() == BUILD_CHUNK_SIZE) {
+                submitChunk();
+            }
+        }
+
+        /**
+         * Waits for the remaining chunks, merges them and swaps the result in.
+         *
+         * @throws IllegalStateException if the rebuild was already installed
+         */
+        public void install() {
+            if (installed) {
+                throw new IllegalStateException("Rebuild already installed");
+            }
+            installed = true;
+            if (!chunk.isEmpty()) {
+                submitChunk();
+            }
+            while (!inFlight.isEmpty()) {
+                built.merge(inFlight.poll().join());
+            }
+            lock.writeLock().lock();
+            try {
+                segment = built;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void submitChunk() {
+            List<Product> products = chunk;
+            chunk = new ArrayList<>();
+            inFlight.add(CompletableFuture.supplyAsync(() -> {
+                Segment part = new Segment();
+                products.forEach(part::add);
+                return part;
+            }));
+            if (inFlight.size() > Runtime.getRuntime().availableProcessors()) {
+                built.merge(inFlight.poll().join());
+            }
+        }
+    }
+
+    /**
+     * Growable postings list for one term or prefix: parallel arrays of document slots,
+     * sorted ascending, and term frequencies. Removing a document zeroes its frequency;
+     * the tombstones are squeezed out once they make up more than half the list.
+     */
+    private static final class Postings {
+        private final String key;
+        private final boolean gram;
+        private int[] slots = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+        private int live;
+        /** Set on a chunk's postings once merged into another list, to redirect its documents. */
+        private Postings mergedInto;
+
+        private Postings(String key, boolean gram) {
+            this.key = key;
+            this.gram = gram;
+        }
+
+        private void add(int slot, int frequency) {
+            int index = size;
+            if (size > 0 && slots[size - 1] >= slot) {
+                index = find(0, slot);
+                if (slots[index] == slot) {
+                    if (frequencies[index] == 0) {
+                        live++;
+                    }
+                    frequencies[index] = frequency;
+                    return;
+                }
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(slots, index, slots, index + 1, size - index);
+            System.arraycopy(frequencies, index, frequencies, index + 1, size - index);
+            slots[index] = slot;
+            frequencies[index] = frequency;
+            size++;
+            live++;
+        }
+
+        /**
+         * Appends another list whose slots, once offset by base, all follow this one's.
+         */
+        private void append(Postings other, int base) {
+            if (size + other.size > slots.length) {
+                int capacity = Math.max(size + other.size, slots.length * 2);
+                slots = Arrays.copyOf(slots, capacity);
+                frequencies = Arrays.copyOf(frequencies, capacity);
+            }
+            for (int i = 0; i < other.size; i++) {
+                if (other.frequencies[i] != 0) {
+                    slots[size] = other.slots[i] + base;
+                    frequencies[size] = other.frequencies[i];
+                    size++;
+                }
+            }
+            live += other.live;
+        }
+
+        private void rebase(int base) {
+            for (int i = 0; i < size; i++) {
+                slots[i] += base;
+            }
+        }
+
+        private void remove(int slot) {
+            int index = find(0, slot);
+            if (index == size || slots[index] != slot || frequencies[index] == 0) {
+                return;
+            }
+            frequencies[index] = 0;
+            live--;
+            if (live > 0 && (size - live) * 2 > size) {
+                compact();
+            }
+        }
+
+        private void compact() {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (frequencies[i] != 0) {
+                    slots[kept] = slots[i];
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        /**
+         * Finds the first entry at or after from whose slot is not below the given one.
+         *
+         * @return Its index, or size if there is none
+         */
+        private int find(int from, int slot) {
+            int low = from;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (slots[middle] < slot) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Gets the frequency recorded for a slot, moving the cursor up to it. Slots must
+         * be looked up in ascending order through the same cursor.
+         *
+         * @return The frequency, or 0 if the slot is not listed
+         */
+        private int frequencyAt(int[] cursors, int cursor, int slot) {
+            int index = find(cursors[cursor], slot);
+            cursors[cursor] = index;
+            return index < size && slots[index] == slot ? frequencies[index] : 0;
+        }
+    }
+
+    /**
+     * Open-addressing map from product ID to document slot, probed linearly.
+     */
+    private static final class SlotTable {
+        private int[] keys = new int[16];
+        // Slot plus one, so 0 marks an empty bucket
+        private int[] values = new int[16];
+        private int size;
+
+        private int get(int productId) {
+            int mask = keys.length - 1;
+            for (int i = bucket(productId, mask); values[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == productId) {
+                    return values[i] - 1;
+                }
+            }
+            return -1;
+        }
+
+        private void put(int productId, int slot) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = bucket(productId, mask);
+            while (values[i] != 0 && keys[i] != productId) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == 0) {
+                size++;
+            }
+            keys[i] = productId;
+            values[i] = slot + 1;
+        }
+
+        private int remove(int productId) {
+            int mask = keys.length - 1;
+            int i = bucket(productId, mask);
+            while (values[i] != 0 && keys[i] != productId) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == 0) {
+                return -1;
+            }
+            int slot = values[i] - 1;
+            // Pull later entries of the probe run back into the hole, so lookups never stop short
+            int hole = i;
+            for (int j = (i + 1) & mask; values[j] != 0; j = (j + 1) & mask) {
+                int home = bucket(keys[j], mask);
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+            }
+            values[hole] = 0;
+            size--;
+            return slot;
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[capacity];
+            values = new int[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldValues[j] != 0) {
+                    int i = bucket(oldKeys[j], mask);
+                    while (values[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private static int bucket(int productId, int mask) {
+            int hash = productId * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+
+    /**
+     * Keeps the best hits seen so far, at most a fixed number of them: a min-heap whose
+     * root is the weakest hit kept. Ties go to the lower product ID.
+     */
+    private static final class TopHits {
+        private final int capacity;
+        private int[] slots;
+        private int[] productIds;
+        private double[] scores;
+        private int size;
+
+        private TopHits(int capacity) {
+            this.capacity = capacity;
+            int initial = Math.min(capacity, 64);
+            slots = new int[initial];
+            productIds = new int[initial];
+            scores = new double[initial];
+        }
+
+        private void offer(int slot, int productId, double score) {
+            if (size < capacity) {
+                if (size == slots.length) {
+                    int grown = (int) Math.min((long) size * 2, capacity);
+                    slots = Arrays.copyOf(slots, grown);
+                    productIds = Arrays.copyOf(productIds, grown);
+                    scores = Arrays.copyOf(scores, grown);
+                }
+                set(size, slot, productId, score);
+                siftUp(size++);
+            } else if (weaker(scores[0], productIds[0], score, productId)) {
+                set(0, slot, productId, score);
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Empties the heap.
+         *
+         * @return The slots of the hits kept, best first
+         */
+        private int[] drain() {
+            int[] ranked = new int[size];
+            while (size > 0) {
+                ranked[size - 1] = slots[0];
+                size--;
+                set(0, slots[size], productIds[size], scores[size]);
+                siftDown(0);
+            }
+            return ranked;
+        }
+
+        private static boolean weaker(double score, int productId, double otherScore, int otherProductId) {
+            return score != otherScore ? score < otherScore : productId > otherProductId;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!weaker(scores[index], productIds[index], scores[parent], productIds[parent])) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int weakest = index;
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                    if (weaker(scores[child], productIds[child], scores[weakest], productIds[weakest])) {
+                        weakest = child;
+                    }
+                }
+                if (weakest == index) {
+                    return;
+                }
+                swap(index, weakest);
+                index = weakest;
+            }
+        }
+
+        private void set(int index, int slot, int productId, double score) {
+            slots[index] = slot;
+            productIds[index] = productId;
+            scores[index] = score;
+        }
+
+        private void swap(int a, int b) {
+            int slot = slots[a];
+            int productId = productIds[a];
+            double score = scores[a];
+            set(a, slots[b], productIds[b], scores[b]);
+            set(b, slot, productId, score);
+        }
+    }
+
+    /**
+     * The index data itself. Not thread-safe; guarded by the enclosing index's lock,
+     * or confined to one thread while a chunk is built.
+     */
+    private static final class Segment {
+        private final Map<String, Postings> termPostings = new HashMap<>();
+        private final Map<String, Postings> gramPostings = new HashMap<>();
+        private final SlotTable slotsById = new SlotTable();
+        private Doc[] docs = new Doc[16];
+        private int[] lengths = new int[16];
+        private int slotCount;
+        private int[] freeSlots = new int[16];
+        private int freeCount;
+        private int docCount;
+        private long totalLength;
+
+        private Doc doc(int productId) {
+            int slot = slotsById.get(productId);
+            return slot < 0 ? null : docs[slot];
+        }
+
+        private void add(Product product) {
+            Map<String, Integer> terms = new HashMap<>();
+            int length = countTerms(product.getName(), NAME_WEIGHT, terms)
+                    + countTerms(product.getDescription(), 1, terms);
+
+            Map<String, Integer> grams = new HashMap<>();
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                String word = term.getKey();
+                for (int end = MIN_GRAM; end < word.length(); end++) {
+                    grams.merge(word.substring(0, end), term.getValue(), Integer::sum);
+                }
+            }
+
+            int slot = allocateSlot();
+            Postings[] postings = new Postings[terms.size() + grams.size()];
+            int next = 0;
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                Postings list = termPostings.computeIfAbsent(term.getKey(), t -> new Postings(t, false));
+                list.add(slot, term.getValue());
+                postings[next++] = list;
+            }
+            for (Map.Entry<String, Integer> gram : grams.entrySet()) {
+                Postings list = gramPostings.computeIfAbsent(gram.getKey(), g -> new Postings(g, true));
+                list.add(slot, gram.getValue());
+                postings[next++] = list;
+            }
+            docs[slot] = new Doc(product, postings);
+            lengths[slot] = length;
+            slotsById.put(product.getProduct_id(), slot);
+            docCount++;
+            totalLength += length;
+        }
+
+        private void remove(int productId) {
+            int slot = slotsById.remove(productId);
+            if (slot < 0) {
+                return;
+            }
+            for (Postings list : docs[slot].postings) {
+                list.remove(slot);
+                if (list.live == 0) {
+                    (list.gram ? gramPostings : termPostings).remove(list.key);
+                }
+            }
+            docs[slot] = null;
+            totalLength -= lengths[slot];
+            lengths[slot] = 0;
+            docCount--;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+
+        private int allocateSlot() {
+            if (freeCount > 0) {
+                return freeSlots[--freeCount];
+            }
+            ensureSlots(slotCount + 1);
+            return slotCount++;
+        }
+
+        private void ensureSlots(int count) {
+            if (count > docs.length) {
+                int capacity = Math.max(count, docs.length * 2);
+                docs = Arrays.copyOf(docs, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+        }
+
+        /**
+         * Moves a chunk's documents into this segment, after its own. Only used while
+         * building, when neither segment has had a document removed.
+         */
+        private Segment merge(Segment other) {
+            int base = slotCount;
+            mergePostings(termPostings, other.termPostings, base);
+            mergePostings(gramPostings, other.gramPostings, base);
+            ensureSlots(base + other.slotCount);
+            for (int slot = 0; slot < other.slotCount; slot++) {
+                Doc doc = other.docs[slot];
+                for (int i = 0; i < doc.postings.length; i++) {
+                    if (doc.postings[i].mergedInto != null) {
+                        doc.postings[i] = doc.postings[i].mergedInto;
+                    }
+                }
+                docs[base + slot] = doc;
+                lengths[base + slot] = other.lengths[slot];
+                slotsById.put(doc.productId, base + slot);
+            }
+            slotCount += other.slotCount;
+            docCount += other.docCount;
+            totalLength += other.totalLength;
+            return this;
+        }
+
+        private static void mergePostings(Map<String, Postings> mine, Map<String, Postings> theirs, int base) {
+            theirs.forEach((key, list) -> {
+                Postings target = mine.get(key);
+                if (target == null) {
+                    list.rebase(base);
+                    mine.put(key, list);
+                } else {
+                    target.append(list, base);
+                    list.mergedInto = target;
+                }
+            });
+        }
+
+        /**
+         * Ranks the products matching every query word.
+         *
+         * @param queryTerms Tokenized query, not empty
+         * @param count Maximum number of hits wanted
+         * @return Document slots of the best hits, best first
+         */
+        private int[] rank(String[] queryTerms, int count) {
+            String[] words = Arrays.stream(queryTerms).distinct().toArray(String[]::new);
+            if (docCount == 0) {
+                return new int[0];
+            }
+            Postings[] exact = new Postings[words.length];
+            Postings[] partial = new Postings[words.length];
+            double[] exactIdf = new double[words.length];
+            double[] partialIdf = new double[words.length];
+            int rarest = 0;
+            long rarestSize = Long.MAX_VALUE;
+            for (int w = 0; w < words.length; w++) {
+                exact[w] = termPostings.get(words[w]);
+                partial[w] = words[w].length() >= MIN_GRAM ? gramPostings.get(words[w]) : null;
+                if (exact[w] == null && partial[w] == null) {
+                    return new int[0];
+                }
+                long size = 0;
+                if (exact[w] != null) {
+                    exactIdf[w] = idf(exact[w]);
+                    size += exact[w].size;
+                }
+                if (partial[w] != null) {
+                    partialIdf[w] = idf(partial[w]);
+                    size += partial[w].size;
+                }
+                if (size < rarestSize) {
+                    rarest = w;
+                    rarestSize = size;
+                }
+            }
+
+            double averageLength = (double) totalLength / docCount;
+            // Cursor 2w walks word w's exact postings and 2w + 1 its partial ones
+            int[] cursors = new int[words.length * 2];
+            TopHits top = new TopHits(count);
+            Postings drivingExact = exact[rarest];
+            Postings drivingPartial = partial[rarest];
+            int nextExact = 0;
+            int nextPartial = 0;
+            while (true) {
+                int slot = Integer.MAX_VALUE;
+                if (drivingExact != null && nextExact < drivingExact.size) {
+                    slot = drivingExact.slots[nextExact];
+                }
+                if (drivingPartial != null && nextPartial < drivingPartial.size) {
+                    slot = Math.min(slot, drivingPartial.slots[nextPartial]);
+                }
+                if (slot == Integer.MAX_VALUE) {
+                    break;
+                }
+                if (drivingExact != null && nextExact < drivingExact.size && drivingExact.slots[nextExact] == slot) {
+                    nextExact++;
+                }
+                if (drivingPartial != null && nextPartial < drivingPartial.size
+                        && drivingPartial.slots[nextPartial] == slot) {
+                    nextPartial++;
+                }
+
+                // A product may match a word both exactly and as a prefix of a longer word;
+                // both count towards the score, but every word must match one way or the other
+                double normalizer = K1 * (1 - B + B * lengths[slot] / averageLength);
+                double score = 0;
+                boolean matchesAll = true;
+                for (int w = 0; w < words.length && matchesAll; w++) {
+                    int exactFrequency = exact[w] == null ? 0 : exact[w].frequencyAt(cursors, 2 * w, slot);
+                    int partialFrequency = partial[w] == null ? 0 : partial[w].frequencyAt(cursors, 2 * w + 1, slot);
+                    if (exactFrequency == 0 && partialFrequency == 0) {
+                        matchesAll = false;
+                    } else {
+                        score += exactIdf[w] * tf(exactFrequency, normalizer)
+                                + PARTIAL_MATCH_WEIGHT * partialIdf[w] * tf(partialFrequency, normalizer);
+                    }
+                }
+                if (matchesAll) {
+                    top.offer(slot, docs[slot].productId, score);
+                }
+            }
+            return top.drain();
+        }
+
+        private double idf(Postings postings) {
+            return Math.log(1 + (docCount - postings.live + 0.5) / (postings.live + 0.5));
+        }
+
+        private static double tf(int frequency, double normalizer) {
+            return frequency * (K1 + 1) / (frequency + normalizer);
+        }
+
+        private static int countTerms(String text, int weight, Map<String, Integer> terms) {
+            String[] words = tokenize(text);
+            for (String word : words) {
+                terms.merge(word, weight, Integer::sum);
+            }
+            return words.length * weight;
+        }
+    }
+}
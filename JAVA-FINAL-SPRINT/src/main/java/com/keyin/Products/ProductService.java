@@ -1,10 +1,23 @@
 package com.keyin.Products;
 
+import com.keyin.Database.Page;
 import com.keyin.User.User;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Comparator;
-import java.util.stream.Collectors;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Service class that handles all business logic for product operations.
@@ -16,13 +29,190 @@ import java.util.stream.Collectors;
  * @since 2024-11-27
  */
 public class ProductService {
-    private final ProductDAO productDAO;
+    /** Largest page a caller may request, so a single page stays cheap to fetch and render. */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /** Columns of an import file, in order; a first line with these names is skipped as a header. */
+    private static final List<String> IMPORT_COLUMNS = List.of("name", "description", "price", "quantity");
+    /** Longest product name the products table accepts. */
+    private static final int MAX_NAME_LENGTH = 100;
+    /** Prices must fit the products table's DECIMAL(10,2) column. */
+    private static final double MAX_PRICE = 99_999_999.99;
+
+    private final ProductRepository productDAO;
+    private final ProductCache productCache;
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private final ProductFacetIndex facetIndex = new ProductFacetIndex();
+    private final ProductNameTrie nameTrie = new ProductNameTrie();
+    /**
+     * Shared by every write that updates the indexes, across its storage write and index
+     * update. A full build takes it exclusively only to start and to stop recording
+     * writes, so it never waits on a write that is halfway done.
+     */
+    private final ReentrantReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private volatile boolean indexesBuilt;
+    /** Writes made while a full build is running; null otherwise. */
+    private volatile BuildLog buildLog;
+
+    /**
+     * A storage write that changes stock, run by {@link #changeStock(StockWrite, Function)}.
+     *
+     * @param <T> Type of the write's result
+     */
+    @FunctionalInterface
+    public interface StockWrite<T> {
+        /**
+         * Runs the write.
+         *
+         * @return The write's result
+         * @throws SQLException if a storage error occurs
+         */
+        T run() throws SQLException;
+    }
+
+    /**
+     * IDs of the products written, and of the sellers removed, since a full build
+     * started. Writes record themselves after their storage write, under the shared
+     * index lock.
+     */
+    private static final class BuildLog {
+        private final Set<Integer> productIds = ConcurrentHashMap.newKeySet();
+        private final Set<Integer> sellerIds = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Takes the IDs recorded so far; IDs recorded meanwhile stay for the next call.
+         */
+        private static Set<Integer> drain(Set<Integer> ids) {
+            Set<Integer> drained = new HashSet<>();
+            for (Iterator<Integer> it = ids.iterator(); it.hasNext(); ) {
+                drained.add(it.next());
+                it.remove();
+            }
+            return drained;
+        }
+    }
+
+    /**
+     * Constructs a new ProductService on top of the given product storage,
+     * with a product cache of the default size and time-to-live.
+     *
+     * @param productDAO Data access object for product operations
+     */
+    public ProductService(ProductRepository productDAO) {
+        this(productDAO, new ProductCache());
+    }
+
+    /**
+     * Constructs a new ProductService on top of the given product storage.
+     *
+     * @param productDAO Data access object for product operations
+     * @param productCache Cache for single-product reads
+     */
+    public ProductService(ProductRepository productDAO, ProductCache productCache) {
+        this.productDAO = productDAO;
+        this.productCache = productCache;
+    }
+
+    /**
+     * Loads the whole catalog into the in-memory search, facet and name suggestion indexes.
+     * Call once at startup; afterwards the indexes are kept current by this service's create,
+     * update and delete operations, and searches, facet counts and suggestions never reach
+     * the database. The catalog is streamed into all three indexes in one pass.
+     *
+     * <p>Product writes go on while the catalog streams; each is recorded. Once the new
+     * indexes are swapped in, the recorded products are read back from storage and
+     * re-indexed as they now are. Only the products written during that catch-up are
+     * read back once more with writes held off, so a write is neither lost nor counted
+     * twice.</p>
+     *
+     * @throws RuntimeException If database operation fails
+     */
+    public synchronized void buildSearchIndex() {
+        BuildLog log = new BuildLog();
+        // Writes still in flight finish first, so the stream sees every unrecorded write
+        indexLock.writeLock().lock();
+        try {
+            buildLog = log;
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+
+        try {
+            try (Stream<Product> products = productDAO.streamAllProducts()) {
+                ProductSearchIndex.Rebuild search = searchIndex.rebuild();
+                ProductFacetIndex.Rebuild facets = facetIndex.rebuild();
+                ProductNameTrie.Rebuild names = nameTrie.rebuild();
+                products.forEach(product -> {
+                    search.add(product);
+                    facets.add(product);
+                    names.add(product);
+                });
+                search.install();
+                facets.install();
+                names.install();
+            }
+            replay(log);
+
+            indexLock.writeLock().lock();
+            try {
+                replay(log);
+                indexesBuilt = true;
+            } finally {
+                buildLog = null;
+                indexLock.writeLock().unlock();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while building search index: " + e.getMessage());
+        } finally {
+            if (buildLog == log) {
+                indexLock.writeLock().lock();
+                try {
+                    buildLog = null;
+                } finally {
+                    indexLock.writeLock().unlock();
+                }
+            }
+        }
+    }
 
     /**
-     * Constructs a new ProductService and initializes the database connection.
+     * Brings the indexes up to date with the writes recorded during a build, reading
+     * each written product back from storage rather than repeating the write.
+     *
+     * @param log The build's write log
+     * @throws SQLException if a database error occurs
      */
-    public ProductService() {
-        this.productDAO = new ProductDAO();
+    private void replay(BuildLog log) throws SQLException {
+        for (int sellerId : BuildLog.drain(log.sellerIds)) {
+            searchIndex.removeSeller(sellerId);
+            facetIndex.removeSeller(sellerId);
+            nameTrie.removeSeller(sellerId);
+        }
+        for (int productId : BuildLog.drain(log.productIds)) {
+            Product product = productDAO.getProductById(productId);
+            if (product == null) {
+                searchIndex.remove(productId);
+                facetIndex.remove(productId);
+                nameTrie.remove(productId);
+            } else {
+                searchIndex.put(product);
+                facetIndex.put(product);
+                nameTrie.put(product);
+            }
+        }
+    }
+
+    /**
+     * Records that a product was written, if a build is running. Called under the
+     * shared index lock, after the storage write.
+     *
+     * @param productId ID of the product written
+     */
+    private void recordWrite(int productId) {
+        BuildLog log = buildLog;
+        if (log != null) {
+            log.productIds.add(productId);
+        }
     }
 
     /**
@@ -39,21 +229,215 @@ public class ProductService {
      */
     public Product createProduct(String name, String description, double price,
                                  int quantity, User seller) {
+        indexLock.readLock().lock();
         try {
             validateSellerRole(seller);
             validateProductData(name, description, price, quantity);
 
             Product product = new Product(name, description, price, quantity, seller.getUser_id());
-            return productDAO.createProduct(product);
+            Product created = productDAO.createProduct(product);
+            if (created != null) {
+                searchIndex.put(created);
+                facetIndex.put(created);
+                nameTrie.put(created);
+                recordWrite(created.getProduct_id());
+            }
+            return created;
         } catch (SQLException e) {
             throw new RuntimeException("Database error while creating product: " + e.getMessage());
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid product data: " + e.getMessage());
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Creates products in bulk from a CSV file with the columns name, description,
+     * price and quantity, optionally preceded by a header line. The file is streamed:
+     * each row is parsed and validated with the same rules as {@link #createProduct}
+     * while the valid rows are being loaded, so files of any size are imported in
+     * constant memory. Invalid rows are written to the reject output, each prefixed
+     * with its line number and the reason, and do not stop the import.
+     *
+     * @param csv The CSV text to import
+     * @param rejects Receives one CSV line per rejected row
+     * @param seller The seller who will own the imported products
+     * @return The number of products imported and rows rejected
+     * @throws RuntimeException If the file cannot be read or database operation fails;
+     *         no products are created in that case
+     * @throws IllegalArgumentException If user is not a seller
+     */
+    public ProductImportResult importProducts(Reader csv, Writer rejects, User seller) {
+        validateSellerRole(seller);
+        long[] rejected = {0};
+
+        try (CsvReader reader = new CsvReader(csv)) {
+            Iterator<Product> rows = new Iterator<>() {
+                private Product next;
+                private boolean done;
+
+                @Override
+                public boolean hasNext() {
+                    try {
+                        while (next == null && !done) {
+                            List<String> record = reader.readRecord();
+                            if (record == null) {
+                                done = true;
+                            } else if (reader.getRecordLine() == 1 && isImportHeader(record)) {
+                                continue;
+                            } else {
+                                try {
+                                    next = parseImportRow(record, seller);
+                                } catch (IllegalArgumentException e) {
+                                    writeReject(rejects, reader.getRecordLine(), e.getMessage(), record);
+                                    rejected[0]++;
+                                }
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Product next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Product product = next;
+                    next = null;
+                    return product;
+                }
+            };
+
+            // The bulk load does not report new IDs, but they all lie above the highest ID seen now
+            int lastIdBefore = productDAO.getMaxProductId();
+            long imported = productDAO.copyProducts(rows);
+            rejects.flush();
+            if (imported > 0) {
+                indexImportedProducts(seller.getUser_id(), lastIdBefore);
+            }
+            return new ProductImportResult(imported, rejected[0]);
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Error reading import file: " + e.getMessage());
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while importing products: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds a seller's products created after a given ID to the in-memory indexes, reading
+     * them back page by page. Products the seller created concurrently are simply indexed
+     * again. If the indexes were never built and no build is running, the first search
+     * builds them instead.
+     *
+     * @param sellerId ID of the importing seller
+     * @param afterProductId Highest product ID before the import
+     * @throws SQLException if a database error occurs
+     */
+    private void indexImportedProducts(int sellerId, int afterProductId) throws SQLException {
+        indexLock.readLock().lock();
+        try {
+            if (!indexesBuilt && buildLog == null) {
+                return;
+            }
+            Page<Product> page;
+            int cursor = afterProductId;
+            do {
+                page = productDAO.getProductsBySellerPage(sellerId, cursor, MAX_PAGE_SIZE);
+                for (Product product : page.getItems()) {
+                    searchIndex.put(product);
+                    facetIndex.put(product);
+                    nameTrie.put(product);
+                    recordWrite(product.getProduct_id());
+                }
+                cursor = page.getNextCursor();
+            } while (page.hasMore());
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tells whether a record is the optional header line of an import file.
+     *
+     * @param record The first record of the file
+     * @return true if it names the import columns
+     */
+    private static boolean isImportHeader(List<String> record) {
+        if (record.size() != IMPORT_COLUMNS.size()) {
+            return false;
+        }
+        for (int i = 0; i < record.size(); i++) {
+            if (!IMPORT_COLUMNS.get(i).equalsIgnoreCase(record.get(i).trim())) {
+                return false;
+            }
         }
+        return true;
+    }
+
+    /**
+     * Turns one import row into a product, applying the product validation rules
+     * and the limits of the products table, so a bad row is rejected rather than
+     * failing the whole bulk load.
+     *
+     * @param record The row's fields
+     * @param seller The seller who will own the product
+     * @return The product to create
+     * @throws IllegalArgumentException If the row is invalid
+     */
+    private Product parseImportRow(List<String> record, User seller) {
+        if (record.size() != IMPORT_COLUMNS.size()) {
+            throw new IllegalArgumentException("Expected " + IMPORT_COLUMNS.size() + " fields but found " + record.size());
+        }
+        String name = record.get(0).trim();
+        String description = record.get(1).trim();
+        double price;
+        int quantity;
+        try {
+            price = Double.parseDouble(record.get(2).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price: " + record.get(2));
+        }
+        try {
+            quantity = Integer.parseInt(record.get(3).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid quantity: " + record.get(3));
+        }
+
+        validateProductData(name, description, price, quantity);
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Product name cannot be longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        if (!(price <= MAX_PRICE)) {
+            throw new IllegalArgumentException("Price cannot exceed " + MAX_PRICE);
+        }
+        return new Product(name, description, price, quantity, seller.getUser_id());
+    }
+
+    /**
+     * Writes a rejected row as a CSV line: line number, reason, then the original fields.
+     *
+     * @param rejects The reject output
+     * @param line Line on which the row started
+     * @param reason Why the row was rejected
+     * @param record The row's fields
+     * @throws IOException If writing fails
+     */
+    private static void writeReject(Writer rejects, long line, String reason, List<String> record) throws IOException {
+        StringBuilder out = new StringBuilder();
+        out.append(line).append(',').append(CsvReader.escape(reason));
+        for (String field : record) {
+            out.append(',').append(CsvReader.escape(field));
+        }
+        rejects.write(out.append(System.lineSeparator()).toString());
     }
 
     /**
      * Retrieves a product by its ID.
+     * Recently read products are served from the product cache.
      *
      * @param productId The unique identifier of the product
      * @return The requested Product object
@@ -62,7 +446,7 @@ public class ProductService {
      */
     public Product getProduct(int productId) {
         try {
-            Product product = productDAO.getProductById(productId);
+            Product product = productCache.get(productId, productDAO::getProductById);
             if (product == null) {
                 throw new IllegalArgumentException("Product not found with ID: " + productId);
             }
@@ -74,47 +458,328 @@ public class ProductService {
 
     /**
      * Updates an existing product's information.
-     * Only the original seller can update their products.
+     * Only the original seller can update their products. Ownership and the version
+     * check are part of the single update statement, so the stored product is not read
+     * first and the seller ID on the given object is not trusted. The update only applies
+     * if nobody has changed the product since the given object was read; otherwise
+     * CONFLICT is returned and the caller should reload the product.
      *
-     * @param product The updated product information
+     * @param product The updated product information, carrying the version it was read at
      * @param seller The user attempting to update the product
-     * @return true if update was successful
+     * @return SUCCESS, NOT_FOUND, NOT_OWNER, or CONFLICT if the product changed since it was read
      * @throws RuntimeException If database operation fails
-     * @throws IllegalArgumentException If seller doesn't own the product or validation fails
+     * @throws IllegalArgumentException If user is not a seller or validation fails
      */
-    public boolean updateProduct(Product product, User seller) {
+    public ProductWriteResult updateProduct(Product product, User seller) {
+        validateSellerRole(seller);
+        validateProductData(product.getName(), product.getDescription(),
+                product.getPrice(), product.getQuantity());
+        indexLock.readLock().lock();
         try {
-            validateProductOwnership(product, seller);
+            ProductWriteResult result = productDAO.updateProduct(product, seller.getUser_id());
+            productCache.invalidate(product.getProduct_id());
+            if (result == ProductWriteResult.SUCCESS) {
+                product.setSeller_id(seller.getUser_id());
+                searchIndex.put(product);
+                facetIndex.put(product);
+                nameTrie.put(product);
+                recordWrite(product.getProduct_id());
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while updating product: " + e.getMessage());
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Updates many products at once in a single transaction, sent to the database in
+     * batches. Each product is checked for ownership and version just like
+     * {@link #updateProduct(Product, User)} and gets its own result; if any row breaks
+     * a database constraint, none of the products are changed.
+     *
+     * @param products The updated products, each carrying the version it was read at
+     * @param seller The user attempting to update the products
+     * @return The result for each product ID, in input order
+     * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If user is not a seller, validation fails or a product appears twice
+     */
+    public Map<Integer, ProductWriteResult> updateProducts(List<Product> products, User seller) {
+        validateSellerRole(seller);
+        Set<Integer> productIds = new HashSet<>();
+        for (Product product : products) {
             validateProductData(product.getName(), product.getDescription(),
                     product.getPrice(), product.getQuantity());
+            if (!productIds.add(product.getProduct_id())) {
+                throw new IllegalArgumentException("Product " + product.getProduct_id() + " is listed more than once");
+            }
+        }
+        indexLock.readLock().lock();
+        try {
+            Map<Integer, ProductWriteResult> results = productDAO.updateProducts(products, seller.getUser_id());
+            for (Product product : products) {
+                productCache.invalidate(product.getProduct_id());
+                if (results.get(product.getProduct_id()) == ProductWriteResult.SUCCESS) {
+                    product.setSeller_id(seller.getUser_id());
+                    searchIndex.put(product);
+                    facetIndex.put(product);
+                    nameTrie.put(product);
+                    recordWrite(product.getProduct_id());
+                }
+            }
+            return results;
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while updating products: " + e.getMessage());
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
 
-            return productDAO.updateProduct(product);
+    /**
+     * Changes a product's stock by a relative amount in one atomic, ownership-checked
+     * statement, leaving its other fields alone. Concurrent stock changes and checkouts
+     * are never lost, unlike writing back a whole product read earlier.
+     * Only the original seller can adjust their products' stock.
+     *
+     * @param productId The ID of the product
+     * @param delta Units to add (positive) or remove (negative)
+     * @param seller The user adjusting the stock
+     * @return SUCCESS, NOT_FOUND, NOT_OWNER, or INSUFFICIENT_STOCK if the stock would go below zero
+     * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If user is not a seller
+     */
+    public ProductWriteResult adjustStock(int productId, int delta, User seller) {
+        validateSellerRole(seller);
+        indexLock.readLock().lock();
+        try {
+            ProductWriteResult result = productDAO.adjustQuantity(productId, seller.getUser_id(), delta);
+            productCache.invalidate(productId);
+            if (result == ProductWriteResult.SUCCESS) {
+                searchIndex.adjustQuantity(productId, delta);
+                facetIndex.adjustQuantity(productId, delta);
+                recordWrite(productId);
+            }
+            return result;
         } catch (SQLException e) {
-            throw new RuntimeException("Database error while updating product: " + e.getMessage());
+            throw new RuntimeException("Database error while adjusting stock: " + e.getMessage());
+        } finally {
+            indexLock.readLock().unlock();
         }
     }
 
     /**
      * Deletes a product from the system.
-     * Only the original seller can delete their products.
+     * Only the original seller can delete their products; ownership is checked
+     * by the delete statement itself.
      *
      * @param productId The ID of the product to delete
      * @param seller The user attempting to delete the product
-     * @return true if deletion was successful
+     * @return SUCCESS, NOT_FOUND, or NOT_OWNER
      * @throws RuntimeException If database operation fails
-     * @throws IllegalArgumentException If seller doesn't own the product
+     * @throws IllegalArgumentException If user is not a seller
      */
-    public boolean deleteProduct(int productId, User seller) {
+    public ProductWriteResult deleteProduct(int productId, User seller) {
+        validateSellerRole(seller);
+        indexLock.readLock().lock();
         try {
-            Product product = productDAO.getProductById(productId);
-            validateProductOwnership(product, seller);
-
-            return productDAO.deleteProduct(productId);
+            ProductWriteResult result = productDAO.deleteProduct(productId, seller.getUser_id());
+            productCache.invalidate(productId);
+            if (result == ProductWriteResult.SUCCESS) {
+                searchIndex.remove(productId);
+                facetIndex.remove(productId);
+                nameTrie.remove(productId);
+                recordWrite(productId);
+            }
+            return result;
         } catch (SQLException e) {
             throw new RuntimeException("Database error while deleting product: " + e.getMessage());
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes many products at once in a single transaction, sent to the database in
+     * batches. Each product is checked for ownership just like
+     * {@link #deleteProduct(int, User)} and gets its own result.
+     *
+     * @param seller The user attempting to delete the products
+     * @param productIds The IDs of the products to delete
+     * @return The result for each distinct product ID, in input order
+     * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If user is not a seller
+     */
+    public Map<Integer, ProductWriteResult> deleteProducts(User seller, Collection<Integer> productIds) {
+        validateSellerRole(seller);
+        indexLock.readLock().lock();
+        try {
+            Map<Integer, ProductWriteResult> results = productDAO.deleteProducts(productIds, seller.getUser_id());
+            for (Map.Entry<Integer, ProductWriteResult> result : results.entrySet()) {
+                productCache.invalidate(result.getKey());
+                if (result.getValue() == ProductWriteResult.SUCCESS) {
+                    searchIndex.remove(result.getKey());
+                    facetIndex.remove(result.getKey());
+                    nameTrie.remove(result.getKey());
+                    recordWrite(result.getKey());
+                }
+            }
+            return results;
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while deleting products: " + e.getMessage());
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Changes the prices of a seller's products matching a filter, e.g. a 10% increase
+     * across the whole catalog. The change runs as one set-based statement however many
+     * products match, and only ever touches the seller's own products. New prices are
+     * rounded to cents; products whose price would drop to zero or below, or grow too
+     * large to store, are left alone and counted as out of range.
+     *
+     * @param seller The user repricing their products
+     * @param filter Which of the seller's products to reprice
+     * @param adjustment The price change
+     * @return Counts and price totals of the change
+     * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If user is not a seller or the filter or adjustment is missing
+     */
+    public RepriceResult reprice(User seller, RepriceFilter filter, PriceAdjustment adjustment) {
+        indexLock.readLock().lock();
+        try {
+            RepriceResult result = repriceProducts(seller, filter, adjustment, false);
+            // Names are unchanged, so the name trie needs no update
+            result.getNewPrices().forEach((productId, price) -> {
+                productCache.invalidate(productId);
+                searchIndex.updatePrice(productId, price);
+                facetIndex.updatePrice(productId, price);
+                recordWrite(productId);
+            });
+            return result;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Previews {@link #reprice(User, RepriceFilter, PriceAdjustment)} without changing
+     * any price.
+     *
+     * @param seller The user repricing their products
+     * @param filter Which of the seller's products to reprice
+     * @param adjustment The price change
+     * @return Counts and price totals the change would have
+     * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If user is not a seller or the filter or adjustment is missing
+     */
+    public RepriceResult previewReprice(User seller, RepriceFilter filter, PriceAdjustment adjustment) {
+        return repriceProducts(seller, filter, adjustment, true);
+    }
+
+    /**
+     * Validates a repricing request and runs it, or its dry run.
+     *
+     * @param seller The user repricing their products
+     * @param filter Which of the seller's products to reprice
+     * @param adjustment The price change
+     * @param dryRun If true, nothing is written
+     * @return Counts and price totals of the (previewed) change
+     */
+    private RepriceResult repriceProducts(User seller, RepriceFilter filter, PriceAdjustment adjustment,
+                                          boolean dryRun) {
+        validateSellerRole(seller);
+        if (filter == null || adjustment == null) {
+            throw new IllegalArgumentException("Filter and price adjustment are required");
+        }
+        try {
+            return productDAO.repriceProducts(seller.getUser_id(), filter, adjustment, dryRun);
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while repricing products: " + e.getMessage());
         }
     }
 
+    /**
+     * Drops a deleted seller's products from in-memory state. The database removes
+     * them through ON DELETE CASCADE when the user is deleted. Register it with
+     * {@link com.keyin.User.UserService#addDeletionListener} to run on every deletion.
+     *
+     * @param sellerId ID of the deleted user
+     */
+    public void sellerRemoved(int sellerId) {
+        indexLock.readLock().lock();
+        try {
+            searchIndex.removeSeller(sellerId);
+            facetIndex.removeSeller(sellerId);
+            nameTrie.removeSeller(sellerId);
+            BuildLog log = buildLog;
+            if (log != null) {
+                log.sellerIds.add(sellerId);
+            }
+        } finally {
+            indexLock.readLock().unlock();
+        }
+        productCache.invalidateAll();
+    }
+
+    /**
+     * Runs a write that changes stock outside this service, e.g. placing an order, and
+     * then brings in-memory state up to date with the stock changes it made. An index
+     * build cannot start or finish between the two, so it never counts the change twice.
+     *
+     * @param <T> Type of the write's result
+     * @param write The stock-changing write
+     * @param quantityChanges Gets the change in quantity per product ID from the write's
+     *        result, negative when stock was taken
+     * @return The write's result
+     * @throws SQLException if the write fails; in-memory state is left alone
+     */
+    public <T> T changeStock(StockWrite<T> write, Function<? super T, Map<Integer, Integer>> quantityChanges)
+            throws SQLException {
+        indexLock.readLock().lock();
+        try {
+            T result = write.run();
+            stockChanged(quantityChanges.apply(result));
+            return result;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Brings in-memory state up to date after stock was changed outside this service.
+     * Prefer {@link #changeStock(StockWrite, Function)}, which also keeps an index build
+     * from counting the change twice.
+     *
+     * Stock taken counts as units sold towards the product name's suggestion ranking.
+     *
+     * @param quantityChanges Change in quantity per product ID, negative when stock was taken
+     */
+    public void stockChanged(Map<Integer, Integer> quantityChanges) {
+        indexLock.readLock().lock();
+        try {
+            quantityChanges.forEach((productId, delta) -> {
+                productCache.invalidate(productId);
+                searchIndex.adjustQuantity(productId, delta);
+                facetIndex.adjustQuantity(productId, delta);
+                nameTrie.recordSale(productId, -delta);
+                recordWrite(productId);
+            });
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the cache in front of single-product reads, e.g. to report its hit and miss counts.
+     *
+     * @return The product cache
+     */
+    public ProductCache getProductCache() {
+        return productCache;
+    }
+
     /**
      * Retrieves all products in the system.
      *
@@ -122,15 +787,43 @@ public class ProductService {
      * @throws RuntimeException If database operation fails
      */
     public List<Product> getAllProducts() {
+        return getAllProducts(ProductSort.DEFAULT);
+    }
+
+    /**
+     * Retrieves all products in the system in the given order. The database sorts the
+     * rows, so the list is returned as read.
+     *
+     * @param sort The ordering
+     * @return List of all products in the requested order
+     * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If the ordering is null
+     */
+    public List<Product> getAllProducts(ProductSort sort) {
+        validateSort(sort);
         try {
-            return productDAO.getAllProducts().stream()
-                    .sorted(Comparator.comparingInt(Product::getProduct_id))
-                    .collect(Collectors.toList());
+            return productDAO.getAllProducts(sort);
         } catch (SQLException e) {
             throw new RuntimeException("Database error while fetching all products: " + e.getMessage());
         }
     }
 
+    /**
+     * Streams the whole catalog for exports and reports without loading it into memory.
+     * The returned stream holds a database connection until closed, so use it
+     * in a try-with-resources block.
+     *
+     * @return A lazily populated stream of all products
+     * @throws RuntimeException If database operation fails
+     */
+    public Stream<Product> streamAllProducts() {
+        try {
+            return productDAO.streamAllProducts();
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while streaming products: " + e.getMessage());
+        }
+    }
+
     /**
      * Retrieves all products for a specific seller.
      *
@@ -140,34 +833,229 @@ public class ProductService {
      * @throws IllegalArgumentException If user is not a seller
      */
     public List<Product> getSellerProducts(User seller) {
+        return getSellerProducts(seller, ProductSort.DEFAULT);
+    }
+
+    /**
+     * Retrieves all products for a specific seller in the given order. The database
+     * sorts the rows, so the list is returned as read.
+     *
+     * @param seller The seller whose products to retrieve
+     * @param sort The ordering
+     * @return List of products belonging to the seller in the requested order
+     * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If user is not a seller or the ordering is null
+     */
+    public List<Product> getSellerProducts(User seller, ProductSort sort) {
+        validateSellerRole(seller);
+        validateSort(sort);
         try {
-            validateSellerRole(seller);
-            return productDAO.getProductsBySeller(seller.getUser_id()).stream()
-                    .sorted(Comparator.comparingInt(Product::getProduct_id))
-                    .collect(Collectors.toList());
+            return productDAO.getProductsBySeller(seller.getUser_id(), sort);
         } catch (SQLException e) {
             throw new RuntimeException("Database error while fetching seller products: " + e.getMessage());
         }
     }
 
     /**
-     * Searches for products by keyword in name or description.
+     * Retrieves one page of the catalog in product ID order.
+     *
+     * @param afterProductId Cursor from the previous page (0 for the first page)
+     * @param pageSize Number of products per page (1 to {@link #MAX_PAGE_SIZE})
+     * @return The requested page
+     * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If the cursor or page size is invalid
+     */
+    public Page<Product> getProductsPage(int afterProductId, int pageSize) {
+        try {
+            validatePageRequest(afterProductId, pageSize);
+            return productDAO.getProductsPage(afterProductId, pageSize);
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while fetching products page: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves one page of a seller's products in product ID order.
+     *
+     * @param seller The seller whose products to retrieve
+     * @param afterProductId Cursor from the previous page (0 for the first page)
+     * @param pageSize Number of products per page (1 to {@link #MAX_PAGE_SIZE})
+     * @return The requested page
+     * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If user is not a seller, or the cursor or page size is invalid
+     */
+    public Page<Product> getSellerProductsPage(User seller, int afterProductId, int pageSize) {
+        try {
+            validateSellerRole(seller);
+            validatePageRequest(afterProductId, pageSize);
+            return productDAO.getProductsBySellerPage(seller.getUser_id(), afterProductId, pageSize);
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while fetching seller products page: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves one page of product summaries in product ID order, for list views
+     * that do not show descriptions.
+     *
+     * @param afterProductId Cursor from the previous page (0 for the first page)
+     * @param pageSize Number of products per page (1 to {@link #MAX_PAGE_SIZE})
+     * @return The requested page
+     * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If the cursor or page size is invalid
+     */
+    public Page<ProductSummary> getProductSummariesPage(int afterProductId, int pageSize) {
+        validatePageRequest(afterProductId, pageSize);
+        try {
+            return productDAO.getProductSummariesPage(afterProductId, pageSize);
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while fetching products page: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves one page of a seller's product summaries in product ID order, for list
+     * views that do not show descriptions.
      *
-     * @param keyword The search term to look for
-     * @return List of products matching the search term, sorted by ID in ascending order
+     * @param seller The seller whose products to retrieve
+     * @param afterProductId Cursor from the previous page (0 for the first page)
+     * @param pageSize Number of products per page (1 to {@link #MAX_PAGE_SIZE})
+     * @return The requested page
      * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If user is not a seller, or the cursor or page size is invalid
+     */
+    public Page<ProductSummary> getSellerProductSummariesPage(User seller, int afterProductId, int pageSize) {
+        validateSellerRole(seller);
+        validatePageRequest(afterProductId, pageSize);
+        try {
+            return productDAO.getProductSummariesBySellerPage(seller.getUser_id(), afterProductId, pageSize);
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while fetching seller products page: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves one page of a filtered and sorted product listing, for buyers narrowing
+     * the catalog by price, seller or stock. Filtering, ordering and paging all happen
+     * in the database; request the next page with {@link ProductQuery#after(ProductSummary)}.
+     *
+     * @param query The filters, ordering, page size and cursor
+     * @return The requested page
+     * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If the query is missing or its page size is invalid
+     */
+    public Page<ProductSummary> findProducts(ProductQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Product query cannot be null");
+        }
+        validatePageRequest(0, query.getPageSize());
+        try {
+            return productDAO.findProducts(query);
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while filtering products: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves one page of products with their sellers' details, read with a single
+     * join per page rather than one seller lookup per product.
+     *
+     * @param afterProductId Cursor from the previous page (0 for the first page)
+     * @param pageSize Number of products per page (1 to {@link #MAX_PAGE_SIZE})
+     * @return The requested page of products with seller details
+     * @throws RuntimeException If database operation fails
+     * @throws IllegalArgumentException If the cursor or page size is invalid
+     */
+    public Page<ProductWithSeller> getProductsWithSellersPage(int afterProductId, int pageSize) {
+        validatePageRequest(afterProductId, pageSize);
+        try {
+            return productDAO.getProductsWithSellersPage(afterProductId, pageSize);
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while fetching products with sellers: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Searches for products by keyword in name or description.
+     * Answered from the in-memory search index, not the database.
+     *
+     * @param keyword The search term to look for; partial words match by prefix
+     * @return List of products matching the search term, most relevant first, without descriptions
      * @throws IllegalArgumentException If search keyword is empty
      */
     public List<Product> searchProducts(String keyword) {
-        try {
-            if (keyword == null || keyword.trim().isEmpty()) {
-                throw new IllegalArgumentException("Search keyword cannot be empty");
+        validateSearchKeyword(keyword);
+        ensureIndexes();
+        return searchIndex.search(keyword.trim());
+    }
+
+    /**
+     * Retrieves one page of search results, most relevant first.
+     * Answered from the in-memory search index, not the database.
+     *
+     * @param keyword The search term to look for; partial words match by prefix
+     * @param offset Cursor from the previous page (0 for the first page)
+     * @param pageSize Number of products per page (1 to {@link #MAX_PAGE_SIZE})
+     * @return The requested page of products without descriptions; its cursor is the offset of the next page
+     * @throws IllegalArgumentException If search keyword is empty, or the offset or page size is invalid
+     */
+    public Page<Product> searchProducts(String keyword, int offset, int pageSize) {
+        validateSearchKeyword(keyword);
+        validatePageRequest(offset, pageSize);
+        ensureIndexes();
+        return searchIndex.search(keyword.trim(), offset, pageSize);
+    }
+
+    /**
+     * Counts products per price bucket, seller and stock status for a filter sidebar.
+     * Each facet is counted with the other selections applied but not its own, from the
+     * in-memory bitmap index rather than the database.
+     *
+     * @param sellerId Selected seller, or null for all sellers
+     * @param priceBuckets Selected price buckets, any of which may match; empty for all prices
+     * @param inStockOnly true if only products with stock are selected
+     * @return The facet counts
+     * @throws IllegalArgumentException If a price bucket does not exist
+     */
+    public ProductFacets getFacets(Integer sellerId, Set<Integer> priceBuckets, boolean inStockOnly) {
+        if (priceBuckets == null) {
+            throw new IllegalArgumentException("Price buckets cannot be null");
+        }
+        ensureIndexes();
+        return facetIndex.count(sellerId, priceBuckets, inStockOnly);
+    }
+
+    /**
+     * Suggests product names for search-as-you-type, most popular first. Popularity is
+     * the number of products listed under a name plus the units of it sold. Answered
+     * from the in-memory name trie, not the database.
+     *
+     * @param prefix Text typed so far; case and extra whitespace are ignored
+     * @param limit Maximum number of names (1 to {@link ProductNameTrie#DEFAULT_TOP_K})
+     * @return The suggested names, empty if the prefix is blank or nothing matches
+     * @throws IllegalArgumentException If the limit is out of range
+     */
+    public List<String> suggestProductNames(String prefix, int limit) {
+        if (limit < 1 || limit > ProductNameTrie.DEFAULT_TOP_K) {
+            throw new IllegalArgumentException("Suggestion limit must be between 1 and " + ProductNameTrie.DEFAULT_TOP_K);
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        ensureIndexes();
+        return nameTrie.suggest(prefix, limit);
+    }
+
+    /**
+     * Builds the search, facet and name suggestion indexes on first use if {@link #buildSearchIndex()} was not called at startup.
+     */
+    private void ensureIndexes() {
+        if (!indexesBuilt) {
+            synchronized (this) {
+                if (!indexesBuilt) {
+                    buildSearchIndex();
+                }
             }
-            return productDAO.searchProducts(keyword.trim()).stream()
-                    .sorted(Comparator.comparingInt(Product::getProduct_id))
-                    .collect(Collectors.toList());
-        } catch (SQLException e) {
-            throw new RuntimeException("Database error while searching products: " + e.getMessage());
         }
     }
 
@@ -195,6 +1083,46 @@ public class ProductService {
         }
     }
 
+    /**
+     * Validates a search keyword.
+     *
+     * @param keyword Keyword to validate
+     * @throws IllegalArgumentException If the keyword is null or blank
+     */
+    private void validateSearchKeyword(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search keyword cannot be empty");
+        }
+    }
+
+    /**
+     * Validates a page request.
+     *
+     * @param afterProductId Cursor (key or offset) to validate
+     * @param pageSize Page size to validate
+     * @throws IllegalArgumentException If the cursor is negative or the page size is out of range
+     */
+    private void validatePageRequest(int afterProductId, int pageSize) {
+        if (afterProductId < 0) {
+            throw new IllegalArgumentException("Page cursor cannot be negative");
+        }
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Validates a listing order.
+     *
+     * @param sort Ordering to validate
+     * @throws IllegalArgumentException If the ordering is null
+     */
+    private void validateSort(ProductSort sort) {
+        if (sort == null) {
+            throw new IllegalArgumentException("Sort order cannot be null");
+        }
+    }
+
     /**
      * Validates that a user has seller role.
      *
@@ -209,20 +1137,4 @@ public class ProductService {
             throw new IllegalArgumentException("User must be a seller to perform this action");
         }
     }
-
-    /**
-     * Validates that a product exists and belongs to the seller.
-     *
-     * @param product The product to validate
-     * @param seller The seller who should own the product
-     * @throws IllegalArgumentException If product not found or doesn't belong to seller
-     */
-    private void validateProductOwnership(Product product, User seller) {
-        if (product == null) {
-            throw new IllegalArgumentException("Product not found");
-        }
-        if (product.getSeller_id() != seller.getUser_id()) {
-            throw new IllegalArgumentException("You can only modify your own products");
-        }
-    }
-}
\ No newline at end of file
+}
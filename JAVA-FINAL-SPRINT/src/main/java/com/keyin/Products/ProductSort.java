@@ -0,0 +1,110 @@
+package com.keyin.Products;
+
+import java.util.Comparator;
+
+/**
+ * Ordering of a product listing: a sort key and a direction, with product ID as the
+ * tie-breaker in the same direction. Repositories turn it into an {@code ORDER BY}
+ * so rows arrive sorted and nothing is re-sorted in the JVM.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public final class ProductSort {
+    /** Product ID order, oldest listing first. */
+    public static final ProductSort DEFAULT = new ProductSort(ProductSortKey.ID, false);
+
+    private final ProductSortKey key;
+    private final boolean descending;
+
+    private ProductSort(ProductSortKey key, boolean descending) {
+        this.key = key;
+        this.descending = descending;
+    }
+
+    /**
+     * Creates an ascending ordering.
+     *
+     * @param key Column to order by
+     * @return The ordering
+     * @throws IllegalArgumentException if the key is null
+     */
+    public static ProductSort by(ProductSortKey key) {
+        return by(key, false);
+    }
+
+    /**
+     * Creates an ordering.
+     *
+     * @param key Column to order by
+     * @param descending true to list the highest value first
+     * @return The ordering
+     * @throws IllegalArgumentException if the key is null
+     */
+    public static ProductSort by(ProductSortKey key, boolean descending) {
+        if (key == null) {
+            throw new IllegalArgumentException("Sort key cannot be null");
+        }
+        return new ProductSort(key, descending);
+    }
+
+    /**
+     * Gets the same ordering, highest value first.
+     *
+     * @return The descending ordering
+     */
+    public ProductSort descending() {
+        return new ProductSort(key, true);
+    }
+
+    /**
+     * Gets the column the listing is ordered by.
+     *
+     * @return The sort key
+     */
+    public ProductSortKey getKey() {
+        return key;
+    }
+
+    /**
+     * Tells whether the listing runs from the highest value down.
+     *
+     * @return true for descending order
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Gets the SQL ordering, e.g. {@code ORDER BY price DESC, product_id DESC}, which a
+     * backward scan of the {@code (price, product_id)} index returns without a sort.
+     *
+     * @return The ORDER BY clause
+     */
+    public String toOrderBy() {
+        String direction = descending ? " DESC" : "";
+        if (key == ProductSortKey.ID) {
+            return "ORDER BY product_id" + direction;
+        }
+        return "ORDER BY " + key.getColumn() + direction + ", product_id" + direction;
+    }
+
+    /**
+     * Gets this ordering over summaries, for repositories that sort in memory.
+     *
+     * @return The comparator
+     */
+    public Comparator<ProductSummary> comparator() {
+        return descending ? key.comparator().reversed() : key.comparator();
+    }
+
+    /**
+     * Gets this ordering over products, for repositories that sort in memory.
+     *
+     * @return The comparator
+     */
+    public Comparator<Product> productComparator() {
+        return descending ? key.productComparator().reversed() : key.productComparator();
+    }
+}
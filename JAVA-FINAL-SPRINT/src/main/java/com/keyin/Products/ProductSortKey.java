@@ -0,0 +1,85 @@
+package com.keyin.Products;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * Column a product listing is ordered by. Ties are always broken by product ID, so
+ * every ordering is total and can be paged with a keyset cursor on
+ * {@code (column, product_id)}. Each column has an index on {@code (column, product_id)},
+ * so an ordered listing with a LIMIT reads only the rows it returns.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public enum ProductSortKey {
+    /** Oldest listing first; the primary key order. */
+    ID("product_id", ProductSummary::getProduct_id, Product::getProduct_id),
+    /** Alphabetical by name. */
+    NAME("name", ProductSummary::getName, Product::getName),
+    /** Cheapest first. */
+    PRICE("price", product -> BigDecimal.valueOf(product.getPrice()), product -> BigDecimal.valueOf(product.getPrice())),
+    /**
+     * Earliest created first. Only database summaries carry the timestamp, so in-memory
+     * stores, which hand out IDs in creation order, order by ID instead.
+     */
+    CREATED_AT("created_at", ProductSummary::getProduct_id, Product::getProduct_id);
+
+    private final String column;
+    private final Function<ProductSummary, Comparable<?>> summaryKey;
+    private final Function<Product, Comparable<?>> productKey;
+
+    ProductSortKey(String column, Function<ProductSummary, Comparable<?>> summaryKey,
+                   Function<Product, Comparable<?>> productKey) {
+        this.column = column;
+        this.summaryKey = summaryKey;
+        this.productKey = productKey;
+    }
+
+    /**
+     * Gets the column to order by.
+     *
+     * @return The SQL column name
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the sort value of a row, e.g. to bind as a keyset cursor. Not meaningful for
+     * {@link #CREATED_AT}, whose cursor value is the summary's creation time instead.
+     *
+     * @param product The row
+     * @return The value of the sort column
+     */
+    public Object keyOf(ProductSummary product) {
+        return summaryKey.apply(product);
+    }
+
+    /**
+     * Gets the ascending order of this key over summaries with ties broken by product
+     * ID, for repositories that sort in memory.
+     *
+     * @return The comparator
+     */
+    public Comparator<ProductSummary> comparator() {
+        return comparing(summaryKey).thenComparingInt(ProductSummary::getProduct_id);
+    }
+
+    /**
+     * Gets the ascending order of this key over products with ties broken by product
+     * ID, for repositories that sort in memory.
+     *
+     * @return The comparator
+     */
+    public Comparator<Product> productComparator() {
+        return comparing(productKey).thenComparingInt(Product::getProduct_id);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Comparator<T> comparing(Function<T, Comparable<?>> key) {
+        return Comparator.comparing(row -> (Comparable) key.apply(row));
+    }
+}
@@ -0,0 +1,118 @@
+package com.keyin.Products;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a product shown in list views. The description, which can be
+ * long and is never shown in a list, is left out so list queries stay small.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class ProductSummary {
+    private final int product_id;
+    private final String name;
+    private final double price;
+    private final int quantity;
+    private final int seller_id;
+    private final LocalDateTime created_at;
+
+    /**
+     * Constructs a product summary without a creation time.
+     *
+     * @param product_id Unique identifier of the product
+     * @param name Name of the product
+     * @param price Price of the product
+     * @param quantity Available quantity
+     * @param seller_id ID of the seller
+     */
+    public ProductSummary(int product_id, String name, double price, int quantity, int seller_id) {
+        this(product_id, name, price, quantity, seller_id, null);
+    }
+
+    /**
+     * Constructs a product summary.
+     *
+     * @param product_id Unique identifier of the product
+     * @param name Name of the product
+     * @param price Price of the product
+     * @param quantity Available quantity
+     * @param seller_id ID of the seller
+     * @param created_at When the product was listed, or null if unknown
+     */
+    public ProductSummary(int product_id, String name, double price, int quantity, int seller_id,
+                          LocalDateTime created_at) {
+        this.product_id = product_id;
+        this.name = name;
+        this.price = price;
+        this.quantity = quantity;
+        this.seller_id = seller_id;
+        this.created_at = created_at;
+    }
+
+    /**
+     * Summarizes a full product.
+     *
+     * @param product The product
+     */
+    public ProductSummary(Product product) {
+        this(product.getProduct_id(), product.getName(), product.getPrice(), product.getQuantity(),
+                product.getSeller_id());
+    }
+
+    /**
+     * Gets the product ID.
+     *
+     * @return The product ID
+     */
+    public int getProduct_id() {
+        return product_id;
+    }
+
+    /**
+     * Gets the product name.
+     *
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the product price.
+     *
+     * @return The price
+     */
+    public double getPrice() {
+        return price;
+    }
+
+    /**
+     * Gets the available quantity.
+     *
+     * @return The quantity
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Gets the seller's ID.
+     *
+     * @return The seller ID
+     */
+    public int getSeller_id() {
+        return seller_id;
+    }
+
+    /**
+     * Gets when the product was listed. Carried so a page sorted by creation time can
+     * be continued after this row even if the row is deleted meanwhile.
+     *
+     * @return The creation time, or null if the store does not record it
+     */
+    public LocalDateTime getCreated_at() {
+        return created_at;
+    }
+}
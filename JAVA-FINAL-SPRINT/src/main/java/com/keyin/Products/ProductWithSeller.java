@@ -0,0 +1,64 @@
+package com.keyin.Products;
+
+/**
+ * A product summary together with a summary of its seller, as read by a single
+ * join of the products and users tables.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class ProductWithSeller {
+    private final ProductSummary product;
+    private final String sellerUsername;
+    private final String sellerEmail;
+
+    /**
+     * Constructs a product row with its seller summary.
+     *
+     * @param product The product summary
+     * @param sellerUsername Username of the seller, or null if the seller no longer exists
+     * @param sellerEmail Email of the seller, or null if the seller no longer exists
+     */
+    public ProductWithSeller(ProductSummary product, String sellerUsername, String sellerEmail) {
+        this.product = product;
+        this.sellerUsername = sellerUsername;
+        this.sellerEmail = sellerEmail;
+    }
+
+    /**
+     * Gets the product summary.
+     *
+     * @return The product summary
+     */
+    public ProductSummary getProduct() {
+        return product;
+    }
+
+    /**
+     * Gets the seller's username.
+     *
+     * @return The username, or null if the seller is unknown
+     */
+    public String getSellerUsername() {
+        return sellerUsername;
+    }
+
+    /**
+     * Gets the seller's email.
+     *
+     * @return The email, or null if the seller is unknown
+     */
+    public String getSellerEmail() {
+        return sellerEmail;
+    }
+
+    /**
+     * Tells whether the seller row was found.
+     *
+     * @return true if seller details are present
+     */
+    public boolean hasSeller() {
+        return sellerUsername != null;
+    }
+}
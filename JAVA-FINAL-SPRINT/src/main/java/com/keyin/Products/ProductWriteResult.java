@@ -0,0 +1,21 @@
+package com.keyin.Products;
+
+/**
+ * Outcome of a write to a single product.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public enum ProductWriteResult {
+    /** The write was applied. */
+    SUCCESS,
+    /** No product with the given ID exists. */
+    NOT_FOUND,
+    /** The product belongs to another seller; nothing was written. */
+    NOT_OWNER,
+    /** The product was changed by someone else since it was read; nothing was written. */
+    CONFLICT,
+    /** The stock change would take the quantity below zero; nothing was written. */
+    INSUFFICIENT_STOCK
+}
@@ -0,0 +1,104 @@
+package com.keyin.Products;
+
+import java.util.Locale;
+
+/**
+ * Selects which of a seller's products a repricing applies to. An unset criterion
+ * matches everything, so {@link #all()} selects the whole catalog. Instances are
+ * immutable; each {@code with} method returns a narrowed copy.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public final class RepriceFilter {
+    private static final RepriceFilter ALL = new RepriceFilter(null, null, null);
+
+    private final String nameContains;
+    private final Double minPrice;
+    private final Double maxPrice;
+
+    private RepriceFilter(String nameContains, Double minPrice, Double maxPrice) {
+        this.nameContains = nameContains;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    /**
+     * Gets a filter that matches every product.
+     *
+     * @return The filter
+     */
+    public static RepriceFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Narrows the filter to products whose name contains some text, ignoring case.
+     *
+     * @param text Text the name must contain; null or blank removes the criterion
+     * @return The narrowed filter
+     */
+    public RepriceFilter withNameContaining(String text) {
+        String trimmed = text == null || text.trim().isEmpty() ? null : text.trim();
+        return new RepriceFilter(trimmed, minPrice, maxPrice);
+    }
+
+    /**
+     * Narrows the filter to products priced within a range, bounds included.
+     *
+     * @param min Lowest current price, or null for no lower bound
+     * @param max Highest current price, or null for no upper bound
+     * @return The narrowed filter
+     * @throws IllegalArgumentException if min is greater than max
+     */
+    public RepriceFilter withPriceBetween(Double min, Double max) {
+        if (min != null && max != null && min > max) {
+            throw new IllegalArgumentException("Minimum price cannot be greater than maximum price");
+        }
+        return new RepriceFilter(nameContains, min, max);
+    }
+
+    /**
+     * Gets the text product names must contain.
+     *
+     * @return The text, or null if names are not filtered
+     */
+    public String getNameContains() {
+        return nameContains;
+    }
+
+    /**
+     * Gets the lowest current price matched.
+     *
+     * @return The bound, or null if there is none
+     */
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    /**
+     * Gets the highest current price matched.
+     *
+     * @return The bound, or null if there is none
+     */
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * Checks a product against the filter, for repositories that filter in memory.
+     *
+     * @param product The product
+     * @return true if every set criterion matches
+     */
+    public boolean matches(Product product) {
+        if (nameContains != null && !product.getName().toLowerCase(Locale.ROOT).contains(nameContains.toLowerCase(Locale.ROOT))) {
+            return false;
+        }
+        if (minPrice != null && product.getPrice() < minPrice) {
+            return false;
+        }
+        return maxPrice == null || product.getPrice() <= maxPrice;
+    }
+}
@@ -0,0 +1,109 @@
+package com.keyin.Products;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Aggregate outcome of a repricing, or of its dry run.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class RepriceResult {
+    private final boolean dryRun;
+    private final long matched;
+    private final long changed;
+    private final long outOfRange;
+    private final BigDecimal totalBefore;
+    private final BigDecimal totalAfter;
+    private final Map<Integer, Double> newPrices;
+
+    /**
+     * Constructs a repricing result.
+     *
+     * @param dryRun Whether prices were only previewed
+     * @param matched Number of the seller's products matching the filter
+     * @param changed Number of products whose price changed, or would change
+     * @param outOfRange Number of matching products left alone because the new price would be invalid
+     * @param totalBefore Sum of the changed products' old prices
+     * @param totalAfter Sum of the changed products' new prices
+     * @param newPrices New price per changed product ID; empty for a dry run
+     */
+    public RepriceResult(boolean dryRun, long matched, long changed, long outOfRange,
+                         BigDecimal totalBefore, BigDecimal totalAfter, Map<Integer, Double> newPrices) {
+        this.dryRun = dryRun;
+        this.matched = matched;
+        this.changed = changed;
+        this.outOfRange = outOfRange;
+        this.totalBefore = totalBefore;
+        this.totalAfter = totalAfter;
+        this.newPrices = Map.copyOf(newPrices);
+    }
+
+    /**
+     * Tells whether this is a preview; if so, no price was written.
+     *
+     * @return true for a dry run
+     */
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    /**
+     * Gets the number of the seller's products matching the filter.
+     *
+     * @return The matched count
+     */
+    public long getMatched() {
+        return matched;
+    }
+
+    /**
+     * Gets the number of products whose price changed, or would change in a dry run.
+     * Products whose rounded price stays the same are matched but not changed.
+     *
+     * @return The changed count
+     */
+    public long getChanged() {
+        return changed;
+    }
+
+    /**
+     * Gets the number of matching products left alone because their new price would
+     * be zero or less, or too large to store.
+     *
+     * @return The out-of-range count
+     */
+    public long getOutOfRange() {
+        return outOfRange;
+    }
+
+    /**
+     * Gets the sum of the changed products' prices before the change.
+     *
+     * @return The total
+     */
+    public BigDecimal getTotalBefore() {
+        return totalBefore;
+    }
+
+    /**
+     * Gets the sum of the changed products' prices after the change.
+     *
+     * @return The total
+     */
+    public BigDecimal getTotalAfter() {
+        return totalAfter;
+    }
+
+    /**
+     * Gets the new price of every product that was changed, so in-memory copies can be
+     * updated without reloading them. A dry run writes nothing and returns an empty map.
+     *
+     * @return New price per product ID
+     */
+    public Map<Integer, Double> getNewPrices() {
+        return newPrices;
+    }
+}
@@ -0,0 +1,92 @@
+package com.keyin.User;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Picks the BCrypt cost for this host. Each step up in cost doubles the hashing
+ * time, so the calibrator times {@link BCrypt#hashpw} at increasing costs and keeps
+ * the highest one that still fits the latency budget.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public final class BCryptCostCalibrator {
+    /** Target time for one hash in milliseconds, overridable with {@code -Dauth.bcrypt.budgetMillis}. */
+    public static final long DEFAULT_BUDGET_MILLIS = Long.getLong("auth.bcrypt.budgetMillis", 250L);
+    /** Lowest cost ever chosen, however slow the host, overridable with {@code -Dauth.bcrypt.minCost}. */
+    public static final int DEFAULT_MIN_COST = Integer.getInteger("auth.bcrypt.minCost", 10);
+    /** Highest cost ever chosen, however fast the host. */
+    public static final int MAX_COST = 16;
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample";
+
+    private BCryptCostCalibrator() {
+    }
+
+    /**
+     * Calibrates with the default budget and minimum cost.
+     *
+     * @return The cost to hash new passwords with
+     */
+    public static int calibrate() {
+        return calibrate(DEFAULT_BUDGET_MILLIS, DEFAULT_MIN_COST);
+    }
+
+    /**
+     * Finds the highest cost whose hash takes no longer than the budget. A cost is
+     * only measured if doubling the previous measurement could still fit, so
+     * calibration itself takes about twice the budget at most.
+     *
+     * @param budgetMillis Target time for one hash in milliseconds
+     * @param minCost Lowest acceptable cost (4 to {@link #MAX_COST})
+     * @return The chosen cost, never below minCost
+     * @throws IllegalArgumentException if minCost is out of range or the budget is not positive
+     */
+    public static int calibrate(long budgetMillis, int minCost) {
+        if (minCost < 4 || minCost > MAX_COST) {
+            throw new IllegalArgumentException("BCrypt cost must be between 4 and " + MAX_COST);
+        }
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("Hashing budget must be positive");
+        }
+        long budgetNanos = budgetMillis * 1_000_000L;
+
+        // Warm up so the first measurement does not include class loading and JIT
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(4));
+
+        int cost = minCost;
+        long elapsed = time(cost);
+        while (cost < MAX_COST && elapsed * 2 <= budgetNanos) {
+            elapsed = time(cost + 1);
+            if (elapsed > budgetNanos) {
+                break;
+            }
+            cost++;
+        }
+        return cost;
+    }
+
+    /**
+     * Reads the cost a BCrypt hash was made with.
+     *
+     * @param hash A hash such as {@code $2a$10$...}
+     * @return The cost, or -1 if the hash is not in BCrypt format
+     */
+    public static int costOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long time(int cost) {
+        long start = System.nanoTime();
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(cost));
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,266 @@
+package com.keyin.User;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limits login attempts per username, per username and source pair, and per
+ * source, so a flood of guesses cannot keep the hashing threads busy.
+ *
+ * <p>Each dimension is a fixed-size table of token buckets; a key is hashed to one
+ * slot, so memory does not grow with the number of usernames or sources an attacker
+ * invents. Keys that share a slot share a bucket, which only ever makes the limit
+ * stricter. A bucket is stored as a single {@code long}, the time at which it will be
+ * full again, and updated with compare-and-set, so no locks are taken. An attempt
+ * takes one token from each of its three buckets before the password is checked.</p>
+ *
+ * <p>A successful login gives back only the username and pair tokens, so users who
+ * know their password are not slowed down by their own logins. The source token is
+ * kept, so the source limit caps every BCrypt verification a source can cause,
+ * including logins to accounts it registered itself.</p>
+ *
+ * <p>The username limit caps guesses against one account however many sources they
+ * come from. It is a lockout, but a soft one: its defaults are higher than the pair
+ * limit's, so guesses from a single source run into their pair bucket and never empty
+ * the username's bucket. Refusing the real user takes several sources guessing at once,
+ * and only lasts while they keep going.</p>
+ *
+ * <p>A table only starts refusing unrelated keys once a spray of distinct keys sends
+ * most slots their full per-minute rate, roughly {@code slots} times that rate in
+ * attempts a minute. The default of 65536 slots, 512 KB per table, puts that well
+ * above a few tens of thousands of attempts a minute. Sources are only as distinct as
+ * callers report them: every login through the terminal interface uses
+ * {@link UserService#LOCAL_SOURCE}, so there the source limit is shared by all terminal
+ * logins.</p>
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class LoginThrottler {
+    /** Attempts allowed in a burst per username, overridable with {@code -Dauth.throttle.usernameBurst}. */
+    public static final int DEFAULT_USERNAME_BURST = Integer.getInteger("auth.throttle.usernameBurst", 20);
+    /** Sustained attempts per minute per username, overridable with {@code -Dauth.throttle.usernamePerMinute}. */
+    public static final int DEFAULT_USERNAME_PER_MINUTE = Integer.getInteger("auth.throttle.usernamePerMinute", 10);
+    /** Attempts allowed in a burst per username and source, overridable with {@code -Dauth.throttle.pairBurst}. */
+    public static final int DEFAULT_PAIR_BURST = Integer.getInteger("auth.throttle.pairBurst", 5);
+    /** Sustained attempts per minute per username and source, overridable with {@code -Dauth.throttle.pairPerMinute}. */
+    public static final int DEFAULT_PAIR_PER_MINUTE = Integer.getInteger("auth.throttle.pairPerMinute", 5);
+    /** Attempts allowed in a burst per source, overridable with {@code -Dauth.throttle.sourceBurst}. */
+    public static final int DEFAULT_SOURCE_BURST = Integer.getInteger("auth.throttle.sourceBurst", 20);
+    /** Sustained attempts per minute per source, overridable with {@code -Dauth.throttle.sourcePerMinute}. */
+    public static final int DEFAULT_SOURCE_PER_MINUTE = Integer.getInteger("auth.throttle.sourcePerMinute", 60);
+    /** Buckets per table, rounded up to a power of two, overridable with {@code -Dauth.throttle.slots}. */
+    public static final int DEFAULT_SLOTS = Integer.getInteger("auth.throttle.slots", 65536);
+
+    private static final String TOO_MANY_ATTEMPTS = "Too many login attempts, please try again later";
+
+    private final Limit usernames;
+    private final Limit pairs;
+    private final Limit sources;
+    private final LongSupplier clock;
+    private final long origin;
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejectedByUsername = new LongAdder();
+    private final LongAdder rejectedByPair = new LongAdder();
+    private final LongAdder rejectedBySource = new LongAdder();
+
+    /**
+     * Creates a throttler with the default limits.
+     */
+    public LoginThrottler() {
+        this(DEFAULT_USERNAME_BURST, DEFAULT_USERNAME_PER_MINUTE, DEFAULT_PAIR_BURST, DEFAULT_PAIR_PER_MINUTE,
+                DEFAULT_SOURCE_BURST, DEFAULT_SOURCE_PER_MINUTE, DEFAULT_SLOTS, System::nanoTime);
+    }
+
+    /**
+     * Creates a throttler.
+     *
+     * @param usernameBurst Attempts allowed in a burst per username
+     * @param usernamePerMinute Sustained attempts per minute per username
+     * @param pairBurst Attempts allowed in a burst per username and source
+     * @param pairPerMinute Sustained attempts per minute per username and source
+     * @param sourceBurst Attempts allowed in a burst per source
+     * @param sourcePerMinute Sustained attempts per minute per source
+     * @param slots Buckets per table
+     * @throws IllegalArgumentException if any value is not positive
+     */
+    public LoginThrottler(int usernameBurst, int usernamePerMinute, int pairBurst, int pairPerMinute,
+                          int sourceBurst, int sourcePerMinute, int slots) {
+        this(usernameBurst, usernamePerMinute, pairBurst, pairPerMinute, sourceBurst, sourcePerMinute, slots,
+                System::nanoTime);
+    }
+
+    /**
+     * Creates a throttler with an explicit clock, for tests.
+     *
+     * @param usernameBurst Attempts allowed in a burst per username
+     * @param usernamePerMinute Sustained attempts per minute per username
+     * @param pairBurst Attempts allowed in a burst per username and source
+     * @param pairPerMinute Sustained attempts per minute per username and source
+     * @param sourceBurst Attempts allowed in a burst per source
+     * @param sourcePerMinute Sustained attempts per minute per source
+     * @param slots Buckets per table
+     * @param clock Source of {@link System#nanoTime()}-style timestamps
+     */
+    LoginThrottler(int usernameBurst, int usernamePerMinute, int pairBurst, int pairPerMinute,
+                   int sourceBurst, int sourcePerMinute, int slots, LongSupplier clock) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("Throttle table size must be at least 1");
+        }
+        int tableSize = Integer.highestOneBit(Math.min(slots, 1 << 30) * 2 - 1);
+        this.usernames = new Limit(usernameBurst, usernamePerMinute, tableSize);
+        this.pairs = new Limit(pairBurst, pairPerMinute, tableSize);
+        this.sources = new Limit(sourceBurst, sourcePerMinute, tableSize);
+        this.clock = clock;
+        // Times are kept relative to construction so an empty slot (zero) always reads as full
+        this.origin = clock.getAsLong() - 1;
+    }
+
+    /**
+     * Takes one attempt from the source's bucket, the bucket of the username tried from
+     * that source, and the username's bucket.
+     *
+     * @param username Username being tried
+     * @param source Where the attempt comes from, e.g. a client address
+     * @throws IllegalStateException if any of the buckets is empty
+     */
+    public void acquire(String username, String source) {
+        long now = clock.getAsLong() - origin;
+        int sourceHash = hashOf(source);
+        int pairHash = hashOf(username, source);
+        // Narrowest first, so a source over its limit does not spend the account's tokens
+        if (!sources.tryAcquire(sourceHash, now)) {
+            rejectedBySource.increment();
+            throw new IllegalStateException(TOO_MANY_ATTEMPTS);
+        }
+        if (!pairs.tryAcquire(pairHash, now)) {
+            sources.refund(sourceHash, now);
+            rejectedByPair.increment();
+            throw new IllegalStateException(TOO_MANY_ATTEMPTS);
+        }
+        if (!usernames.tryAcquire(hashOf(username), now)) {
+            pairs.refund(pairHash, now);
+            sources.refund(sourceHash, now);
+            rejectedByUsername.increment();
+            throw new IllegalStateException(TOO_MANY_ATTEMPTS);
+        }
+        allowed.increment();
+    }
+
+    /**
+     * Gives back the username and pair tokens taken by {@link #acquire} after a
+     * successful login. The source token is kept.
+     *
+     * @param username Username that logged in
+     * @param source Where the attempt came from
+     */
+    public void succeeded(String username, String source) {
+        long now = clock.getAsLong() - origin;
+        usernames.refund(hashOf(username), now);
+        pairs.refund(hashOf(username, source), now);
+    }
+
+    /**
+     * Gets the number of attempts let through.
+     *
+     * @return The allowed count
+     */
+    public long getAllowed() {
+        return allowed.sum();
+    }
+
+    /**
+     * Gets the number of attempts rejected because the username was tried too often across all sources.
+     *
+     * @return The rejection count
+     */
+    public long getRejectedByUsername() {
+        return rejectedByUsername.sum();
+    }
+
+    /**
+     * Gets the number of attempts rejected because the username was tried too often from one source.
+     *
+     * @return The rejection count
+     */
+    public long getRejectedByPair() {
+        return rejectedByPair.sum();
+    }
+
+    /**
+     * Gets the number of attempts rejected because the source tried too often.
+     *
+     * @return The rejection count
+     */
+    public long getRejectedBySource() {
+        return rejectedBySource.sum();
+    }
+
+    private static int hashOf(String key) {
+        return key == null ? 0 : key.hashCode();
+    }
+
+    private static int hashOf(String username, String source) {
+        return 31 * hashOf(username) + hashOf(source);
+    }
+
+    /**
+     * One table of token buckets. Each slot holds the time at which its bucket is
+     * full again; every attempt moves that time one interval further out, and an
+     * attempt is refused once it would lie more than a burst's worth of intervals
+     * ahead of now.
+     */
+    private static final class Limit {
+        private final AtomicLongArray refilledAt;
+        private final int mask;
+        private final int shift;
+        private final long intervalNanos;
+        private final long burstNanos;
+
+        private Limit(int burst, int perMinute, int tableSize) {
+            if (burst < 1 || perMinute < 1) {
+                throw new IllegalArgumentException("Throttle limits must be positive");
+            }
+            this.refilledAt = new AtomicLongArray(tableSize);
+            this.mask = tableSize - 1;
+            this.shift = 32 - Integer.numberOfTrailingZeros(tableSize);
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+            this.burstNanos = intervalNanos * burst;
+        }
+
+        private boolean tryAcquire(int hash, long now) {
+            int slot = slotOf(hash);
+            while (true) {
+                long current = refilledAt.get(slot);
+                long next = Math.max(current, now) + intervalNanos;
+                if (next - now > burstNanos) {
+                    return false;
+                }
+                if (refilledAt.compareAndSet(slot, current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        private void refund(int hash, long now) {
+            int slot = slotOf(hash);
+            while (true) {
+                long current = refilledAt.get(slot);
+                if (current <= now) {
+                    return;
+                }
+                if (refilledAt.compareAndSet(slot, current, Math.max(now, current - intervalNanos))) {
+                    return;
+                }
+            }
+        }
+
+        private int slotOf(int hash) {
+            // Fibonacci hashing spreads similar keys such as user1, user2 over the table
+            return (hash * 0x9E3779B9 >>> shift) & mask;
+        }
+    }
+}
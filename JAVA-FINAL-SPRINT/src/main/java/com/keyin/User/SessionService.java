@@ -0,0 +1,367 @@
+package com.keyin.User;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Issues opaque session tokens after a login so later calls can be authenticated
+ * without paying for BCrypt again.
+ *
+ * <p>Sessions live in a {@link ConcurrentHashMap} keyed by token and expire after a
+ * period without use. Validating a token is a map lookup plus a write of the new
+ * expiry time; it allocates nothing. Expired sessions are removed by a single sweeper
+ * walking a timing wheel: each session is filed in the slot of the tick it would
+ * expire at, and when the sweeper reaches that slot it either drops the session or,
+ * if it was used in the meantime, re-files it under its new expiry. No per-session
+ * timers exist.</p>
+ *
+ * <p>Each wheel slot is an intrusive doubly-linked list of the sessions themselves,
+ * so a logout or revocation unlinks its session at once rather than leaving it queued
+ * until its tick. The wheel therefore never holds more than the live sessions. Their
+ * number is capped by a counter reserved with compare-and-set before a session is
+ * added, and a session keeps only the user's {@link UserSummary}, never the password
+ * hash.</p>
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class SessionService implements AutoCloseable {
+    /** Idle time after which a session expires, overridable with {@code -Dauth.session.ttlMinutes}. */
+    public static final long DEFAULT_TTL_MINUTES = Long.getLong("auth.session.ttlMinutes", 30L);
+    /** Maximum number of live sessions, overridable with {@code -Dauth.session.maxSessions}. */
+    public static final int DEFAULT_MAX_SESSIONS = Integer.getInteger("auth.session.maxSessions", 1_000_000);
+
+    private static final int TOKEN_BYTES = 32;
+    private static final int WHEEL_SLOTS = 64;
+
+    private final UserService userService;
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    /** Guards the wheel's links; each slot is a circular list headed by a sentinel. */
+    private final Object wheelLock = new Object();
+    private final Session[] wheel;
+    private final SecureRandom random = new SecureRandom();
+    private final long ttlNanos;
+    private final long tickNanos;
+    private final int maxSessions;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService sweeper;
+    private long sweptTick;
+
+    /**
+     * Creates a session store with the default time-to-live and capacity, swept in the background.
+     *
+     * @param userService Service that verifies credentials
+     */
+    public SessionService(UserService userService) {
+        this(userService, DEFAULT_TTL_MINUTES, TimeUnit.MINUTES, DEFAULT_MAX_SESSIONS);
+    }
+
+    /**
+     * Creates a session store swept in the background by one daemon thread.
+     *
+     * @param userService Service that verifies credentials
+     * @param ttl Idle time after which a session expires
+     * @param unit Unit of the time-to-live
+     * @param maxSessions Maximum number of live sessions
+     * @throws IllegalArgumentException if ttl or maxSessions is not positive
+     */
+    public SessionService(UserService userService, long ttl, TimeUnit unit, int maxSessions) {
+        this(userService, unit.toNanos(ttl), maxSessions, System::nanoTime, true);
+    }
+
+    /**
+     * Creates a session store with an explicit clock and no background sweeper, for tests.
+     *
+     * @param userService Service that verifies credentials
+     * @param ttlNanos Idle time after which a session expires, in nanoseconds
+     * @param maxSessions Maximum number of live sessions
+     * @param clock Source of {@link System#nanoTime()}-style timestamps
+     */
+    SessionService(UserService userService, long ttlNanos, int maxSessions, LongSupplier clock) {
+        this(userService, ttlNanos, maxSessions, clock, false);
+    }
+
+    private SessionService(UserService userService, long ttlNanos, int maxSessions, LongSupplier clock,
+                           boolean startSweeper) {
+        if (ttlNanos <= 0) {
+            throw new IllegalArgumentException("Session time-to-live must be positive");
+        }
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("Session capacity must be at least 1");
+        }
+        this.userService = userService;
+        this.ttlNanos = ttlNanos;
+        // The wheel spans a little more than one time-to-live, so a fresh expiry never laps it
+        this.tickNanos = Math.max(1, ttlNanos / (WHEEL_SLOTS - 1));
+        this.maxSessions = maxSessions;
+        this.clock = clock;
+        this.wheel = new Session[WHEEL_SLOTS];
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            Session sentinel = new Session(null, null, 0);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            wheel[i] = sentinel;
+        }
+        this.sweptTick = clock.getAsLong() / tickNanos;
+        userService.addDeletionListener(this::revokeUser);
+
+        if (startSweeper) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "session-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleAtFixedRate(this::sweep, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+        } else {
+            sweeper = null;
+        }
+    }
+
+    /**
+     * Verifies credentials and opens a session.
+     *
+     * @param username Username attempting to login
+     * @param password Plain text password to verify
+     * @return The session token
+     * @throws IllegalArgumentException if credentials invalid
+     * @throws IllegalStateException if the session limit is reached
+     */
+    public String login(String username, String password) {
+        return issue(userService.login(username, password));
+    }
+
+    /**
+     * Opens a session for a user who has already been authenticated.
+     *
+     * @param user The authenticated user
+     * @return The session token
+     * @throws IllegalStateException if the session limit is reached
+     */
+    public String issue(User user) {
+        int count;
+        do {
+            count = sessionCount.get();
+            if (count >= maxSessions) {
+                throw new IllegalStateException("Too many active sessions, please try again later");
+            }
+        } while (!sessionCount.compareAndSet(count, count + 1));
+
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Session session = new Session(token,
+                new UserSummary(user.getUser_id(), user.getUsername(), user.getEmail(), user.getRole()),
+                clock.getAsLong() + ttlNanos);
+        // Filed before it becomes visible, so a logout always finds it linked
+        synchronized (wheelLock) {
+            schedule(session);
+        }
+        sessions.put(token, session);
+        return token;
+    }
+
+    /**
+     * Looks up the user behind a token and extends the session.
+     *
+     * @param token The session token
+     * @return The user, or null if the token is unknown or expired
+     */
+    public UserSummary authenticate(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (now - session.expiresAt >= 0) {
+            return null;
+        }
+        session.expiresAt = now + ttlNanos;
+        return session.user;
+    }
+
+    /**
+     * Ends a session.
+     *
+     * @param token The session token
+     * @return true if the session existed
+     */
+    public boolean logout(String token) {
+        if (token == null) {
+            return false;
+        }
+        Session session = sessions.remove(token);
+        if (session == null) {
+            return false;
+        }
+        discard(session);
+        return true;
+    }
+
+    /**
+     * Ends every session of a user. Called for each user deleted through the user
+     * service. This scans all sessions and is meant for rare administrative changes.
+     *
+     * @param userId ID of the user
+     * @return The number of sessions ended
+     */
+    public int revokeUser(int userId) {
+        int revoked = 0;
+        for (Session session : sessions.values()) {
+            if (session.user.getUser_id() == userId && sessions.remove(session.token, session)) {
+                discard(session);
+                revoked++;
+            }
+        }
+        return revoked;
+    }
+
+    /**
+     * Gets the number of sessions held, including expired ones not yet swept.
+     *
+     * @return The session count
+     */
+    public long size() {
+        return sessionCount.get();
+    }
+
+    /**
+     * Counts the sessions filed in the timing wheel.
+     *
+     * @return The number of linked sessions
+     */
+    int scheduled() {
+        synchronized (wheelLock) {
+            int count = 0;
+            for (Session head : wheel) {
+                for (Session session = head.next; session != head; session = session.next) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Advances the timing wheel to the current time, removing every session whose
+     * slot came due and that was not used since it was filed.
+     */
+    void sweep() {
+        synchronized (wheelLock) {
+            long now = clock.getAsLong();
+            long currentTick = now / tickNanos;
+            // After a long pause every slot is due at most once
+            long firstTick = Math.max(sweptTick + 1, currentTick - WHEEL_SLOTS + 1);
+            for (long tick = firstTick; tick <= currentTick; tick++) {
+                Session head = wheel[slotOf(tick)];
+                // Sessions re-filed into this same slot land after the last one and wait for its next turn
+                Session last = head.prev;
+                Session session = head.next;
+                while (session != head) {
+                    Session next = session.next;
+                    unlink(session);
+                    if (now - session.expiresAt >= 0) {
+                        if (sessions.remove(session.token, session)) {
+                            sessionCount.decrementAndGet();
+                        }
+                    } else {
+                        schedule(session);
+                    }
+                    if (session == last) {
+                        break;
+                    }
+                    session = next;
+                }
+            }
+            sweptTick = currentTick;
+        }
+    }
+
+    /**
+     * Stops the background sweeper, if any.
+     */
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Unlinks a session that was just removed from the map and gives back its place.
+     *
+     * @param session The removed session
+     */
+    private void discard(Session session) {
+        synchronized (wheelLock) {
+            unlink(session);
+        }
+        sessionCount.decrementAndGet();
+    }
+
+    /**
+     * Files a session at the tail of the slot of the tick it expires at. A session
+     * extended meanwhile is simply re-filed when the sweeper reaches that slot.
+     * Called with the wheel lock held.
+     *
+     * @param session The session, not currently linked
+     */
+    private void schedule(Session session) {
+        // Round up so a session is never inspected before it is due
+        long tick = (session.expiresAt + tickNanos - 1) / tickNanos;
+        Session head = wheel[slotOf(tick)];
+        session.prev = head.prev;
+        session.next = head;
+        head.prev.next = session;
+        head.prev = session;
+    }
+
+    /**
+     * Takes a session out of its slot; does nothing if it is not linked. Called with
+     * the wheel lock held.
+     *
+     * @param session The session
+     */
+    private static void unlink(Session session) {
+        if (session.next == null) {
+            return;
+        }
+        session.prev.next = session.next;
+        session.next.prev = session.prev;
+        session.prev = null;
+        session.next = null;
+    }
+
+    private static int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) WHEEL_SLOTS);
+    }
+
+    /**
+     * A live session: the token, its user and when it expires unless used again,
+     * linked into the wheel slot of its expiry tick.
+     */
+    private static final class Session {
+        private final String token;
+        private final UserSummary user;
+        private volatile long expiresAt;
+        private Session prev;
+        private Session next;
+
+        private Session(String token, UserSummary user, long expiresAt) {
+            this.token = token;
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
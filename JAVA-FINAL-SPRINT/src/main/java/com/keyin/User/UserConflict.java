@@ -0,0 +1,17 @@
+package com.keyin.User;
+
+/**
+ * Which unique column, if any, stops a new user from being created.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public enum UserConflict {
+    /** Neither the username nor the email is taken. */
+    NONE,
+    /** Another user already has the username. */
+    USERNAME,
+    /** Another user already has the email. */
+    EMAIL
+}
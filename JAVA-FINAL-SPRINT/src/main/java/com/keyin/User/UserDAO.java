@@ -1,33 +1,51 @@
 package com.keyin.User;
 
 import com.keyin.Database.DatabaseConfig;
+
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for managing User entities in the database.
  * Handles all database operations related to users including CRUD operations.
+ * Connections are borrowed from the pool per operation and returned afterwards.
  *
  * @author Kyle Hollett, Brad Ayers, Brian Janes
  * @version 1.0
  * @since 2024-11-27
  */
-public class UserDAO {
-    private Connection connection;
+public class UserDAO implements UserRepository {
+    /** Inserts tried by createUserIfAbsent while the conflicting row keeps disappearing. */
+    private static final int MAX_CREATE_ATTEMPTS = 3;
+
+    private final DataSource dataSource;
 
     /**
-     * Initializes the UserDAO with a database connection.
+     * Initializes the UserDAO with the shared connection pool.
      * @throws RuntimeException if database connection fails
      */
     public UserDAO() {
         try {
-            this.connection = DatabaseConfig.getConnection();
+            this.dataSource = DatabaseConfig.getDataSource();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to connect to database", e);
         }
     }
 
+    /**
+     * Initializes the UserDAO with the given data source.
+     * @param dataSource The data source to borrow connections from
+     */
+    public UserDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     /**
      * Creates a new user in the database.
      *
@@ -35,24 +53,99 @@ public class UserDAO {
      * @return User object with assigned ID if successful, null otherwise
      * @throws SQLException if database operation fails
      */
+    @Override
     public User createUser(User user) throws SQLException {
         String sql = "INSERT INTO users (username, password, email, role) VALUES (?, ?, ?, ?::user_role) RETURNING user_id";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, user.getUsername());
             stmt.setString(2, user.getPassword());
             stmt.setString(3, user.getEmail());
             stmt.setString(4, user.getRole());
 
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                user.setUser_id(rs.getInt("user_id"));
-                return user;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    user.setUser_id(rs.getInt("user_id"));
+                    return user;
+                }
             }
         }
         return null;
     }
 
+    /**
+     * Creates a new user unless the username or email is taken. The insert skips
+     * conflicting rows instead of failing. Only when it skipped is a second query run
+     * to tell which unique column was taken; being a separate statement, it sees rows
+     * committed by a concurrent signup that the insert's own snapshot would miss.
+     *
+     * @param user User to insert; its ID is set when it was created
+     * @return {@link UserConflict#NONE} if the user was created, otherwise the column that blocked it
+     * @throws SQLException if database operation fails
+     */
+    @Override
+    public UserConflict createUserIfAbsent(User user) throws SQLException {
+        String sql = "INSERT INTO users (username, password, email, role) VALUES (?, ?, ?, ?::user_role) "
+                + "ON CONFLICT DO NOTHING RETURNING user_id";
+
+        // The conflicting row can be deleted before it is classified; the insert is then simply retried
+        for (int attempt = 0; attempt < MAX_CREATE_ATTEMPTS; attempt++) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setString(1, user.getUsername());
+                stmt.setString(2, user.getPassword());
+                stmt.setString(3, user.getEmail());
+                stmt.setString(4, user.getRole());
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        user.setUser_id(rs.getInt("user_id"));
+                        return UserConflict.NONE;
+                    }
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Error creating user: " + e.getMessage());
+            }
+            UserConflict conflict = findConflict(user.getUsername(), user.getEmail());
+            if (conflict != UserConflict.NONE) {
+                return conflict;
+            }
+        }
+        throw new SQLException("Error creating user: conflicting user changed during every attempt");
+    }
+
+    /**
+     * Tells whether a username or email is already taken, using the unique indexes
+     * on both columns in a single query.
+     *
+     * @param username Username to look up
+     * @param email Email to look up
+     * @return {@link UserConflict#NONE} if both are free, otherwise the first taken column
+     * @throws SQLException if database operation fails
+     */
+    @Override
+    public UserConflict findConflict(String username, String email) throws SQLException {
+        String sql = "SELECT EXISTS (SELECT 1 FROM users WHERE username = ?) AS username_taken, "
+                + "EXISTS (SELECT 1 FROM users WHERE email = ?) AS email_taken";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, username);
+            stmt.setString(2, email);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                if (rs.getBoolean("username_taken")) {
+                    return UserConflict.USERNAME;
+                }
+                return rs.getBoolean("email_taken") ? UserConflict.EMAIL : UserConflict.NONE;
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error checking username and email: " + e.getMessage());
+        }
+    }
+
     /**
      * Retrieves a user by their ID.
      *
@@ -60,26 +153,57 @@ public class UserDAO {
      * @return User object if found, null otherwise
      * @throws SQLException if database operation fails
      */
+    @Override
     public User getUserById(int userId) throws SQLException {
         String sql = "SELECT * FROM users WHERE user_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return new User(
-                        rs.getInt("user_id"),
-                        rs.getString("username"),
-                        rs.getString("password"),
-                        rs.getString("email"),
-                        rs.getString("role")
-                );
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapUser(rs);
+                }
             }
         }
         return null;
     }
 
+    /**
+     * Retrieves several users by ID with a single {@code = ANY(?)} query,
+     * binding the IDs as one array parameter so the statement text stays the same
+     * however many IDs are passed.
+     *
+     * @param userIds IDs of the users to retrieve; duplicates are allowed
+     * @return The users found, keyed by ID; missing IDs are absent from the map
+     * @throws SQLException if database operation fails
+     */
+    @Override
+    public Map<Integer, User> getUsersByIds(Collection<Integer> userIds) throws SQLException {
+        Map<Integer, User> users = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return users;
+        }
+        String sql = "SELECT * FROM users WHERE user_id = ANY(?)";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            Array ids = connection.createArrayOf("integer", new LinkedHashSet<>(userIds).toArray());
+            try {
+                stmt.setArray(1, ids);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        User user = mapUser(rs);
+                        users.put(user.getUser_id(), user);
+                    }
+                }
+            } finally {
+                ids.free();
+            }
+        }
+        return users;
+    }
+
     /**
      * Retrieves a user by their username.
      *
@@ -87,48 +211,66 @@ public class UserDAO {
      * @return User object if found, null otherwise
      * @throws SQLException if database operation fails
      */
+    @Override
     public User getUserByUsername(String username) throws SQLException {
         String sql = "SELECT * FROM users WHERE username = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return new User(
-                        rs.getInt("user_id"),
-                        rs.getString("username"),
-                        rs.getString("password"),
-                        rs.getString("email"),
-                        rs.getString("role")
-                );
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapUser(rs);
+                }
             }
         }
         return null;
     }
 
     /**
-     * Retrieves all users from the database.
+     * Retrieves all users from the database, ordered by ID. The primary key index
+     * returns them in that order, so no sort is needed.
      *
      * @return List of all users
      * @throws SQLException if database operation fails
      */
+    @Override
     public List<User> getAllUsers() throws SQLException {
         List<User> users = new ArrayList<>();
-        String sql = "SELECT * FROM users";
-        try (Statement stmt = connection.createStatement();
+        String sql = "SELECT * FROM users ORDER BY user_id";
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                users.add(new User(
-                        rs.getInt("user_id"),
-                        rs.getString("username"),
-                        rs.getString("password"),
-                        rs.getString("email"),
-                        rs.getString("role")
-                ));
+                users.add(mapUser(rs));
             }
         }
         return users;
     }
 
+    /**
+     * Retrieves a summary of every user, ordered by ID. The password column is not
+     * selected, so no hashes are read or sent over the wire.
+     *
+     * @return List of user summaries
+     * @throws SQLException if database operation fails
+     */
+    @Override
+    public List<UserSummary> getAllUserSummaries() throws SQLException {
+        List<UserSummary> users = new ArrayList<>();
+        String sql = "SELECT user_id, username, email, role FROM users ORDER BY user_id";
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                users.add(new UserSummary(rs.getInt("user_id"), rs.getString("username"),
+                        rs.getString("email"), rs.getString("role")));
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Error retrieving user summaries: " + e.getMessage());
+        }
+        return users;
+    }
+
     /**
      * Deletes a user from the database.
      *
@@ -136,10 +278,12 @@ public class UserDAO {
      * @return true if deletion was successful, false otherwise
      * @throws SQLException if database operation fails
      */
+    @Override
     public boolean deleteUser(int userId) throws SQLException {
         String sql = "DELETE FROM users WHERE user_id = ?";
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             return stmt.executeUpdate() > 0;
         }
@@ -152,9 +296,11 @@ public class UserDAO {
      * @return true if update was successful, false otherwise
      * @throws SQLException if database operation fails
      */
+    @Override
     public boolean updateUser(User user) throws SQLException {
         String sql = "UPDATE users SET username = ?, password = ?, email = ?, role = ?::user_role WHERE user_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, user.getUsername());
             stmt.setString(2, user.getPassword());
             stmt.setString(3, user.getEmail());
@@ -164,6 +310,29 @@ public class UserDAO {
         }
     }
 
+    /**
+     * Replaces a user's password hash if it still has the expected value.
+     *
+     * @param userId ID of the user
+     * @param expectedHash The hash the caller read
+     * @param newHash The replacement hash
+     * @return true if the hash was replaced, false if the user is gone or the hash changed
+     * @throws SQLException if database operation fails
+     */
+    @Override
+    public boolean updatePassword(int userId, String expectedHash, String newHash) throws SQLException {
+        String sql = "UPDATE users SET password = ? WHERE user_id = ? AND password = ?";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, newHash);
+            stmt.setInt(2, userId);
+            stmt.setString(3, expectedHash);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new SQLException("Error updating password: " + e.getMessage());
+        }
+    }
+
     /**
      * Prints all users to console for debugging purposes.
      *
@@ -177,4 +346,21 @@ public class UserDAO {
                         ", Role: " + u.getRole()
         ));
     }
-}
\ No newline at end of file
+
+    /**
+     * Maps the current row of a result set to a User.
+     *
+     * @param rs Result set positioned on a user row
+     * @return The mapped user
+     * @throws SQLException if a column cannot be read
+     */
+    private static User mapUser(ResultSet rs) throws SQLException {
+        return new User(
+                rs.getInt("user_id"),
+                rs.getString("username"),
+                rs.getString("password"),
+                rs.getString("email"),
+                rs.getString("role")
+        );
+    }
+}
@@ -0,0 +1,122 @@
+package com.keyin.User;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage abstraction for users.
+ * {@link UserDAO} implements it against PostgreSQL; an in-memory implementation
+ * with the same semantics is available for tests and benchmarks.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public interface UserRepository {
+
+    /**
+     * Creates a new user.
+     *
+     * @param user User object containing user information
+     * @return User object with assigned ID if successful, null otherwise
+     * @throws SQLException if the username or email is taken or storage fails
+     */
+    User createUser(User user) throws SQLException;
+
+    /**
+     * Creates a new user unless the username or email is taken, without raising a
+     * constraint violation. This is the race-free path: two concurrent signups for
+     * the same name cannot both succeed.
+     *
+     * @param user User to insert; its ID is set when it was created
+     * @return {@link UserConflict#NONE} if the user was created, otherwise the column that blocked it
+     * @throws SQLException if storage fails
+     */
+    UserConflict createUserIfAbsent(User user) throws SQLException;
+
+    /**
+     * Tells whether a username or email is already taken, as a cheap check before
+     * doing expensive work for a signup. The answer can be stale by the time the
+     * user is inserted, so {@link #createUserIfAbsent} still has the final say.
+     *
+     * @param username Username to look up
+     * @param email Email to look up
+     * @return {@link UserConflict#NONE} if both are free, otherwise the first taken column
+     * @throws SQLException if storage fails
+     */
+    UserConflict findConflict(String username, String email) throws SQLException;
+
+    /**
+     * Retrieves a user by their ID.
+     *
+     * @param userId ID of the user to retrieve
+     * @return User object if found, null otherwise
+     * @throws SQLException if storage fails
+     */
+    User getUserById(int userId) throws SQLException;
+
+    /**
+     * Retrieves several users by ID in one round trip.
+     *
+     * @param userIds IDs of the users to retrieve; duplicates are allowed
+     * @return The users found, keyed by ID; missing IDs are absent from the map
+     * @throws SQLException if storage fails
+     */
+    Map<Integer, User> getUsersByIds(Collection<Integer> userIds) throws SQLException;
+
+    /**
+     * Retrieves a user by their username.
+     *
+     * @param username Username to search for
+     * @return User object if found, null otherwise
+     * @throws SQLException if storage fails
+     */
+    User getUserByUsername(String username) throws SQLException;
+
+    /**
+     * Retrieves all users in user ID order.
+     *
+     * @return List of all users
+     * @throws SQLException if storage fails
+     */
+    List<User> getAllUsers() throws SQLException;
+
+    /**
+     * Retrieves a summary of every user, without password hashes, ordered by ID.
+     *
+     * @return List of user summaries
+     * @throws SQLException if storage fails
+     */
+    List<UserSummary> getAllUserSummaries() throws SQLException;
+
+    /**
+     * Deletes a user along with the products they sell.
+     *
+     * @param userId ID of the user to delete
+     * @return true if deletion was successful, false otherwise
+     * @throws SQLException if storage fails
+     */
+    boolean deleteUser(int userId) throws SQLException;
+
+    /**
+     * Updates user information.
+     *
+     * @param user User object containing updated information
+     * @return true if update was successful, false otherwise
+     * @throws SQLException if the new username or email is taken or storage fails
+     */
+    boolean updateUser(User user) throws SQLException;
+
+    /**
+     * Replaces a user's password hash if it still has the expected value.
+     *
+     * @param userId ID of the user
+     * @param expectedHash The hash the caller read
+     * @param newHash The replacement hash
+     * @return true if the hash was replaced, false if the user is gone or the hash changed
+     * @throws SQLException if storage fails
+     */
+    boolean updatePassword(int userId, String expectedHash, String newHash) throws SQLException;
+}
@@ -3,9 +3,19 @@ package com.keyin.User;
 import com.keyin.Roles.*;
 import org.mindrot.jbcrypt.BCrypt;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Comparator;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Service class for user-related business logic and authentication.
@@ -15,64 +25,296 @@ import java.util.stream.Collectors;
  * @since 2024-11-27
  */
 public class UserService {
-    private final UserDAO userDAO;
-    private static final int BCRYPT_WORKLOAD = 12;
+    /** Threads hashing passwords, overridable with {@code -Dauth.hashing.threads}; defaults to one per CPU. */
+    public static final int HASHING_THREADS =
+            Integer.getInteger("auth.hashing.threads", Runtime.getRuntime().availableProcessors());
+    /** Requests allowed to wait for a hashing thread, overridable with {@code -Dauth.hashing.queueCapacity}. */
+    public static final int HASHING_QUEUE_CAPACITY = Integer.getInteger("auth.hashing.queueCapacity", 64);
+
+    /** BCrypt cost used when none is given; {@link BCryptCostCalibrator} picks one per host. */
+    public static final int DEFAULT_BCRYPT_WORKLOAD = 12;
+
+    private final UserRepository userDAO;
+    private final ExecutorService hashingExecutor;
+    private final int bcryptWorkload;
+    private final LoginThrottler loginThrottler;
+    private final List<DeletionListener> deletionListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Drops state held elsewhere for a user once the user has been deleted.
+     */
+    @FunctionalInterface
+    public interface DeletionListener {
+        /**
+         * Called after a user was deleted.
+         *
+         * @param userId ID of the deleted user
+         */
+        void userDeleted(int userId);
+    }
+
+    /**
+     * Source reported for logins made through the local terminal interface. All of them
+     * share this source and so one source bucket in the {@link LoginThrottler}; callers
+     * serving remote clients should pass each client's address instead.
+     */
+    public static final String LOCAL_SOURCE = "local";
+
+    /**
+     * Constructs UserService with data access object and a default-sized
+     * executor for asynchronous logins and registrations.
+     * @param userDAO Data access object for user operations
+     */
+    public UserService(UserRepository userDAO) {
+        this(userDAO, newHashingExecutor(HASHING_THREADS, HASHING_QUEUE_CAPACITY));
+    }
+
+    /**
+     * Constructs UserService with data access object and the executor that
+     * runs {@link #loginAsync} and {@link #registerAsync}.
+     * @param userDAO Data access object for user operations
+     * @param hashingExecutor Executor for BCrypt work; should be bounded
+     */
+    public UserService(UserRepository userDAO, ExecutorService hashingExecutor) {
+        this(userDAO, hashingExecutor, DEFAULT_BCRYPT_WORKLOAD);
+    }
 
     /**
-     * Constructs UserService with data access object.
+     * Constructs UserService with data access object, hashing executor and BCrypt cost.
+     * Passwords stored with a lower cost are rehashed on the user's next login.
      * @param userDAO Data access object for user operations
+     * @param hashingExecutor Executor for BCrypt work; should be bounded
+     * @param bcryptWorkload BCrypt cost for new hashes (4 to 31)
+     * @throws IllegalArgumentException if the cost is out of range
      */
-    public UserService(UserDAO userDAO) {
+    public UserService(UserRepository userDAO, ExecutorService hashingExecutor, int bcryptWorkload) {
+        this(userDAO, hashingExecutor, bcryptWorkload, new LoginThrottler());
+    }
+
+    /**
+     * Constructs UserService with data access object, hashing executor, BCrypt cost
+     * and the throttler that limits login attempts.
+     * @param userDAO Data access object for user operations
+     * @param hashingExecutor Executor for BCrypt work; should be bounded
+     * @param bcryptWorkload BCrypt cost for new hashes (4 to 31)
+     * @param loginThrottler Limits login attempts per username, per username and source, and per source
+     * @throws IllegalArgumentException if the cost is out of range
+     */
+    public UserService(UserRepository userDAO, ExecutorService hashingExecutor, int bcryptWorkload,
+                       LoginThrottler loginThrottler) {
+        if (bcryptWorkload < 4 || bcryptWorkload > 31) {
+            throw new IllegalArgumentException("BCrypt cost must be between 4 and 31");
+        }
         this.userDAO = userDAO;
+        this.hashingExecutor = hashingExecutor;
+        this.bcryptWorkload = bcryptWorkload;
+        this.loginThrottler = loginThrottler;
+    }
+
+    /**
+     * Creates a fixed-size executor for BCrypt work with a bounded queue. BCrypt is
+     * pure CPU, so more threads than cores only adds contention; once the queue is full
+     * further requests are rejected instead of piling up.
+     *
+     * @param threads Number of hashing threads
+     * @param queueCapacity Number of requests that may wait for a thread
+     * @return The executor; its threads are daemons and do not keep the JVM alive
+     */
+    public static ExecutorService newHashingExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "bcrypt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Registers a new user on the hashing executor, keeping the BCrypt cost
+     * off the caller's thread.
+     *
+     * @param username Username for new user
+     * @param password Plain text password
+     * @param email User's email
+     * @param role User's role
+     * @return Future completing with the registered user, or exceptionally with the
+     *         same exceptions as {@link #registerUser}, or with IllegalStateException
+     *         if too many requests are already waiting
+     */
+    public CompletableFuture<User> registerAsync(String username, String password, String email, String role) {
+        return submit(() -> registerUser(username, password, email, role));
+    }
+
+    /**
+     * Authenticates a login attempt on the hashing executor, keeping the BCrypt
+     * cost off the caller's thread.
+     *
+     * @param username Username attempting to login
+     * @param password Plain text password to verify
+     * @return Future completing with the authenticated user, or exceptionally with the
+     *         same exceptions as {@link #login}, or with IllegalStateException if too many
+     *         requests are already waiting
+     */
+    public CompletableFuture<User> loginAsync(String username, String password) {
+        return loginAsync(username, password, LOCAL_SOURCE);
+    }
+
+    /**
+     * Authenticates a login attempt from the given source on the hashing executor.
+     * Throttled attempts fail before they take a place in the hashing queue.
+     *
+     * @param username Username attempting to login
+     * @param password Plain text password to verify
+     * @param source Where the attempt comes from, e.g. a client address
+     * @return Future completing like {@link #loginAsync(String, String)}
+     */
+    public CompletableFuture<User> loginAsync(String username, String password, String source) {
+        try {
+            admitLogin(username, password, source);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return submit(() -> verifyLogin(username, password, source));
+    }
+
+    /**
+     * Gets the throttler limiting login attempts, e.g. to read its rejection counts.
+     *
+     * @return The login throttler
+     */
+    public LoginThrottler getLoginThrottler() {
+        return loginThrottler;
+    }
+
+    /**
+     * Runs a task on the hashing executor, turning a full queue into a failed future.
+     *
+     * @param task The task
+     * @param <T> Result type
+     * @return Future of the task's result
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, hashingExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Too many sign-in requests in progress, please try again shortly"));
+        }
     }
 
     /**
-     * Registers a new user with individual fields.
+     * Registers a new user with individual fields. A taken username or email is
+     * detected with an index lookup before the password is hashed, so duplicates
+     * cost no BCrypt work; the insert itself still rejects a duplicate that
+     * slipped in between.
      *
      * @param username Username for new user
      * @param password Plain text password
      * @param email User's email
      * @param role User's role
      * @return Registered user
-     * @throws IllegalArgumentException if validation fails
+     * @throws IllegalArgumentException if validation fails or the username or email is taken
      */
     public User registerUser(String username, String password, String email, String role) {
         validateInputFields(username, password, email, role);
-        String hashedPassword = hashPassword(password);
-
-        User user = switch (role.toLowerCase()) {
-            case "buyer" -> new Buyer(username, hashedPassword, email);
-            case "seller" -> new Seller(username, hashedPassword, email);
-            case "admin" -> new Admin(username, hashedPassword, email);
-            default -> throw new IllegalArgumentException("Invalid role: " + role);
-        };
 
         try {
-            User existingUser = userDAO.getUserByUsername(username);
-            if (existingUser != null) {
-                throw new IllegalArgumentException("Username already exists");
-            }
-            return userDAO.createUser(user);
+            checkConflict(userDAO.findConflict(username, email));
+            String hashedPassword = hashPassword(password);
+
+            User user = switch (role.toLowerCase()) {
+                case "buyer" -> new Buyer(username, hashedPassword, email);
+                case "seller" -> new Seller(username, hashedPassword, email);
+                case "admin" -> new Admin(username, hashedPassword, email);
+                default -> throw new IllegalArgumentException("Invalid role: " + role);
+            };
+            checkConflict(userDAO.createUserIfAbsent(user));
+            return user;
         } catch (SQLException e) {
             throw new RuntimeException("Database error during registration: " + e.getMessage());
         }
     }
 
     /**
-     * Authenticates user login attempt.
+     * Turns a username or email conflict into a registration error.
+     *
+     * @param conflict The conflict reported by the repository
+     * @throws IllegalArgumentException if the username or email is taken
+     */
+    private static void checkConflict(UserConflict conflict) {
+        switch (conflict) {
+            case USERNAME -> throw new IllegalArgumentException("Username already exists");
+            case EMAIL -> throw new IllegalArgumentException("Email already registered");
+            default -> { }
+        }
+    }
+
+    /**
+     * Authenticates user login attempt. If the stored hash was made with a
+     * lower BCrypt cost than this service uses, the password is rehashed
+     * and saved while the plain text is at hand.
      *
      * @param username Username attempting to login
      * @param password Plain text password to verify
      * @return Authenticated user if successful
      * @throws IllegalArgumentException if credentials invalid
+     * @throws IllegalStateException if too many attempts were made from the local terminal or for the username
      * @throws RuntimeException if database error occurs
      */
     public User login(String username, String password) {
-        try {
-            if (username == null || password == null || username.trim().isEmpty() || password.trim().isEmpty()) {
-                throw new IllegalArgumentException("Username and password cannot be empty");
-            }
+        return login(username, password, LOCAL_SOURCE);
+    }
+
+    /**
+     * Authenticates a login attempt from the given source. Attempts are throttled
+     * per source, per username from that source and per username before the user is
+     * looked up, so a flood of guesses costs neither a query nor a BCrypt verification.
+     * Successful logins still count towards the source's limit.
+     *
+     * @param username Username attempting to login
+     * @param password Plain text password to verify
+     * @param source Where the attempt comes from, e.g. a client address
+     * @return Authenticated user if successful
+     * @throws IllegalArgumentException if credentials invalid
+     * @throws IllegalStateException if too many attempts were made from the source or for the username
+     * @throws RuntimeException if database error occurs
+     */
+    public User login(String username, String password, String source) {
+        admitLogin(username, password, source);
+        return verifyLogin(username, password, source);
+    }
+
+    /**
+     * Checks a login attempt's input and takes it from the throttler.
+     *
+     * @param username Username attempting to login
+     * @param password Plain text password to verify
+     * @param source Where the attempt comes from
+     * @throws IllegalArgumentException if the username or password is empty
+     * @throws IllegalStateException if the attempt is throttled
+     */
+    private void admitLogin(String username, String password, String source) {
+        if (username == null || password == null || username.trim().isEmpty() || password.trim().isEmpty()) {
+            throw new IllegalArgumentException("Username and password cannot be empty");
+        }
+        loginThrottler.acquire(username, source);
+    }
 
+    /**
+     * Looks up the user and verifies the password of an admitted login attempt.
+     *
+     * @param username Username attempting to login
+     * @param password Plain text password to verify
+     * @param source Where the attempt comes from
+     * @return Authenticated user if successful
+     * @throws IllegalArgumentException if credentials invalid
+     * @throws RuntimeException if database error occurs
+     */
+    private User verifyLogin(String username, String password, String source) {
+        try {
             User user = userDAO.getUserByUsername(username);
             if (user == null) {
                 throw new IllegalArgumentException("User not found");
@@ -80,6 +322,11 @@ public class UserService {
 
             boolean matches = BCrypt.checkpw(password, user.getPassword());
             if (matches) {
+                loginThrottler.succeeded(username, source);
+                // Only upgrade; a lower calibrated cost on a slow host must not weaken stored hashes
+                if (BCryptCostCalibrator.costOf(user.getPassword()) < bcryptWorkload) {
+                    rehashPassword(user, password);
+                }
                 return convertToRoleSpecificUser(user);
             }
             throw new IllegalArgumentException("Invalid password");
@@ -88,6 +335,21 @@ public class UserService {
         }
     }
 
+    /**
+     * Retrieves a summary of every user for list views, sorted by ID in ascending order.
+     * Password hashes are never read.
+     *
+     * @return List of user summaries sorted by ID
+     * @throws RuntimeException if database error occurs
+     */
+    public List<UserSummary> getAllUserSummaries() {
+        try {
+            return userDAO.getAllUserSummaries();
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error while fetching users: " + e.getMessage());
+        }
+    }
+
     /**
      * Retrieves all users from database, sorted by ID in ascending order.
      *
@@ -96,17 +358,23 @@ public class UserService {
      */
     public List<User> getAllUsers() {
         try {
-            // Sort users by ID in ascending order
-            return userDAO.getAllUsers().stream()
-                    .sorted(Comparator.comparingInt(User::getUser_id))
-                    .collect(Collectors.toList());
+            return userDAO.getAllUsers();
         } catch (SQLException e) {
             throw new RuntimeException("Error fetching users: " + e.getMessage());
         }
     }
 
     /**
-     * Deletes user by ID.
+     * Registers a listener told about every user deleted through this service.
+     *
+     * @param listener The listener
+     */
+    public void addDeletionListener(DeletionListener listener) {
+        deletionListeners.add(listener);
+    }
+
+    /**
+     * Deletes user by ID and notifies the deletion listeners.
      *
      * @param userId ID of user to delete
      * @return true if deletion successful
@@ -117,7 +385,13 @@ public class UserService {
             if (userDAO.getUserById(userId) == null) {
                 throw new IllegalArgumentException("User not found: " + userId);
             }
-            return userDAO.deleteUser(userId);
+            if (!userDAO.deleteUser(userId)) {
+                return false;
+            }
+            for (DeletionListener listener : deletionListeners) {
+                listener.userDeleted(userId);
+            }
+            return true;
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting user: " + e.getMessage());
         }
@@ -143,6 +417,24 @@ public class UserService {
         }
     }
 
+    /**
+     * Retrieves several users by ID with one storage call, for screens that would
+     * otherwise look users up one at a time.
+     *
+     * @param userIds IDs of the users to retrieve
+     * @return The users found, keyed by ID; unknown IDs are absent
+     * @throws RuntimeException if database error occurs
+     */
+    public Map<Integer, User> getUsersByIds(Collection<Integer> userIds) {
+        try {
+            Map<Integer, User> users = new HashMap<>();
+            userDAO.getUsersByIds(userIds).forEach((id, user) -> users.put(id, convertToRoleSpecificUser(user)));
+            return users;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error fetching users: " + e.getMessage());
+        }
+    }
+
     /**
      * Validates user data before registration.
      *
@@ -188,7 +480,26 @@ public class UserService {
      * @return BCrypt hashed password
      */
     private String hashPassword(String plainTextPassword) {
-        return BCrypt.hashpw(plainTextPassword, BCrypt.gensalt(BCRYPT_WORKLOAD));
+        return BCrypt.hashpw(plainTextPassword, BCrypt.gensalt(bcryptWorkload));
+    }
+
+    /**
+     * Replaces a user's hash with one at the current cost. The update only applies
+     * if the stored hash is unchanged, so a concurrent password change wins. A failed
+     * save does not fail the login; the next login simply tries again.
+     *
+     * @param user User who just logged in; its password is updated on success
+     * @param plainTextPassword The verified plain text password
+     */
+    private void rehashPassword(User user, String plainTextPassword) {
+        String newHash = hashPassword(plainTextPassword);
+        try {
+            if (userDAO.updatePassword(user.getUser_id(), user.getPassword(), newHash)) {
+                user.setPassword(newHash);
+            }
+        } catch (SQLException e) {
+            // Keep the old hash; it still verifies and is upgraded on the next login
+        }
     }
 
     /**
@@ -0,0 +1,67 @@
+package com.keyin.User;
+
+/**
+ * The columns of a user shown in list views. The password hash is left out, so
+ * listing users never reads or transfers it.
+ *
+ * @author Kyle Hollett, Brad Ayers, Brian Janes
+ * @version 1.0
+ * @since 2024-11-27
+ */
+public class UserSummary {
+    private final int user_id;
+    private final String username;
+    private final String email;
+    private final String role;
+
+    /**
+     * Constructs a user summary.
+     *
+     * @param user_id Unique identifier of the user
+     * @param username Username
+     * @param email Email address
+     * @param role Role of the user
+     */
+    public UserSummary(int user_id, String username, String email, String role) {
+        this.user_id = user_id;
+        this.username = username;
+        this.email = email;
+        this.role = role;
+    }
+
+    /**
+     * Gets the user ID.
+     *
+     * @return The user ID
+     */
+    public int getUser_id() {
+        return user_id;
+    }
+
+    /**
+     * Gets the username.
+     *
+     * @return The username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the email address.
+     *
+     * @return The email
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Gets the role.
+     *
+     * @return The role
+     */
+    public String getRole() {
+        return role;
+    }
+}
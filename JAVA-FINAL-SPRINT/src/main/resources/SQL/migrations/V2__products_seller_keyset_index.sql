@@ -0,0 +1,7 @@
+-- Keyset pagination for seller listings:
+--   SELECT ... WHERE seller_id = ? AND product_id > ? ORDER BY product_id LIMIT ?
+-- is answered by a range scan on (seller_id, product_id) with no sort step.
+-- The composite index also covers plain seller_id lookups, so the old index is dropped.
+-- The catalog-wide listing pages on the primary key and needs no new index.
+CREATE INDEX IF NOT EXISTS idx_products_seller_product ON products(seller_id, product_id);
+DROP INDEX IF EXISTS idx_products_seller;
@@ -0,0 +1,12 @@
+-- Full-text product search.
+-- search_vector is maintained by PostgreSQL on every insert/update (generated column),
+-- with name terms weighted 'A' and description terms 'B' so ts_rank favours name matches.
+-- Searches use: WHERE search_vector @@ websearch_to_tsquery('english', ?)
+-- which is answered by the GIN index instead of an ILIKE scan of the whole table.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector);
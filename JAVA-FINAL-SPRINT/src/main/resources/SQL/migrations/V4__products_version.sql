@@ -0,0 +1,7 @@
+-- Optimistic concurrency control for products.
+-- Every write to a product increments version, and ProductDAO.updateProduct only
+-- applies when the version it read is still current:
+--   UPDATE products SET ..., version = version + 1 WHERE product_id = ? AND version = ?
+-- A seller saving a stale edit form gets a conflict instead of overwriting
+-- changes (including stock taken by orders) made since the form was loaded.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 0;
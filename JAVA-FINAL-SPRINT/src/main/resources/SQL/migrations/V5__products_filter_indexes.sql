@@ -0,0 +1,14 @@
+-- Indexes for filtered product browsing (ProductQuery).
+-- ProductDAO.findProducts turns filters into range predicates and pages on
+-- (sort column, product_id), e.g. one seller's products by price:
+--   SELECT ... WHERE seller_id = ? AND price BETWEEN ? AND ?
+--     AND (price, product_id) > (?, ?) ORDER BY price, product_id LIMIT ?
+-- Each index below answers its shape of query with a range scan and no sort step,
+-- forwards or backwards for descending order.
+CREATE INDEX IF NOT EXISTS idx_products_seller_price ON products(seller_id, price, product_id);
+CREATE INDEX IF NOT EXISTS idx_products_price ON products(price, product_id);
+
+-- In-stock browsing filters on the literal "quantity > 0", which the planner matches
+-- to these partial indexes; sold-out products are left out of them entirely.
+CREATE INDEX IF NOT EXISTS idx_products_in_stock_price ON products(price, product_id) WHERE quantity > 0;
+CREATE INDEX IF NOT EXISTS idx_products_in_stock ON products(product_id) WHERE quantity > 0;
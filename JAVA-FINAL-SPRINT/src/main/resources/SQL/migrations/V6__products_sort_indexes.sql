@@ -0,0 +1,7 @@
+-- Indexes for ordered product listings (ProductSort).
+-- ProductDAO turns a sort key into ORDER BY <column>, product_id, ascending or
+-- descending, instead of the service re-sorting rows in the JVM. With a LIMIT the
+-- planner walks the matching index (backwards for DESC) and stops after the page.
+-- Price ordering is already served by idx_products_price (V5); ID by the primary key.
+CREATE INDEX IF NOT EXISTS idx_products_name ON products(name, product_id);
+CREATE INDEX IF NOT EXISTS idx_products_created ON products(created_at, product_id);
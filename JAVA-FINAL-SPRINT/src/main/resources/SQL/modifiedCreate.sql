@@ -29,7 +29,14 @@ CREATE TABLE products (
     price DECIMAL(10,2) NOT NULL,
     quantity INTEGER NOT NULL CHECK (quantity >= 0),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Incremented by every write; updates compare it for optimistic concurrency control
+    version INTEGER NOT NULL DEFAULT 0,
+    -- Full-text search document: name weighted above description
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED
 );
 
 -- Orders table
@@ -51,7 +58,17 @@ CREATE TABLE order_items (
 );
 
 -- Indexes for better query performance
-CREATE INDEX idx_products_seller ON products(seller_id);
+-- (seller_id, product_id) serves seller lookups and keyset pages of a seller's products
+CREATE INDEX idx_products_seller_product ON products(seller_id, product_id);
+CREATE INDEX idx_products_search_vector ON products USING GIN (search_vector);
+-- Filtered browsing by price, overall or per seller, with partial indexes for in-stock only
+CREATE INDEX idx_products_seller_price ON products(seller_id, price, product_id);
+CREATE INDEX idx_products_price ON products(price, product_id);
+CREATE INDEX idx_products_in_stock_price ON products(price, product_id) WHERE quantity > 0;
+CREATE INDEX idx_products_in_stock ON products(product_id) WHERE quantity > 0;
+-- Ordered listings by name or creation time
+CREATE INDEX idx_products_name ON products(name, product_id);
+CREATE INDEX idx_products_created ON products(created_at, product_id);
 CREATE INDEX idx_orders_buyer ON orders(buyer_id);
 CREATE INDEX idx_order_items_order ON order_items(order_id);
 
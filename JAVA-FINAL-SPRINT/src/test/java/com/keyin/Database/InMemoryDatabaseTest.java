@@ -0,0 +1,86 @@
+package com.keyin.Database;
+
+import com.keyin.Products.Product;
+import com.keyin.Products.ProductWithSeller;
+import com.keyin.User.User;
+import org.junit.jupiter.api.*;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryDatabaseTest {
+    private InMemoryProductRepository productRepository;
+    private InMemoryUserRepository userRepository;
+    private User seller;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        InMemoryDatabase database = new InMemoryDatabase();
+        productRepository = new InMemoryProductRepository(database);
+        userRepository = new InMemoryUserRepository(database);
+        seller = userRepository.createUser(new User("seller", "hash", "seller@test.com", "seller"));
+    }
+
+    @Test
+    @DisplayName("Test Generated IDs")
+    void testGeneratedIds() throws SQLException {
+        User buyer = userRepository.createUser(new User("buyer", "hash", "buyer@test.com", "buyer"));
+        assertTrue(buyer.getUser_id() > seller.getUser_id());
+
+        Product first = productRepository.createProduct(new Product("A", "Desc", 1.0, 1, seller.getUser_id()));
+        Product second = productRepository.createProduct(new Product("B", "Desc", 2.0, 2, seller.getUser_id()));
+        assertTrue(second.getProduct_id() > first.getProduct_id());
+    }
+
+    @Test
+    @DisplayName("Test Unique Username And Email")
+    void testUniqueConstraints() {
+        SQLException duplicateUsername = assertThrows(SQLException.class, () ->
+                userRepository.createUser(new User("seller", "hash", "other@test.com", "buyer")));
+        assertEquals("23505", duplicateUsername.getSQLState());
+
+        SQLException duplicateEmail = assertThrows(SQLException.class, () ->
+                userRepository.createUser(new User("other", "hash", "seller@test.com", "buyer")));
+        assertEquals("23505", duplicateEmail.getSQLState());
+    }
+
+    @Test
+    @DisplayName("Test Cascade On User Delete")
+    void testCascadeOnUserDelete() throws SQLException {
+        Product product = productRepository.createProduct(new Product("A", "Desc", 1.0, 1, seller.getUser_id()));
+
+        assertTrue(userRepository.deleteUser(seller.getUser_id()));
+        assertNull(productRepository.getProductById(product.getProduct_id()));
+        assertNull(userRepository.getUserByUsername("seller"));
+    }
+
+    @Test
+    @DisplayName("Test Stored Rows Are Not Shared")
+    void testStoredRowsAreCopied() throws SQLException {
+        Product product = productRepository.createProduct(new Product("A", "Desc", 1.0, 1, seller.getUser_id()));
+        product.setName("Changed");
+
+        assertEquals("A", productRepository.getProductById(product.getProduct_id()).getName());
+    }
+
+    @Test
+    @DisplayName("Test Batched User Lookup And Products With Sellers")
+    void testBatchedLookups() throws SQLException {
+        User buyer = userRepository.createUser(new User("buyer", "hash", "buyer@test.com", "buyer"));
+        Map<Integer, User> users = userRepository.getUsersByIds(List.of(seller.getUser_id(), buyer.getUser_id(),
+                seller.getUser_id(), 9999));
+        assertEquals(2, users.size());
+        assertEquals("buyer", users.get(buyer.getUser_id()).getUsername());
+
+        for (int i = 0; i < 3; i++) {
+            productRepository.createProduct(new Product("P" + i, "Desc", 1.0, 1, seller.getUser_id()));
+        }
+        Page<ProductWithSeller> page = productRepository.getProductsWithSellersPage(0, 2);
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.hasMore());
+        assertEquals("seller", page.getItems().get(0).getSellerUsername());
+        assertEquals("seller@test.com", page.getItems().get(0).getSellerEmail());
+    }
+}
@@ -0,0 +1,106 @@
+package com.keyin.Orders;
+
+import com.keyin.Database.InMemoryDatabase;
+import com.keyin.Database.InMemoryOrderRepository;
+import com.keyin.Database.InMemoryProductRepository;
+import com.keyin.Database.InMemoryUserRepository;
+import com.keyin.Products.Product;
+import com.keyin.Products.ProductService;
+import com.keyin.User.User;
+import org.junit.jupiter.api.*;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderSystemTest {
+    private ProductService productService;
+    private OrderService orderService;
+    private User buyer;
+    private Product laptop;
+    private Product mouse;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        InMemoryDatabase database = new InMemoryDatabase();
+        InMemoryUserRepository userDAO = new InMemoryUserRepository(database);
+        productService = new ProductService(new InMemoryProductRepository(database));
+        orderService = new OrderService(new InMemoryOrderRepository(database), productService);
+
+        User seller = userDAO.createUser(new User("seller", "password", "seller@test.com", "seller"));
+        buyer = userDAO.createUser(new User("buyer", "password", "buyer@test.com", "buyer"));
+        laptop = productService.createProduct("Laptop", "Gaming laptop", 1500.00, 5, seller);
+        mouse = productService.createProduct("Mouse", "Wireless mouse", 25.50, 10, seller);
+    }
+
+    @Test
+    @DisplayName("Test Place Order")
+    void testPlaceOrder() {
+        Order order = orderService.placeOrder(buyer, Map.of(laptop.getProduct_id(), 2, mouse.getProduct_id(), 3));
+
+        assertTrue(order.getOrder_id() > 0);
+        assertEquals(2, order.getItems().size());
+        assertEquals(3076.50, order.getTotal_amount(), 0.001);
+        assertEquals(3, productService.getProduct(laptop.getProduct_id()).getQuantity());
+        assertEquals(7, productService.getProduct(mouse.getProduct_id()).getQuantity());
+        assertEquals(3, productService.searchProducts("laptop").get(0).getQuantity());
+        assertEquals(1, orderService.getOrders(buyer).size());
+    }
+
+    @Test
+    @DisplayName("Test Insufficient Stock Rolls Back Whole Order")
+    void testInsufficientStock() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                orderService.placeOrder(buyer, Map.of(laptop.getProduct_id(), 6, mouse.getProduct_id(), 1)));
+        assertTrue(e.getMessage().contains(String.valueOf(laptop.getProduct_id())));
+
+        assertEquals(5, productService.getProduct(laptop.getProduct_id()).getQuantity());
+        assertEquals(10, productService.getProduct(mouse.getProduct_id()).getQuantity());
+        assertTrue(orderService.getOrders(buyer).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test Order Validation")
+    void testOrderValidation() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.placeOrder(buyer, Map.of()));
+        assertThrows(IllegalArgumentException.class, () ->
+                orderService.placeOrder(buyer, Map.of(laptop.getProduct_id(), 0)));
+        User seller = new User(99, "other", "password", "other@test.com", "seller");
+        assertThrows(IllegalArgumentException.class, () ->
+                orderService.placeOrder(seller, Map.of(laptop.getProduct_id(), 1)));
+    }
+
+    @Test
+    @DisplayName("Test Concurrent Buyers Never Oversell")
+    void testConcurrentBuyers() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(pool.submit(() -> {
+                try {
+                    orderService.placeOrder(buyer, Map.of(laptop.getProduct_id(), 1));
+                    return true;
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            }));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        long placed = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                placed++;
+            }
+        }
+        assertEquals(5, placed);
+        assertEquals(0, productService.getProduct(laptop.getProduct_id()).getQuantity());
+    }
+}
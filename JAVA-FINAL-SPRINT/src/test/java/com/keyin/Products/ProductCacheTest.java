@@ -0,0 +1,97 @@
+package com.keyin.Products;
+
+import org.junit.jupiter.api.*;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCacheTest {
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Map<Integer, Product> storage = new HashMap<>();
+    private final ProductCache.Loader loader = productId -> {
+        loads.incrementAndGet();
+        Product product = storage.get(productId);
+        return product == null ? null : new Product(product);
+    };
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 100; i++) {
+            storage.put(i, new Product(i, "Product " + i, "Desc", 10.0, 5, 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Test Read Through And Hit Counters")
+    void testReadThrough() throws SQLException {
+        ProductCache cache = new ProductCache(10, 1_000, now::get);
+
+        assertEquals("Product 1", cache.get(1, loader).getName());
+        cache.get(1, loader).setName("Changed");
+        assertEquals("Product 1", cache.get(1, loader).getName(), "Cached product should not be shared");
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+        assertNull(cache.get(999, loader));
+    }
+
+    @Test
+    @DisplayName("Test Size Bound And LRU Eviction")
+    void testSizeBound() throws SQLException {
+        ProductCache cache = new ProductCache(20, 1_000, now::get);
+        for (int i = 1; i <= 100; i++) {
+            cache.get(i, loader);
+            assertTrue(cache.size() <= 20);
+        }
+        assertEquals(20, cache.size());
+        assertEquals(80, cache.getEvictions());
+
+        loads.set(0);
+        cache.get(100, loader);
+        assertEquals(0, loads.get(), "Most recent product should still be cached");
+        cache.get(1, loader);
+        assertEquals(1, loads.get(), "Oldest product should have been evicted");
+    }
+
+    @Test
+    @DisplayName("Test Time To Live")
+    void testTimeToLive() throws SQLException {
+        ProductCache cache = new ProductCache(10, 1_000, now::get);
+        cache.get(1, loader);
+        cache.get(2, loader);
+
+        now.addAndGet(1_000);
+        cache.get(1, loader);
+        assertEquals(3, loads.get(), "Expired product should be reloaded");
+
+        cache.evictExpired();
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    @DisplayName("Test Invalidation")
+    void testInvalidation() throws SQLException {
+        ProductCache cache = new ProductCache(10, 1_000, now::get);
+        cache.get(1, loader);
+
+        storage.get(1).setName("Renamed");
+        cache.invalidate(1);
+        assertEquals("Renamed", cache.get(1, loader).getName());
+
+        ProductCache.Loader racingLoader = productId -> {
+            Product product = loader.load(productId);
+            cache.invalidate(productId);
+            return product;
+        };
+        cache.invalidate(2);
+        cache.get(2, racingLoader);
+        assertEquals(1, cache.size(), "Load that raced with an invalidation should not be cached");
+    }
+}
@@ -0,0 +1,122 @@
+package com.keyin.Products;
+
+import org.junit.jupiter.api.*;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductFacetIndexTest {
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex(10, 50);
+        index.build(List.of(
+                product(1, 5.00, 3, 1),
+                product(2, 20.00, 0, 1),
+                product(3, 20.00, 4, 2),
+                product(4, 75.00, 1, 2),
+                product(5, 9.99, 0, 3)));
+    }
+
+    @Test
+    @DisplayName("Test Bitmap Set Operations")
+    void testBitmapSetOperations() {
+        Random random = new Random(42);
+        BitSet expectedA = new BitSet();
+        BitSet expectedB = new BitSet();
+        RoaringBitmap a = new RoaringBitmap();
+        RoaringBitmap b = new RoaringBitmap();
+        // Dense values push the first containers past the array limit; the rest stay sparse
+        for (int i = 0; i < 20_000; i++) {
+            int dense = random.nextInt(70_000);
+            int sparse = random.nextInt(1 << 22);
+            a.add(dense);
+            expectedA.set(dense);
+            b.add(sparse);
+            expectedB.set(sparse);
+            if (i % 3 == 0) {
+                b.add(dense);
+                expectedB.set(dense);
+            }
+        }
+
+        BitSet and = (BitSet) expectedA.clone();
+        and.and(expectedB);
+        BitSet or = (BitSet) expectedA.clone();
+        or.or(expectedB);
+        BitSet andNot = (BitSet) expectedA.clone();
+        andNot.andNot(expectedB);
+
+        assertArrayEquals(and.stream().toArray(), RoaringBitmap.and(a, b).toArray());
+        assertEquals(and.cardinality(), RoaringBitmap.andCardinality(a, b));
+        assertArrayEquals(or.stream().toArray(), RoaringBitmap.or(a, b).toArray());
+        assertArrayEquals(andNot.stream().toArray(), RoaringBitmap.andNot(a, b).toArray());
+
+        // Removing values turns full containers back into arrays without losing any
+        expectedA.stream().filter(value -> value % 2 == 0).forEach(a::remove);
+        expectedA.stream().filter(value -> value % 2 == 0).forEach(expectedA::clear);
+        assertArrayEquals(expectedA.stream().toArray(), a.toArray());
+        assertEquals(expectedA.cardinality(), a.getCardinality());
+        assertFalse(a.contains(-1));
+        assertThrows(IllegalArgumentException.class, () -> a.add(-1));
+    }
+
+    @Test
+    @DisplayName("Test Facet Counts")
+    void testFacetCounts() {
+        ProductFacets facets = index.count(null, Set.of(), false);
+        assertEquals(5, facets.getMatched());
+        assertEquals(2, facets.getPriceBucketCount(0));
+        assertEquals(2, facets.getPriceBucketCount(1));
+        assertEquals(1, facets.getPriceBucketCount(2));
+        assertEquals(3, facets.getInStock());
+        assertEquals(2, facets.getOutOfStock());
+        assertEquals("$10 - $50", facets.getPriceBucketLabel(1));
+
+        // Each facet ignores its own selection, so other sellers and buckets keep their counts
+        ProductFacets selected = index.count(2, Set.of(1), true);
+        assertEquals(1, selected.getMatched());
+        assertEquals(1, selected.getPriceBucketCount(1));
+        assertEquals(1, selected.getPriceBucketCount(2));
+        assertEquals(Long.valueOf(1), selected.getSellerCounts().get(2));
+        assertNull(selected.getSellerCounts().get(1));
+
+        assertArrayEquals(new int[]{1, 3}, index.select(null, Set.of(0, 1), true).toArray());
+        assertThrows(IllegalArgumentException.class, () -> index.count(null, Set.of(3), false));
+    }
+
+    @Test
+    @DisplayName("Test Facet Index Updates")
+    void testFacetIndexUpdates() {
+        index.put(product(2, 60.00, 2, 1));
+        ProductFacets facets = index.count(null, Set.of(), false);
+        assertEquals(1, facets.getPriceBucketCount(1));
+        assertEquals(2, facets.getPriceBucketCount(2));
+        assertEquals(4, facets.getInStock());
+
+        index.updatePrice(3, 99.00);
+        index.updatePrice(42, 1.00);
+        facets = index.count(null, Set.of(), false);
+        assertEquals(0, facets.getPriceBucketCount(1));
+        assertEquals(3, facets.getPriceBucketCount(2));
+        assertEquals(5, facets.getMatched());
+
+        index.adjustQuantity(2, -2);
+        index.adjustQuantity(5, 1);
+        assertEquals(4, index.count(null, Set.of(), true).getMatched());
+
+        index.removeSeller(2);
+        index.remove(1);
+        assertEquals(2, index.size());
+        assertEquals(Long.valueOf(1), index.count(null, Set.of(), false).getSellerCounts().get(1));
+        assertFalse(index.count(null, Set.of(), false).getSellerCounts().containsKey(2));
+    }
+
+    private static Product product(int id, double price, int quantity, int sellerId) {
+        return new Product(id, "Product " + id, "Description", price, quantity, sellerId);
+    }
+}
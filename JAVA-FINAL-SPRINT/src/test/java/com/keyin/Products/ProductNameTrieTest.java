@@ -0,0 +1,120 @@
+package com.keyin.Products;
+
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductNameTrieTest {
+    private ProductNameTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new ProductNameTrie(3);
+        trie.build(List.of(
+                product(1, "Laptop", 1),
+                product(2, "Laptop Bag", 1),
+                product(3, "laptop  bag", 2),
+                product(4, "Lamp", 2),
+                product(5, "Desk", 3)));
+    }
+
+    @Test
+    @DisplayName("Test Suggestions Ranked By Popularity")
+    void testSuggestionsRankedByPopularity() {
+        assertEquals(4, trie.size());
+        // Ties are broken alphabetically; the latest listing decides how a name is shown
+        assertEquals(List.of("laptop bag", "Desk", "Lamp"), trie.suggest("", 3));
+        assertEquals(List.of("laptop bag", "Lamp", "Laptop"), trie.suggest("LA", 5));
+        assertEquals(List.of("laptop bag"), trie.suggest(" laptop   b", 3));
+        assertEquals(List.of("laptop bag", "Laptop"), trie.suggest("laptop", 2));
+        assertEquals(List.of(), trie.suggest("lapx", 3));
+
+        trie.recordSale(4, 5);
+        assertEquals(List.of("Lamp", "laptop bag", "Laptop"), trie.suggest("la", 3));
+
+        // A rebuild keeps units sold
+        trie.build(List.of(product(4, "Lamp", 2), product(6, "Lantern", 2)));
+        assertEquals(List.of("Lamp", "Lantern"), trie.suggest("la", 3));
+    }
+
+    @Test
+    @DisplayName("Test Incremental Trie Updates")
+    void testIncrementalUpdates() {
+        trie.put(product(6, "Lamp Shade", 3));
+        trie.put(product(1, "Lamp", 1));
+        assertEquals(List.of("Lamp", "laptop bag", "Lamp Shade"), trie.suggest("la", 3));
+
+        trie.remove(2);
+        trie.remove(3);
+        assertEquals(List.of(), trie.suggest("laptop", 3));
+        assertEquals(3, trie.size());
+
+        trie.removeSeller(2);
+        trie.removeSeller(1);
+        assertEquals(List.of("Lamp Shade"), trie.suggest("lam", 3));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    @DisplayName("Test Cached Completions Match A Full Scan")
+    void testCachedCompletionsMatchFullScan() {
+        Random random = new Random(7);
+        ProductNameTrie large = new ProductNameTrie(5);
+        Map<Integer, String> names = new HashMap<>();
+        Map<String, Long> sold = new HashMap<>();
+        List<Product> catalog = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            String name = randomName(random);
+            names.put(id, name);
+            catalog.add(product(id, name, id % 7));
+        }
+        large.build(catalog);
+
+        for (int step = 0; step < 2_000; step++) {
+            int id = 1 + random.nextInt(500);
+            int action = random.nextInt(3);
+            if (action == 0) {
+                String name = randomName(random);
+                names.put(id, name);
+                large.put(product(id, name, id % 7));
+            } else if (action == 1 && names.remove(id) != null) {
+                large.remove(id);
+            } else if (names.containsKey(id)) {
+                sold.merge(names.get(id), 2L, Long::sum);
+                large.recordSale(id, 2);
+            }
+        }
+
+        Map<String, Long> listings = names.values().stream()
+                .collect(Collectors.groupingBy(name -> name, Collectors.counting()));
+        for (String prefix : List.of("", "a", "b", "ab", "ba", "abc", "c", "cab")) {
+            List<String> expected = listings.keySet().stream()
+                    .filter(name -> name.startsWith(prefix))
+                    .sorted(Comparator.comparingLong((String name) -> listings.get(name) + sold.getOrDefault(name, 0L))
+                            .reversed()
+                            .thenComparing(name -> name))
+                    .limit(5)
+                    .toList();
+            assertEquals(expected, large.suggest(prefix, 5), "prefix " + prefix);
+        }
+    }
+
+    private static String randomName(Random random) {
+        char[] name = new char[1 + random.nextInt(4)];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (char) ('a' + random.nextInt(3));
+        }
+        return new String(name);
+    }
+
+    private static Product product(int id, String name, int sellerId) {
+        return new Product(id, name, "Description", 10.00, 1, sellerId);
+    }
+}
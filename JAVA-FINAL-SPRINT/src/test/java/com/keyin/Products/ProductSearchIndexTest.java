@@ -0,0 +1,91 @@
+package com.keyin.Products;
+
+import com.keyin.Database.Page;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.build(List.of(
+                product(1, "Gaming Laptop", "Fast laptop with a large screen", 1),
+                product(2, "Laptop Bag", "Padded bag", 1),
+                product(3, "Desk Lamp", "Lamp for a laptop desk", 2),
+                product(4, "Coffee Mug", "Ceramic mug", 2)));
+    }
+
+    @Test
+    @DisplayName("Test Ranked Search")
+    void testRankedSearch() {
+        List<Product> results = index.search("laptop");
+
+        assertEquals(3, results.size());
+        assertEquals(1, results.get(0).getProduct_id(), "Name and description hits should rank first");
+        assertEquals(3, results.get(2).getProduct_id(), "Description-only hit should rank last");
+    }
+
+    @Test
+    @DisplayName("Test Partial Word And All Terms Match")
+    void testPartialWordMatch() {
+        assertEquals(3, index.search("lap").size());
+        assertEquals(1, index.search("lapt bag").size());
+        assertTrue(index.search("laptop mug").isEmpty());
+        assertTrue(index.search("the").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test Incremental Updates")
+    void testIncrementalUpdates() {
+        index.put(product(4, "Laptop Stand", "Aluminium stand", 2));
+        assertEquals(4, index.search("laptop").size());
+        assertTrue(index.search("mug").isEmpty());
+
+        index.remove(1);
+        assertEquals(3, index.search("laptop").size());
+        assertNull(index.search("stand").get(0).getDescription(), "Descriptions are not kept in the index");
+
+        index.removeSeller(2);
+        assertEquals(1, index.size());
+        assertEquals(2, index.search("laptop").get(0).getProduct_id());
+    }
+
+    @Test
+    @DisplayName("Test Parallel Build And Paging")
+    void testParallelBuildAndPaging() {
+        List<Product> catalog = new ArrayList<>();
+        for (int i = 1; i <= 25_000; i++) {
+            catalog.add(product(i, "Widget " + i, i % 2 == 0 ? "Even widget" : "Odd widget", 1));
+        }
+        index.build(catalog);
+
+        assertEquals(25_000, index.size());
+        Page<Product> first = index.search("even", 0, 100);
+        Page<Product> second = index.search("even", first.getNextCursor(), 100);
+        assertEquals(100, first.getItems().size());
+        assertTrue(first.hasMore());
+        assertNotEquals(first.getItems().get(0).getProduct_id(), second.getItems().get(0).getProduct_id());
+        List<Product> all = index.search("even");
+        assertEquals(12_500, all.size());
+        assertEquals(all.get(100).getProduct_id(), second.getItems().get(0).getProduct_id());
+        assertEquals(all.get(199).getProduct_id(), second.getItems().get(99).getProduct_id());
+
+        // Long postings lists, merged from the parallel chunks, still drop removed products
+        for (int i = 4; i <= 25_000; i += 4) {
+            index.remove(i);
+        }
+        index.put(product(1, "Widget 1", "Even widget", 1));
+        assertEquals(6_251, index.search("even").size());
+        assertEquals(12_499, index.search("odd").size());
+        assertEquals(18_750, index.search("widget").size());
+    }
+
+    private static Product product(int id, String name, String description, int sellerId) {
+        return new Product(id, name, description, 10.0, 1, sellerId);
+    }
+}
@@ -1,28 +1,40 @@
 package com.keyin.Products;
 
+import com.keyin.Database.InMemoryDatabase;
+import com.keyin.Database.InMemoryProductRepository;
+import com.keyin.Database.InMemoryUserRepository;
+import com.keyin.Database.Page;
 import com.keyin.User.User;
-import com.keyin.User.UserDAO;
+import com.keyin.User.UserRepository;
 import org.junit.jupiter.api.*;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ProductSystemTest {
-    private static ProductDAO productDAO;
+    private static ProductRepository productDAO;
     private static ProductService productService;
-    private static UserDAO userDAO;
+    private static UserRepository userDAO;
     private static User testSeller;
     private Product testProduct;
 
     @BeforeAll
     static void setUp() throws SQLException {
-        productDAO = new ProductDAO();
-        productService = new ProductService();
-        userDAO = new UserDAO();
+        InMemoryDatabase database = new InMemoryDatabase();
+        productDAO = new InMemoryProductRepository(database);
+        productService = new ProductService(productDAO);
+        userDAO = new InMemoryUserRepository(database);
 
         // Create a test seller
-        testSeller = new User("testSeller", "password", "seller@test.com", "SELLER");
+        testSeller = new User("testSeller", "password", "seller@test.com", "seller");
         testSeller = userDAO.createUser(testSeller);
     }
 
@@ -99,6 +111,405 @@ public class ProductSystemTest {
         productDAO.deleteProduct(product2.getProduct_id());
     }
 
+    @Test
+    @DisplayName("Test Keyset Pagination")
+    void testKeysetPagination() throws SQLException {
+        for (int i = 0; i < 5; i++) {
+            productDAO.createProduct(new Product("Paged " + i, "Paged product", 10.0, 1, testSeller.getUser_id()));
+        }
+
+        Page<Product> first = productService.getSellerProductsPage(testSeller, 0, 2);
+        assertEquals(2, first.getItems().size());
+        assertTrue(first.hasMore());
+
+        Page<Product> second = productService.getSellerProductsPage(testSeller, first.getNextCursor(), 2);
+        assertTrue(second.getItems().get(0).getProduct_id() > first.getNextCursor());
+
+        Page<Product> last = productService.getSellerProductsPage(testSeller, second.getNextCursor(), 2);
+        assertEquals(1, last.getItems().size());
+        assertFalse(last.hasMore());
+
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsPage(0, 0));
+
+        // Clean up
+        for (Product product : productDAO.getProductsBySeller(testSeller.getUser_id())) {
+            productDAO.deleteProduct(product.getProduct_id());
+        }
+    }
+
+    @Test
+    @DisplayName("Test Product Streaming")
+    void testProductStreaming() throws SQLException {
+        Product product = productDAO.createProduct(new Product("Streamed", "Streamed product", 5.0, 1, testSeller.getUser_id()));
+
+        try (Stream<Product> products = productService.streamAllProducts()) {
+            assertTrue(products.anyMatch(p -> p.getProduct_id() == product.getProduct_id()));
+        }
+
+        // Clean up
+        productDAO.deleteProduct(product.getProduct_id());
+    }
+
+    @Test
+    @DisplayName("Test Atomic Stock Adjustment")
+    void testStockAdjustment() throws SQLException {
+        Product product = productDAO.createProduct(testProduct);
+
+        assertEquals(ProductWriteResult.SUCCESS, productService.adjustStock(product.getProduct_id(), 5, testSeller));
+        assertEquals(15, productService.getProduct(product.getProduct_id()).getQuantity());
+        assertEquals(12, productDAO.reserve(product.getProduct_id(), 3).getAsInt());
+        assertTrue(productDAO.reserve(product.getProduct_id(), 13).isEmpty());
+        assertEquals(ProductWriteResult.INSUFFICIENT_STOCK,
+                productService.adjustStock(product.getProduct_id(), -13, testSeller));
+        assertEquals(12, productService.getProduct(product.getProduct_id()).getQuantity());
+        assertEquals("Test Product", productService.getProduct(product.getProduct_id()).getName());
+
+        Map<Integer, Integer> remaining = productDAO.reserveAll(Map.of(product.getProduct_id(), 2, 999_999, 1));
+        assertEquals(Map.of(product.getProduct_id(), 10), remaining);
+
+        // Clean up
+        productDAO.deleteProduct(product.getProduct_id());
+    }
+
+    @Test
+    @DisplayName("Test Optimistic Concurrency On Update")
+    void testOptimisticConcurrency() throws SQLException {
+        Product product = productDAO.createProduct(testProduct);
+        Product firstEdit = productDAO.getProductById(product.getProduct_id());
+        Product secondEdit = productDAO.getProductById(product.getProduct_id());
+
+        firstEdit.setPrice(79.99);
+        assertEquals(ProductWriteResult.SUCCESS, productService.updateProduct(firstEdit, testSeller));
+        assertEquals(secondEdit.getVersion() + 1, firstEdit.getVersion());
+
+        secondEdit.setName("Stale Name");
+        assertEquals(ProductWriteResult.CONFLICT, productService.updateProduct(secondEdit, testSeller));
+        assertEquals("Test Product", productService.getProduct(product.getProduct_id()).getName());
+
+        // Stock changes bump the version too, so an edit loaded before them conflicts
+        productService.adjustStock(product.getProduct_id(), -1, testSeller);
+        firstEdit.setName("After Stock Change");
+        assertEquals(ProductWriteResult.CONFLICT, productService.updateProduct(firstEdit, testSeller));
+
+        // Clean up
+        productDAO.deleteProduct(product.getProduct_id());
+        assertEquals(ProductWriteResult.NOT_FOUND, productDAO.updateProduct(firstEdit, testSeller.getUser_id()));
+    }
+
+    @Test
+    @DisplayName("Test Ownership Checked Writes")
+    void testOwnershipCheckedWrites() throws SQLException {
+        Product product = productDAO.createProduct(testProduct);
+        User otherSeller = userDAO.createUser(new User("otherSeller", "password", "other@test.com", "seller"));
+
+        Product edit = productDAO.getProductById(product.getProduct_id());
+        edit.setName("Hijacked");
+        edit.setSeller_id(otherSeller.getUser_id());
+        assertEquals(ProductWriteResult.NOT_OWNER, productService.updateProduct(edit, otherSeller));
+        assertEquals(ProductWriteResult.NOT_OWNER, productService.adjustStock(product.getProduct_id(), 1, otherSeller));
+        assertEquals(ProductWriteResult.NOT_OWNER, productService.deleteProduct(product.getProduct_id(), otherSeller));
+        assertEquals("Test Product", productService.getProduct(product.getProduct_id()).getName());
+
+        assertEquals(ProductWriteResult.SUCCESS, productService.deleteProduct(product.getProduct_id(), testSeller));
+        assertEquals(ProductWriteResult.NOT_FOUND, productService.deleteProduct(product.getProduct_id(), testSeller));
+
+        // Clean up
+        userDAO.deleteUser(otherSeller.getUser_id());
+    }
+
+    @Test
+    @DisplayName("Test Summary Projections")
+    void testSummaryProjections() throws SQLException {
+        Product product = productDAO.createProduct(testProduct);
+
+        Page<ProductSummary> page = productService.getSellerProductSummariesPage(testSeller, 0, 10);
+        ProductSummary summary = page.getItems().get(0);
+        assertEquals(product.getProduct_id(), summary.getProduct_id());
+        assertEquals("Test Product", summary.getName());
+        assertEquals(10, summary.getQuantity());
+        assertEquals(product.getProduct_id(),
+                productService.getProductSummariesPage(0, 10).getItems().get(0).getProduct_id());
+
+        // Clean up
+        productDAO.deleteProduct(product.getProduct_id());
+    }
+
+    @Test
+    @DisplayName("Test Bulk Product Import")
+    void testBulkImport() throws SQLException {
+        String csv = "name,description,price,quantity\r\n"
+                + "Import Lamp,\"Bright, warm\nlight\",19.99,4\r\n"
+                + "\"Import \"\"Quoted\"\" Mug\",Ceramic mug,7.5,10\n"
+                + "\n"
+                + ",No name,1.00,1\n"
+                + "Import Chair,Wooden chair,abc,1\n"
+                + "Import Desk,Oak desk,-5,1\n"
+                + "Too,Few,Fields\n"
+                + "Import Rug,Wool rug,49.00,0";
+        StringWriter rejects = new StringWriter();
+        productService.buildSearchIndex();
+
+        ProductImportResult result = productService.importProducts(new StringReader(csv), rejects, testSeller);
+        assertEquals(3, result.getImported());
+        assertEquals(4, result.getRejected());
+
+        List<String> rejectLines = rejects.toString().lines().toList();
+        assertEquals(4, rejectLines.size());
+        assertTrue(rejectLines.get(0).startsWith("6,\"Product name cannot be empty\""));
+        assertTrue(rejectLines.get(1).startsWith("7,\"Invalid price: abc\""));
+        assertTrue(rejectLines.get(3).startsWith("9,\"Expected 4 fields but found 3\""));
+
+        List<Product> imported = productDAO.getProductsBySeller(testSeller.getUser_id());
+        assertTrue(imported.stream().anyMatch(p -> p.getDescription().equals("Bright, warm\nlight")));
+        assertTrue(imported.stream().anyMatch(p -> p.getName().equals("Import \"Quoted\" Mug")));
+        // Imported rows are added to the built indexes without a rebuild
+        assertFalse(productService.searchProducts("lamp").isEmpty());
+        assertEquals(List.of("Import Rug"), productService.suggestProductNames("import r", 5));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                productService.importProducts(new StringReader(csv), new StringWriter(), null));
+
+        // Clean up
+        for (Product product : imported) {
+            productService.deleteProduct(product.getProduct_id(), testSeller);
+        }
+    }
+
+    @Test
+    @DisplayName("Test Batched Bulk Writes")
+    void testBatchedBulkWrites() throws SQLException {
+        Product first = productDAO.createProduct(new Product(testProduct));
+        Product second = productDAO.createProduct(new Product(testProduct));
+        User otherSeller = userDAO.createUser(new User("bulkSeller", "password", "bulk@test.com", "seller"));
+        Product foreign = productDAO.createProduct(new Product("Foreign", "Not ours", 5.00, 1, otherSeller.getUser_id()));
+
+        Product firstEdit = productDAO.getProductById(first.getProduct_id());
+        firstEdit.setName("Bulk Renamed");
+        Product staleEdit = productDAO.getProductById(second.getProduct_id());
+        staleEdit.setVersion(staleEdit.getVersion() - 1);
+        Product foreignEdit = productDAO.getProductById(foreign.getProduct_id());
+        Product missing = new Product(testProduct);
+        missing.setProduct_id(Integer.MAX_VALUE);
+
+        Map<Integer, ProductWriteResult> updated = productService.updateProducts(
+                List.of(firstEdit, staleEdit, foreignEdit, missing), testSeller);
+        assertEquals(List.of(first.getProduct_id(), second.getProduct_id(), foreign.getProduct_id(), Integer.MAX_VALUE),
+                List.copyOf(updated.keySet()));
+        assertEquals(List.of(ProductWriteResult.SUCCESS, ProductWriteResult.CONFLICT,
+                ProductWriteResult.NOT_OWNER, ProductWriteResult.NOT_FOUND), List.copyOf(updated.values()));
+        assertEquals("Bulk Renamed", productService.getProduct(first.getProduct_id()).getName());
+        assertEquals(productDAO.getProductById(first.getProduct_id()).getVersion(), firstEdit.getVersion());
+        assertFalse(productService.searchProducts("renamed").isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () ->
+                productService.updateProducts(List.of(firstEdit, firstEdit), testSeller));
+
+        Map<Integer, ProductWriteResult> deleted = productService.deleteProducts(testSeller,
+                List.of(first.getProduct_id(), foreign.getProduct_id(), first.getProduct_id(), Integer.MAX_VALUE));
+        assertEquals(3, deleted.size());
+        assertEquals(ProductWriteResult.SUCCESS, deleted.get(first.getProduct_id()));
+        assertEquals(ProductWriteResult.NOT_OWNER, deleted.get(foreign.getProduct_id()));
+        assertEquals(ProductWriteResult.NOT_FOUND, deleted.get(Integer.MAX_VALUE));
+        assertNull(productDAO.getProductById(first.getProduct_id()));
+        assertTrue(productService.searchProducts("renamed").isEmpty());
+
+        // Clean up
+        productDAO.deleteProduct(second.getProduct_id());
+        userDAO.deleteUser(otherSeller.getUser_id());
+    }
+
+    @Test
+    @DisplayName("Test Set-Based Repricing")
+    void testReprice() throws SQLException {
+        Product lamp = productDAO.createProduct(new Product("Reprice Lamp", "Desk lamp", 10.00, 1, testSeller.getUser_id()));
+        Product mug = productDAO.createProduct(new Product("Reprice Mug", "Coffee mug", 0.01, 1, testSeller.getUser_id()));
+        User otherSeller = userDAO.createUser(new User("repriceSeller", "password", "reprice@test.com", "seller"));
+        Product foreign = productDAO.createProduct(new Product("Reprice Lamp", "Not ours", 10.00, 1, otherSeller.getUser_id()));
+        RepriceFilter filter = RepriceFilter.all().withNameContaining("reprice");
+        productService.buildSearchIndex();
+
+        RepriceResult preview = productService.previewReprice(testSeller, filter, PriceAdjustment.percent(12.5));
+        assertTrue(preview.isDryRun());
+        assertEquals(2, preview.getMatched());
+        // 0.01 * 1.125 rounds back to 0.01, so the mug is matched but unchanged
+        assertEquals(1, preview.getChanged());
+        assertEquals(0, new BigDecimal("11.25").compareTo(preview.getTotalAfter()));
+        assertEquals(10.00, productDAO.getProductById(lamp.getProduct_id()).getPrice());
+
+        RepriceResult applied = productService.reprice(testSeller, filter, PriceAdjustment.percent(12.5));
+        assertFalse(applied.isDryRun());
+        assertEquals(1, applied.getChanged());
+        Product repriced = productService.getProduct(lamp.getProduct_id());
+        assertEquals(11.25, repriced.getPrice());
+        assertEquals(lamp.getVersion() + 1, repriced.getVersion());
+        assertEquals(Map.of(lamp.getProduct_id(), 11.25), applied.getNewPrices());
+        // The search index is updated in place rather than rebuilt from the database
+        assertEquals(11.25, productService.searchProducts("Reprice Lamp").stream()
+                .filter(product -> product.getProduct_id() == lamp.getProduct_id())
+                .findFirst().orElseThrow().getPrice());
+        assertEquals(10.00, productDAO.getProductById(foreign.getProduct_id()).getPrice());
+
+        // A cut that would make the mug free leaves it alone
+        RepriceResult cut = productService.reprice(testSeller, filter.withPriceBetween(null, 1.00),
+                PriceAdjustment.amount(-0.01));
+        assertEquals(1, cut.getMatched());
+        assertEquals(1, cut.getOutOfRange());
+        assertEquals(0.01, productDAO.getProductById(mug.getProduct_id()).getPrice());
+
+        assertEquals("+12.5%", PriceAdjustment.percent(12.5).toString());
+        assertThrows(IllegalArgumentException.class, () -> PriceAdjustment.percent(-100));
+        assertThrows(IllegalArgumentException.class, () -> PriceAdjustment.amount(0.001));
+        assertThrows(IllegalArgumentException.class, () ->
+                productService.reprice(otherSeller, null, PriceAdjustment.percent(5)));
+
+        // Clean up
+        productDAO.deleteProduct(lamp.getProduct_id());
+        productDAO.deleteProduct(mug.getProduct_id());
+        userDAO.deleteUser(otherSeller.getUser_id());
+    }
+
+    @Test
+    @DisplayName("Test Filtered Product Query")
+    void testFilteredProductQuery() throws SQLException {
+        User querySeller = userDAO.createUser(new User("querySeller", "password", "query@test.com", "seller"));
+        int sellerId = querySeller.getUser_id();
+        Product cheap = productDAO.createProduct(new Product("Query Pen", "Pen", 2.50, 5, sellerId));
+        Product soldOut = productDAO.createProduct(new Product("Query Ink", "Ink", 7.00, 0, sellerId));
+        Product mid = productDAO.createProduct(new Product("Query Pad", "Pad", 7.00, 3, sellerId));
+        Product dear = productDAO.createProduct(new Product("Query Desk", "Desk", 250.00, 1, sellerId));
+
+        ProductQuery byPrice = ProductQuery.builder()
+                .seller(sellerId)
+                .priceBetween(2.00, 100.00)
+                .sortBy(ProductSortKey.PRICE, true)
+                .pageSize(2)
+                .build();
+        Page<ProductSummary> first = productService.findProducts(byPrice);
+        // Equal prices are ordered by ID, descending like the price
+        assertEquals(List.of(mid.getProduct_id(), soldOut.getProduct_id()),
+                first.getItems().stream().map(ProductSummary::getProduct_id).toList());
+        assertTrue(first.hasMore());
+        Page<ProductSummary> second = productService.findProducts(byPrice.after(first.getItems().get(1)));
+        assertEquals(List.of(cheap.getProduct_id()),
+                second.getItems().stream().map(ProductSummary::getProduct_id).toList());
+        assertFalse(second.hasMore());
+
+        ProductQuery inStock = ProductQuery.builder().seller(sellerId).inStockOnly(true).build();
+        assertEquals(List.of(cheap.getProduct_id(), mid.getProduct_id(), dear.getProduct_id()),
+                productService.findProducts(inStock).getItems().stream().map(ProductSummary::getProduct_id).toList());
+
+        assertThrows(IllegalArgumentException.class, () ->
+                ProductQuery.builder().priceBetween(10.00, 5.00).build());
+        assertThrows(IllegalArgumentException.class, () ->
+                productService.findProducts(ProductQuery.builder().pageSize(ProductService.MAX_PAGE_SIZE + 1).build()));
+
+        // Clean up
+        userDAO.deleteUser(sellerId);
+    }
+
+    @Test
+    @DisplayName("Test Sorted Listings")
+    void testSortedListings() throws SQLException {
+        User sortSeller = userDAO.createUser(new User("sortSeller", "password", "sort@test.com", "seller"));
+        Product banana = productDAO.createProduct(new Product("Banana", "Fruit", 3.00, 1, sortSeller.getUser_id()));
+        Product apple = productDAO.createProduct(new Product("Apple", "Fruit", 5.00, 1, sortSeller.getUser_id()));
+        Product cherry = productDAO.createProduct(new Product("Cherry", "Fruit", 3.00, 1, sortSeller.getUser_id()));
+
+        assertEquals(List.of(apple.getProduct_id(), cherry.getProduct_id(), banana.getProduct_id()),
+                productService.getSellerProducts(sortSeller, ProductSort.by(ProductSortKey.PRICE).descending())
+                        .stream().map(Product::getProduct_id).toList());
+        assertEquals(List.of("Apple", "Banana", "Cherry"),
+                productService.getSellerProducts(sortSeller, ProductSort.by(ProductSortKey.NAME))
+                        .stream().map(Product::getName).toList());
+        assertEquals(List.of(cherry.getProduct_id(), apple.getProduct_id(), banana.getProduct_id()),
+                productService.getSellerProducts(sortSeller, ProductSort.by(ProductSortKey.CREATED_AT, true))
+                        .stream().map(Product::getProduct_id).toList());
+        assertEquals("ORDER BY name DESC, product_id DESC", ProductSort.by(ProductSortKey.NAME, true).toOrderBy());
+
+        ProductQuery byName = ProductQuery.builder()
+                .seller(sortSeller.getUser_id())
+                .sort(ProductSort.by(ProductSortKey.NAME))
+                .pageSize(2)
+                .build();
+        Page<ProductSummary> first = productService.findProducts(byName);
+        assertEquals("Banana", first.getItems().get(1).getName());
+        assertEquals("Cherry", productService.findProducts(byName.after(first.getItems().get(1))).getItems().get(0).getName());
+
+        assertThrows(IllegalArgumentException.class, () -> productService.getAllProducts(null));
+
+        // Clean up
+        userDAO.deleteUser(sortSeller.getUser_id());
+    }
+
+    @Test
+    @DisplayName("Test Product Name Suggestions")
+    void testProductNameSuggestions() {
+        Product lamp = productService.createProduct("Walnut Desk Lamp", "Light", 20.00, 10, testSeller);
+        Product chair = productService.createProduct("Walnut Desk Chair", "Seat", 80.00, 10, testSeller);
+        Product stool = productService.createProduct("walnut  desk chair", "Seat", 40.00, 10, testSeller);
+
+        // Two listings share the chair's name, so it ranks first
+        assertEquals(List.of("walnut desk chair", "Walnut Desk Lamp"), productService.suggestProductNames("  WALNUT desk", 5));
+
+        // Units sold outweigh listings
+        productService.stockChanged(Map.of(lamp.getProduct_id(), -3));
+        assertEquals("Walnut Desk Lamp", productService.suggestProductNames("walnut", 5).get(0));
+
+        // Renames and deletes move the name out of the trie
+        Product renamed = productService.getProduct(stool.getProduct_id());
+        renamed.setName("Walnut Stool");
+        assertEquals(ProductWriteResult.SUCCESS, productService.updateProduct(renamed, testSeller));
+        assertEquals(ProductWriteResult.SUCCESS, productService.deleteProduct(chair.getProduct_id(), testSeller));
+        assertEquals(List.of("Walnut Desk Lamp", "Walnut Stool"), productService.suggestProductNames("Walnut ", 5));
+        assertEquals(List.of(), productService.suggestProductNames("walnut desk c", 5));
+        assertEquals(List.of(), productService.suggestProductNames(" ", 5));
+        assertThrows(IllegalArgumentException.class, () -> productService.suggestProductNames("walnut", 0));
+
+        // Clean up
+        productService.deleteProduct(lamp.getProduct_id(), testSeller);
+        productService.deleteProduct(stool.getProduct_id(), testSeller);
+    }
+
+    @Test
+    @DisplayName("Test Products Written During Index Build")
+    void testCreateDuringIndexBuild() throws Exception {
+        InMemoryDatabase database = new InMemoryDatabase();
+        User seller = new InMemoryUserRepository(database)
+                .createUser(new User("buildSeller", "password", "build@test.com", "seller"));
+        Product lamp = new InMemoryProductRepository(database)
+                .createProduct(new Product("Reading Lamp", "Built before the index", 20.00, 5, seller.getUser_id()));
+        AtomicReference<ProductService> service = new AtomicReference<>();
+        AtomicReference<Thread> writer = new AtomicReference<>();
+        service.set(new ProductService(new InMemoryProductRepository(database) {
+            @Override
+            public Stream<Product> streamAllProducts() {
+                List<Product> snapshot = super.streamAllProducts().toList();
+                // Writes made after the snapshot, while the build is still running
+                writer.set(new Thread(() -> {
+                    service.get().createProduct("Lantern", "Created mid-build", 15.00, 2, seller);
+                    service.get().adjustStock(lamp.getProduct_id(), -2, seller);
+                }));
+                writer.get().start();
+                try {
+                    writer.get().join(5_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                assertFalse(writer.get().isAlive(), "Writes should not wait for the build");
+                return snapshot.stream();
+            }
+        }));
+
+        service.get().buildSearchIndex();
+        writer.get().join();
+
+        assertEquals(1, service.get().searchProducts("lantern").size());
+        assertEquals(List.of("Lantern"), service.get().suggestProductNames("lan", 5));
+        assertEquals(2, service.get().getFacets(seller.getUser_id(), Set.of(), false).getMatched());
+        // The stock change is applied once, not again on top of a snapshot that missed it
+        assertEquals(3, service.get().searchProducts("lamp").get(0).getQuantity());
+    }
+
     @AfterAll
     static void tearDown() throws SQLException {
         // Clean up test data
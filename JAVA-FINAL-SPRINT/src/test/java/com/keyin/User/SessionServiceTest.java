@@ -0,0 +1,107 @@
+package com.keyin.User;
+
+import com.keyin.Database.InMemoryDatabase;
+import com.keyin.Database.InMemoryUserRepository;
+import org.junit.jupiter.api.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionServiceTest {
+    private static final long TTL = 6_300;
+
+    private ExecutorService hashingExecutor;
+    private UserService userService;
+    private AtomicLong clock;
+    private SessionService sessionService;
+
+    @BeforeEach
+    void setUp() {
+        hashingExecutor = UserService.newHashingExecutor(1, 4);
+        userService = new UserService(new InMemoryUserRepository(new InMemoryDatabase()), hashingExecutor, 4);
+        userService.registerUser("buyer", "secret", "buyer@test.com", "buyer");
+        clock = new AtomicLong(1_000_000);
+        sessionService = new SessionService(userService, TTL, 2, clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Test Session Login And Logout")
+    void testLoginAndLogout() {
+        String token = sessionService.login("buyer", "secret");
+        assertEquals("buyer", sessionService.authenticate(token).getUsername());
+        assertNull(sessionService.authenticate("unknown"));
+
+        assertTrue(sessionService.logout(token));
+        assertNull(sessionService.authenticate(token));
+        assertFalse(sessionService.logout(token));
+        assertThrows(IllegalArgumentException.class, () -> sessionService.login("buyer", "wrong"));
+    }
+
+    @Test
+    @DisplayName("Test Sliding Expiry And Sweeping")
+    void testSlidingExpiry() {
+        String active = sessionService.login("buyer", "secret");
+        String idle = sessionService.login("buyer", "secret");
+
+        // Using a session pushes its expiry out by a full time-to-live
+        clock.addAndGet(TTL / 2);
+        assertNotNull(sessionService.authenticate(active));
+        clock.addAndGet(TTL * 3 / 4);
+        sessionService.sweep();
+        assertNotNull(sessionService.authenticate(active));
+        assertNull(sessionService.authenticate(idle));
+        assertEquals(1, sessionService.size());
+
+        clock.addAndGet(TTL * 5);
+        assertNull(sessionService.authenticate(active));
+        sessionService.sweep();
+        assertEquals(0, sessionService.size());
+    }
+
+    @Test
+    @DisplayName("Test Session Capacity And Revocation")
+    void testCapacityAndRevocation() {
+        User buyer = userService.login("buyer", "secret");
+        sessionService.issue(buyer);
+        sessionService.issue(buyer);
+        assertThrows(IllegalStateException.class, () -> sessionService.issue(buyer));
+
+        assertEquals(2, sessionService.revokeUser(buyer.getUser_id()));
+        assertEquals(0, sessionService.size());
+        assertNotNull(sessionService.issue(buyer));
+    }
+
+    @Test
+    @DisplayName("Test Logout Leaves Nothing In The Wheel")
+    void testLogoutUnlinks() {
+        User buyer = userService.login("buyer", "secret");
+        // Never swept, so only unlinking on logout keeps the wheel from growing
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(sessionService.logout(sessionService.issue(buyer)));
+        }
+        String kept = sessionService.issue(buyer);
+        assertEquals(1, sessionService.size());
+        assertEquals(1, sessionService.scheduled());
+
+        assertEquals(1, sessionService.revokeUser(buyer.getUser_id()));
+        assertNull(sessionService.authenticate(kept));
+        assertEquals(0, sessionService.scheduled());
+    }
+
+    @Test
+    @DisplayName("Test Deleting A User Ends Its Sessions")
+    void testDeletionRevokes() {
+        String token = sessionService.login("buyer", "secret");
+        User buyer = userService.login("buyer", "secret");
+
+        assertTrue(userService.deleteUser(buyer.getUser_id()));
+        assertNull(sessionService.authenticate(token));
+        assertEquals(0, sessionService.size());
+    }
+}
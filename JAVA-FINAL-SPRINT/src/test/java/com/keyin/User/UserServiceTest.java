@@ -0,0 +1,174 @@
+package com.keyin.User;
+
+import com.keyin.Database.InMemoryDatabase;
+import com.keyin.Database.InMemoryUserRepository;
+import com.keyin.Roles.Buyer;
+import org.junit.jupiter.api.*;
+import java.sql.SQLException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserServiceTest {
+    private ExecutorService hashingExecutor;
+    private UserRepository userRepository;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        hashingExecutor = UserService.newHashingExecutor(1, 1);
+        userRepository = new InMemoryUserRepository(new InMemoryDatabase());
+        userService = new UserService(userRepository, hashingExecutor, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Test Asynchronous Register And Login")
+    void testAsyncRegisterAndLogin() {
+        User registered = userService.registerAsync("buyer", "secret", "buyer@test.com", "buyer").join();
+        assertTrue(registered instanceof Buyer);
+
+        User loggedIn = userService.loginAsync("buyer", "secret").join();
+        assertEquals(registered.getUser_id(), loggedIn.getUser_id());
+
+        CompletionException wrongPassword = assertThrows(CompletionException.class, () ->
+                userService.loginAsync("buyer", "wrong").join());
+        assertTrue(wrongPassword.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    @DisplayName("Test Hashing Queue Rejects When Full")
+    void testHashingQueueRejectsWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        // Occupy the only thread and the only queue slot
+        hashingExecutor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        hashingExecutor.execute(() -> { });
+
+        CompletionException rejected = assertThrows(CompletionException.class, () ->
+                userService.loginAsync("buyer", "secret").join());
+        assertTrue(rejected.getCause() instanceof IllegalStateException);
+
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Test Rehash On Login When Cost Changes")
+    void testRehashOnLogin() throws Exception {
+        User registered = userService.registerUser("seller", "secret", "seller@test.com", "seller");
+        assertEquals(4, BCryptCostCalibrator.costOf(registered.getPassword()));
+
+        UserService upgraded = new UserService(userRepository, hashingExecutor, 5);
+        upgraded.login("seller", "secret");
+        String rehashed = userRepository.getUserByUsername("seller").getPassword();
+        assertEquals(5, BCryptCostCalibrator.costOf(rehashed));
+
+        // Already at the current cost: the hash is left alone
+        upgraded.login("seller", "secret");
+        assertEquals(rehashed, userRepository.getUserByUsername("seller").getPassword());
+
+        // A lower calibrated cost never downgrades a stronger hash
+        userService.login("seller", "secret");
+        assertEquals(rehashed, userRepository.getUserByUsername("seller").getPassword());
+
+        // A failed save of the new hash still lets the user in
+        UserRepository failingSaves = new InMemoryUserRepository(new InMemoryDatabase()) {
+            @Override
+            public boolean updatePassword(int userId, String expectedHash, String newHash) throws SQLException {
+                throw new SQLException("Connection lost");
+            }
+        };
+        new UserService(failingSaves, hashingExecutor, 4).registerUser("buyer", "secret", "buyer@test.com", "buyer");
+        assertEquals("buyer", new UserService(failingSaves, hashingExecutor, 5).login("buyer", "secret").getUsername());
+    }
+
+    @Test
+    @DisplayName("Test BCrypt Cost Calibration")
+    void testCostCalibration() {
+        int cost = BCryptCostCalibrator.calibrate(1, 4);
+        assertTrue(cost >= 4 && cost <= BCryptCostCalibrator.MAX_COST);
+        assertEquals(10, BCryptCostCalibrator.costOf("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy"));
+        assertEquals(-1, BCryptCostCalibrator.costOf("plain"));
+        assertThrows(IllegalArgumentException.class, () -> BCryptCostCalibrator.calibrate(250, 3));
+    }
+
+    @Test
+    @DisplayName("Test Duplicate Registration")
+    void testDuplicateRegistration() throws Exception {
+        userService.registerUser("buyer", "secret", "buyer@test.com", "buyer");
+
+        IllegalArgumentException duplicateUsername = assertThrows(IllegalArgumentException.class, () ->
+                userService.registerUser("buyer", "secret", "other@test.com", "buyer"));
+        assertEquals("Username already exists", duplicateUsername.getMessage());
+
+        IllegalArgumentException duplicateEmail = assertThrows(IllegalArgumentException.class, () ->
+                userService.registerUser("other", "secret", "buyer@test.com", "buyer"));
+        assertEquals("Email already registered", duplicateEmail.getMessage());
+
+        User late = new User("other", "hash", "buyer@test.com", "buyer");
+        assertEquals(UserConflict.EMAIL, userRepository.createUserIfAbsent(late));
+        assertEquals(0, late.getUser_id());
+        assertNull(userRepository.getUserByUsername("other"));
+    }
+
+    @Test
+    @DisplayName("Test Login Throttling")
+    void testLoginThrottling() {
+        AtomicLong clock = new AtomicLong();
+        LoginThrottler throttler = new LoginThrottler(4, 6, 2, 6, 5, 60, 1024, clock::get);
+        UserService throttled = new UserService(userRepository, hashingExecutor, 4, throttler);
+        throttled.registerUser("buyer", "secret", "buyer@test.com", "buyer");
+
+        // Successful logins give back their username attempts but still use up the source
+        for (int i = 0; i < 5; i++) {
+            throttled.login("buyer", "secret", "10.0.0.9");
+        }
+        assertThrows(IllegalStateException.class, () -> throttled.login("buyer", "secret", "10.0.0.9"));
+        assertEquals(1, throttler.getRejectedBySource());
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalArgumentException.class, () -> throttled.login("buyer", "wrong", "10.0.0.1"));
+        }
+        // Rejected before the password is even checked
+        assertThrows(IllegalStateException.class, () -> throttled.login("buyer", "secret", "10.0.0.1"));
+        assertEquals(1, throttler.getRejectedByPair());
+        // The owner logging in from a fresh source is not locked out by one source's guesses
+        assertEquals("buyer", throttled.login("buyer", "secret", "10.0.0.2").getUsername());
+
+        // Guesses spread over sources still count against the account
+        assertThrows(IllegalArgumentException.class, () -> throttled.login("buyer", "wrong", "10.0.0.3"));
+        assertThrows(IllegalArgumentException.class, () -> throttled.login("buyer", "wrong", "10.0.0.4"));
+        assertThrows(IllegalStateException.class, () -> throttled.login("buyer", "secret", "10.0.0.5"));
+        assertEquals(1, throttler.getRejectedByUsername());
+
+        // One source guessing across many usernames
+        for (int i = 0; i < 5; i++) {
+            String username = "guess" + i;
+            assertThrows(IllegalArgumentException.class, () -> throttled.login(username, "wrong", "10.0.0.6"));
+        }
+        CompletionException bySource = assertThrows(CompletionException.class, () ->
+                throttled.loginAsync("guess9", "wrong", "10.0.0.6").join());
+        assertTrue(bySource.getCause() instanceof IllegalStateException);
+        assertEquals(2, throttler.getRejectedBySource());
+
+        // Buckets refill over time: 6 per minute is one every 10 seconds
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals("buyer", throttled.login("buyer", "secret", "10.0.0.1").getUsername());
+    }
+}